@@ -102,41 +102,51 @@ public class AccessDenial extends AccessCredential {
             // TODO process as JSON-LD
             final Map<String, Object> data = jsonService.fromJson(in,
                     new HashMap<String, Object>(){}.getClass().getGenericSuperclass());
+            return of(data, serialization);
+        }
+    }
 
-            final List<Map<String, Object>> vcs = getCredentialsFromPresentation(data, supportedTypes);
-            if (vcs.size() != 1) {
-                throw new IllegalArgumentException(
-                        "Invalid Access Denial: ambiguous number of verifiable credentials");
-            }
-            final Map<String, Object> vc = vcs.get(0);
+    /**
+     * Create an AccessDenial object from a parsed verifiable presentation.
+     *
+     * @param data the parsed verifiable presentation
+     * @param serialization the serialized form of the same presentation
+     * @return the access denial
+     */
+    static AccessDenial of(final Map<String, Object> data, final String serialization) {
+        final List<Map<String, Object>> vcs = getCredentialsFromPresentation(data, supportedTypes);
+        if (vcs.size() != 1) {
+            throw new IllegalArgumentException(
+                    "Invalid Access Denial: ambiguous number of verifiable credentials");
+        }
+        final Map<String, Object> vc = vcs.get(0);
 
-            if (asSet(data.get(TYPE)).orElseGet(Collections::emptySet).contains("VerifiablePresentation")) {
-                final URI identifier = asUri(vc.get("id")).orElseThrow(() ->
-                        new IllegalArgumentException("Missing or invalid id field"));
+        if (asSet(data.get(TYPE)).orElseGet(Collections::emptySet).contains("VerifiablePresentation")) {
+            final URI identifier = asUri(vc.get("id")).orElseThrow(() ->
+                    new IllegalArgumentException("Missing or invalid id field"));
 
-                // Extract metadata
-                final CredentialMetadata credentialMetadata = extractMetadata(vc);
+            // Extract metadata
+            final CredentialMetadata credentialMetadata = extractMetadata(vc);
 
 
-                // Extract V1 Access Denial data, using gConsent
-                final Map<String, Object> consent = extractConsent(vc, "providedConsent");
+            // Extract V1 Access Denial data, using gConsent
+            final Map<String, Object> consent = extractConsent(vc, "providedConsent");
 
-                final Optional<URI> person = asUri(consent.get("isProvidedToPerson"));
-                final Optional<URI> controller = asUri(consent.get("isProvidedToController"));
-                final Optional<URI> other = asUri(consent.get("isProvidedTo"));
+            final Optional<URI> person = asUri(consent.get("isProvidedToPerson"));
+            final Optional<URI> controller = asUri(consent.get("isProvidedToController"));
+            final Optional<URI> other = asUri(consent.get("isProvidedTo"));
 
-                final URI recipient = person.orElseGet(() -> controller.orElseGet(() -> other.orElse(null)));
-                final Set<String> modes = asSet(consent.get("mode")).orElseGet(Collections::emptySet);
-                final Set<URI> resources = asSet(consent.get("forPersonalData")).orElseGet(Collections::emptySet)
-                    .stream().map(URI::create).collect(Collectors.toSet());
-                final Set<URI> purposes = asSet(consent.get("forPurpose")).orElseGet(Collections::emptySet)
-                    .stream().flatMap(AccessCredential::filterUris).collect(Collectors.toSet());
-                final CredentialData credentialData = new CredentialData(resources, modes, purposes, recipient);
+            final URI recipient = person.orElseGet(() -> controller.orElseGet(() -> other.orElse(null)));
+            final Set<String> modes = asSet(consent.get("mode")).orElseGet(Collections::emptySet);
+            final Set<URI> resources = asSet(consent.get("forPersonalData")).orElseGet(Collections::emptySet)
+                .stream().map(URI::create).collect(Collectors.toSet());
+            final Set<URI> purposes = asSet(consent.get("forPurpose")).orElseGet(Collections::emptySet)
+                .stream().flatMap(AccessCredential::filterUris).collect(Collectors.toSet());
+            final CredentialData credentialData = new CredentialData(resources, modes, purposes, recipient);
 
-                return new AccessDenial(identifier, serialization, credentialData, credentialMetadata);
-            } else {
-                throw new IllegalArgumentException("Invalid Access Denial: missing VerifiablePresentation type");
-            }
+            return new AccessDenial(identifier, serialization, credentialData, credentialMetadata);
+        } else {
+            throw new IllegalArgumentException("Invalid Access Denial: missing VerifiablePresentation type");
         }
     }
 }
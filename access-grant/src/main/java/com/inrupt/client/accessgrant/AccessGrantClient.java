@@ -30,6 +30,7 @@ import com.inrupt.client.Response;
 import com.inrupt.client.auth.Session;
 import com.inrupt.client.spi.JsonService;
 import com.inrupt.client.spi.ServiceProvider;
+import com.inrupt.client.util.DiscoveryCache;
 import com.inrupt.client.util.URIBuilder;
 
 import java.io.ByteArrayInputStream;
@@ -109,6 +110,8 @@ public class AccessGrantClient {
     private static final String EXPIRATION_DATE = "expirationDate";
     private static final String ISSUANCE_DATE = "issuanceDate";
     private static final String CREDENTIAL = "credential";
+    private static final String ENCODED_LIST = "encodedList";
+    private static final String REVOCATION_LIST_2020_STATUS = "RevocationList2020Status";
     private static final String SOLID_ACCESS_GRANT = "SolidAccessGrant";
     private static final String SOLID_ACCESS_REQUEST = "SolidAccessRequest";
     private static final String SOLID_ACCESS_DENIAL = "SolidAccessDenial";
@@ -120,7 +123,9 @@ public class AccessGrantClient {
     private static final Set<String> ACCESS_DENIAL_TYPES = getAccessDenialTypes();
 
     private final Client client;
-    private final ClientCache<URI, Metadata> metadataCache;
+    private final DiscoveryCache<Metadata> metadataCache;
+    private final VerificationCache verificationCache;
+    private final StatusListCache statusListCache;
     private final JsonService jsonService;
     private final AccessGrantConfiguration config;
 
@@ -140,18 +145,26 @@ public class AccessGrantClient {
      * @param issuer the issuer
      */
     public AccessGrantClient(final Client client, final URI issuer) {
-        this(client, issuer, ServiceProvider.getCacheBuilder().build(100, Duration.ofMinutes(60)));
+        this(client, issuer, ServiceProvider.getCacheBuilder().build(100, Duration.ofHours(24)));
     }
 
     /**
      * Create an access grant client.
      *
+     * <p>Metadata is retained for the duration of its {@code Cache-Control: max-age}, or 60 minutes
+     * if there is no such directive, unless the cache itself expires the metadata earlier.
+     *
      * @param client the client
      * @param issuer the issuer
      * @param metadataCache the metadata cache
      */
     public AccessGrantClient(final Client client, final URI issuer, final ClientCache<URI, Metadata> metadataCache) {
-        this(client, metadataCache, new AccessGrantConfiguration(issuer));
+        this(client, new DiscoveryCache<>(Objects.requireNonNull(metadataCache, "metadataCache may not be null!"),
+                    Duration.ofMinutes(60)),
+                new VerificationCache(ServiceProvider.getCacheBuilder().build(1000, Duration.ofMinutes(5)),
+                    Duration.ofMinutes(5)),
+                new StatusListCache(ServiceProvider.getCacheBuilder().build(100, Duration.ofHours(24))),
+                new AccessGrantConfiguration(issuer));
     }
 
     /**
@@ -159,14 +172,19 @@ public class AccessGrantClient {
      *
      * @param client the client
      * @param metadataCache the metadata cache
+     * @param verificationCache the verification cache
+     * @param statusListCache the status list cache
      * @param config the access grant configuration
      */
     // This ctor may be made public at a later point
-    private AccessGrantClient(final Client client, final ClientCache<URI, Metadata> metadataCache,
+    private AccessGrantClient(final Client client, final DiscoveryCache<Metadata> metadataCache,
+            final VerificationCache verificationCache, final StatusListCache statusListCache,
             final AccessGrantConfiguration config) {
         this.client = Objects.requireNonNull(client, "client may not be null!");
         this.config = Objects.requireNonNull(config, "config may not be null!");
-        this.metadataCache = Objects.requireNonNull(metadataCache, "metadataCache may not be null!");
+        this.metadataCache = metadataCache;
+        this.verificationCache = verificationCache;
+        this.statusListCache = statusListCache;
         this.jsonService = ServiceProvider.getJsonService();
         LOGGER.debug("Initializing Access Grant client with issuer: {}", config.getIssuer());
     }
@@ -179,7 +197,8 @@ public class AccessGrantClient {
      */
     public AccessGrantClient session(final Session session) {
         Objects.requireNonNull(session, "Session may not be null!");
-        return new AccessGrantClient(client.session(session), metadataCache, config);
+        return new AccessGrantClient(client.session(session), metadataCache, verificationCache, statusListCache,
+                config);
     }
 
     /**
@@ -304,11 +323,20 @@ public class AccessGrantClient {
     /**
      * Verify an access grant or request.
      *
+     * <p>Verification results are retained for up to five minutes, but never beyond the expiration of the
+     * credential, and are discarded when the credential is revoked through this client. Concurrent verifications
+     * of the same credential share a single request.
+     *
      * @param credential the credential to verify
      * @return the next stage of completion containing the verification result in the form of a
      * {@link AccessCredentialVerification}
      */
     public CompletionStage<AccessCredentialVerification> verify(final AccessCredential credential) {
+        Objects.requireNonNull(credential, "Credential may not be null!");
+        return verificationCache.get(credential, this::verifyCredential);
+    }
+
+    CompletionStage<AccessCredentialVerification> verifyCredential(final AccessCredential credential) {
         return v1Metadata().thenCompose(metadata -> {
 
             final Map<String, Object> presentation = new HashMap<>();
@@ -455,10 +483,75 @@ public class AccessGrantClient {
                         throw new AccessGrantException("Unable to revoke Access Grant: " +
                                 credential.getIdentifier(), code);
                     }
+                    verificationCache.invalidate(credential.getIdentifier());
+                    statusListCache.invalidate(status.getCredential());
                 });
         });
     }
 
+    /**
+     * Check whether an access credential has been revoked, using its status list.
+     *
+     * <p>The status list credential is fetched once and shared by all of the credentials that refer to it.
+     * It is retained for the duration of its {@code Cache-Control: max-age}, or five minutes if there is no
+     * such directive, and is then revalidated with its entity tag, if any. The proof of the status list
+     * credential is not checked. For a full verification of a credential, use {@link #verify}.
+     *
+     * @param credential the access credential
+     * @return the next stage of completion, containing true if the credential has been revoked; a credential
+     *         without status information cannot be revoked
+     */
+    public CompletionStage<Boolean> isRevoked(final AccessCredential credential) {
+        Objects.requireNonNull(credential, "Credential may not be null!");
+        final Status status = credential.getStatus().orElse(null);
+        if (status == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (!REVOCATION_LIST_2020_STATUS.equals(status.getType())) {
+            final CompletableFuture<Boolean> future = new CompletableFuture<>();
+            future.completeExceptionally(new AccessGrantException("Unsupported credential status type: " +
+                        status.getType()));
+            return future;
+        }
+        return statusListCache.get(status.getCredential(), this::fetchStatusList)
+            .thenApply(list -> list.isSet(status.getIndex()));
+    }
+
+    CompletionStage<StatusListCache.StatusList> fetchStatusList(final URI identifier,
+            final StatusListCache.StatusList stale) {
+        final Request.Builder builder = Request.newBuilder(identifier)
+            .header("Accept", "application/ld+json,application/json");
+        if (stale != null && stale.getEtag() != null) {
+            builder.header("If-None-Match", stale.getEtag());
+        }
+        return client.send(builder.build(), Response.BodyHandlers.ofInputStream())
+            .thenApply(res -> {
+                try (final InputStream input = res.body()) {
+                    final int httpStatus = res.statusCode();
+                    final Duration maxAge = DiscoveryCache.maxAge(res.headers(), Duration.ofMinutes(5));
+                    if (httpStatus == 304 && stale != null) {
+                        return stale.revalidate(maxAge);
+                    }
+                    if (isSuccess(httpStatus)) {
+                        final Map<String, Object> data = jsonService.fromJson(input,
+                                new HashMap<String, Object>(){}.getClass().getGenericSuperclass());
+                        final Object encodedList = Utils.asMap(data.get(CREDENTIAL_SUBJECT))
+                            .map(subject -> subject.get(ENCODED_LIST)).orElse(null);
+                        if (encodedList instanceof String) {
+                            return StatusListCache.StatusList.decode((String) encodedList,
+                                    res.headers().firstValue("ETag").orElse(null), maxAge);
+                        }
+                        throw new AccessGrantException("Invalid status list credential: no 'encodedList' field");
+                    }
+                    throw new AccessGrantException(
+                            "Unable to fetch the status list: HTTP Error " + httpStatus, httpStatus);
+                } catch (final IOException ex) {
+                    throw new AccessGrantException(
+                            "Unexpected I/O exception while fetching the status list", ex);
+                }
+            });
+    }
+
     /**
      * Fetch an access credential by identifier. Return at most one access credential or throws an exception.
      *
@@ -493,7 +586,6 @@ public class AccessGrantClient {
             });
     }
 
-    @SuppressWarnings("unchecked")
     <T extends AccessCredential> T processVerifiableCredential(final InputStream input, final Set<String> validTypes,
             final Class<T> clazz) throws IOException {
         final Map<String, Object> data = jsonService.fromJson(input,
@@ -502,22 +594,14 @@ public class AccessGrantClient {
                 new AccessGrantException("Invalid Access Grant: no 'type' field"));
         types.retainAll(validTypes);
         if (!types.isEmpty()) {
-            final Map<String, Object> presentation = new HashMap<>();
-            presentation.put(CONTEXT, Arrays.asList(VC_CONTEXT_URI));
-            presentation.put(TYPE, Arrays.asList("VerifiablePresentation"));
-            presentation.put(VERIFIABLE_CREDENTIAL, Arrays.asList(data));
-            if (AccessGrant.class.isAssignableFrom(clazz)) {
-                return (T) AccessGrant.of(new String(serialize(presentation), UTF_8));
-            } else if (AccessRequest.class.isAssignableFrom(clazz)) {
-                return (T) AccessRequest.of(new String(serialize(presentation), UTF_8));
-            } else if (AccessDenial.class.isAssignableFrom(clazz)) {
-                return (T) AccessDenial.of(new String(serialize(presentation), UTF_8));
+            final T credential = toAccessCredential(data, clazz);
+            if (credential != null) {
+                return credential;
             }
         }
         throw new AccessGrantException("Invalid Access Grant: missing supported type");
     }
 
-    @SuppressWarnings("unchecked")
     <T extends AccessCredential> List<T> processQueryResponse(final InputStream input, final Set<String> validTypes,
             final Class<T> clazz) throws IOException {
         final Map<String, Object> data = jsonService.fromJson(input,
@@ -528,16 +612,9 @@ public class AccessGrantClient {
                 Utils.asSet(credential.get(TYPE)).ifPresent(types -> {
                     types.retainAll(validTypes);
                     if (!types.isEmpty()) {
-                        final Map<String, Object> presentation = new HashMap<>();
-                        presentation.put(CONTEXT, Arrays.asList(VC_CONTEXT_URI));
-                        presentation.put(TYPE, Arrays.asList("VerifiablePresentation"));
-                        presentation.put(VERIFIABLE_CREDENTIAL, Arrays.asList(credential));
-                        if (AccessGrant.class.equals(clazz)) {
-                            grants.add((T) AccessGrant.of(new String(serialize(presentation), UTF_8)));
-                        } else if (AccessRequest.class.equals(clazz)) {
-                            grants.add((T) AccessRequest.of(new String(serialize(presentation), UTF_8)));
-                        } else if (AccessDenial.class.equals(clazz)) {
-                            grants.add((T) AccessDenial.of(new String(serialize(presentation), UTF_8)));
+                        final T grant = toAccessCredential(credential, clazz);
+                        if (grant != null) {
+                            grants.add(grant);
                         }
                     }
                 }));
@@ -546,39 +623,61 @@ public class AccessGrantClient {
         return grants;
     }
 
+    /* Wrap a parsed credential in a presentation, which is serialized once and not parsed again */
+    @SuppressWarnings("unchecked")
+    <T extends AccessCredential> T toAccessCredential(final Map<String, Object> credential, final Class<T> clazz) {
+        final Map<String, Object> presentation = new HashMap<>();
+        presentation.put(CONTEXT, Arrays.asList(VC_CONTEXT_URI));
+        presentation.put(TYPE, Arrays.asList("VerifiablePresentation"));
+        presentation.put(VERIFIABLE_CREDENTIAL, Arrays.asList(credential));
+        if (AccessGrant.class.isAssignableFrom(clazz)) {
+            return (T) AccessGrant.of(presentation, new String(serialize(presentation), UTF_8));
+        } else if (AccessRequest.class.isAssignableFrom(clazz)) {
+            return (T) AccessRequest.of(presentation, new String(serialize(presentation), UTF_8));
+        } else if (AccessDenial.class.isAssignableFrom(clazz)) {
+            return (T) AccessDenial.of(presentation, new String(serialize(presentation), UTF_8));
+        }
+        return null;
+    }
+
+    /**
+     * Fetch the metadata resource of the access grant issuer ahead of its use.
+     *
+     * @return the next stage of completion, which completes once the metadata resource is cached
+     */
+    public CompletionStage<Void> warmUp() {
+        return v1Metadata().thenAccept(metadata -> { });
+    }
+
     CompletionStage<Metadata> v1Metadata() {
+        // Concurrent requests for the same metadata share a single fetch
         final URI uri = URIBuilder.newBuilder(config.getIssuer()).path(".well-known/vc-configuration").build();
-        final Metadata cached = metadataCache.get(uri);
-        if (cached != null) {
-            return CompletableFuture.completedFuture(cached);
+        return metadataCache.get(uri,
+                location -> client.send(Request.newBuilder(location).header("Accept", APPLICATION_JSON).build(),
+                    Response.BodyHandlers.ofInputStream()),
+                this::processMetadataResponse);
+    }
+
+    Metadata processMetadataResponse(final Response<InputStream> res) {
+        final Map<String, Object> metadata;
+        try (final InputStream input = res.body()) {
+            final int httpStatus = res.statusCode();
+            if (!isSuccess(httpStatus)) {
+                throw new AccessGrantException(
+                        "Unable to fetch the Access Grant metadata: HTTP Error " + httpStatus, httpStatus);
+            }
+            metadata = jsonService.fromJson(input, new HashMap<String, Object>(){}.getClass().getGenericSuperclass());
+        } catch (final IOException ex) {
+            throw new AccessGrantException(
+                    "Unexpected I/O exception while fetching the Access Grant metadata resource.", ex);
         }
 
-        final Request req = Request.newBuilder(uri).header("Accept", APPLICATION_JSON).build();
-        return client.send(req, Response.BodyHandlers.ofInputStream())
-            .thenApply(res -> {
-                try (final InputStream input = res.body()) {
-                    final int httpStatus = res.statusCode();
-                    if (isSuccess(httpStatus)) {
-                        final Map<String, Object> data = jsonService.fromJson(input,
-                                new HashMap<String, Object>(){}.getClass().getGenericSuperclass());
-                        return data;
-                    }
-                    throw new AccessGrantException(
-                            "Unable to fetch the Access Grant metadata: HTTP Error " + httpStatus, httpStatus);
-                } catch (final IOException ex) {
-                    throw new AccessGrantException(
-                            "Unexpected I/O exception while fetching the Access Grant metadata resource.", ex);
-                }
-            })
-            .thenApply(metadata -> {
-                final Metadata m = new Metadata();
-                m.queryEndpoint = asUri(metadata.get("derivationService"));
-                m.issueEndpoint = asUri(metadata.get("issuerService"));
-                m.verifyEndpoint = asUri(metadata.get("verifierService"));
-                m.statusEndpoint = asUri(metadata.get("statusService"));
-                metadataCache.put(uri, m);
-                return m;
-            });
+        final Metadata m = new Metadata();
+        m.queryEndpoint = asUri(metadata.get("derivationService"));
+        m.issueEndpoint = asUri(metadata.get("issuerService"));
+        m.verifyEndpoint = asUri(metadata.get("verifierService"));
+        m.statusEndpoint = asUri(metadata.get("statusService"));
+        return m;
     }
 
     byte[] serialize(final Map<String, Object> data) {
@@ -26,6 +26,8 @@ import com.inrupt.client.ClientCache;
 import com.inrupt.client.Request;
 import com.inrupt.client.auth.Authenticator;
 import com.inrupt.client.auth.Credential;
+import com.inrupt.client.auth.CredentialRenewal;
+import com.inrupt.client.auth.ResourceTokenCache;
 import com.inrupt.client.auth.Session;
 import com.inrupt.client.spi.ServiceProvider;
 
@@ -36,14 +38,12 @@ import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
-import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
 
 /**
  * A session implementation that makes use of Access Grants.
@@ -55,21 +55,23 @@ public final class AccessGrantSession implements Session {
      */
     public static final URI VERIFIABLE_CREDENTIAL = URI.create("https://www.w3.org/TR/vc-data-model/#json-ld");
 
+    private static final URI ID_TOKEN = URI.create("http://openid.net/specs/openid-connect-core-1_0.html#IDToken");
+
     private final String id;
     private final Session session;
-    private final NavigableMap<URI, AccessGrant> grants = new ConcurrentSkipListMap<>();
-    private final ClientCache<URI, Credential> tokenCache;
+    private final GrantIndex<EncodedGrant> grants = new GrantIndex<>(encoded -> encoded.grant);
+    private final ResourceTokenCache tokenCache;
+    private final CredentialRenewal renewals;
 
     private AccessGrantSession(final Session session, final ClientCache<URI, Credential> cache,
             final List<AccessGrant> grants) {
         this.id = UUID.randomUUID().toString();
         this.session = session;
-        this.tokenCache = Objects.requireNonNull(cache, "Cache may not be null!");
+        this.tokenCache = new ResourceTokenCache(Objects.requireNonNull(cache, "Cache may not be null!"));
+        this.renewals = new CredentialRenewal(CredentialRenewal.DEFAULT_RATIO, 1000, Duration.ofMinutes(10));
 
         for (final AccessGrant grant : grants) {
-            for (final URI uri : grant.getResources()) {
-                this.grants.put(uri, grant);
-            }
+            this.grants.add(new EncodedGrant(grant));
         }
     }
 
@@ -98,6 +100,51 @@ public final class AccessGrantSession implements Session {
         return new AccessGrantSession(session, cache, Arrays.asList(accessGrants));
     }
 
+    /**
+     * Add access grants to this session.
+     *
+     * @param accessGrants the access grants
+     */
+    public void addAccessGrants(final AccessGrant... accessGrants) {
+        for (final AccessGrant grant : accessGrants) {
+            grants.add(new EncodedGrant(Objects.requireNonNull(grant, "Access grant may not be null!")));
+        }
+    }
+
+    /**
+     * Remove access grants from this session.
+     *
+     * <p>Any tokens negotiated by this session are discarded, since they may have been issued on the basis of
+     * a removed grant.
+     *
+     * @param accessGrants the access grants
+     */
+    public void removeAccessGrants(final AccessGrant... accessGrants) {
+        boolean removed = false;
+        for (final AccessGrant grant : accessGrants) {
+            removed |= grants.remove(Objects.requireNonNull(grant, "Access grant may not be null!"));
+        }
+        if (removed) {
+            tokenCache.invalidateAll();
+            renewals.clear();
+        }
+    }
+
+    /**
+     * Find the access grant that applies to a resource.
+     *
+     * <p>A grant for a container applies to all of its descendants. The grant is taken from the closest
+     * ancestor of the resource, or the resource itself, for which a grant satisfies the filter. Among several
+     * such grants, the one that expires last is selected.
+     *
+     * @param uri the resource URI
+     * @param filter a filter for the candidate access grants, for instance by mode or purpose
+     * @return the access grant, if present
+     */
+    public Optional<AccessGrant> getAccessGrant(final URI uri, final Predicate<AccessGrant> filter) {
+        return grants.get(uri, filter).map(encoded -> encoded.grant);
+    }
+
     @Override
     public String getId() {
         return id;
@@ -107,6 +154,7 @@ public final class AccessGrantSession implements Session {
     public void reset() {
         session.reset();
         tokenCache.invalidateAll();
+        renewals.clear();
     }
 
     @Override
@@ -122,19 +170,38 @@ public final class AccessGrantSession implements Session {
     @Override
     public Optional<Credential> getCredential(final URI name, final URI uri) {
         if (VERIFIABLE_CREDENTIAL.equals(name)) {
-            final NavigableMap<URI, AccessGrant> descending = grants.headMap(uri, true).descendingMap();
-            for (final Map.Entry<URI, AccessGrant> entry : descending.entrySet()) {
-                if (isAncestor(entry.getKey(), uri)) {
-                    final AccessGrant grant = entry.getValue();
-                    return Optional.of(new Credential("", grant.getIssuer(), Base64.getUrlEncoder().withoutPadding()
-                                    .encodeToString(grant.serialize().getBytes(UTF_8)),
-                                grant.getExpiration(), session.getPrincipal().orElse(null), null));
-                }
+            final Optional<EncodedGrant> grant = findGrant(uri);
+            if (grant.isPresent()) {
+                return Optional.of(grant.get().getCredential(session.getPrincipal().orElse(null)));
             }
         }
         return session.getCredential(name, uri);
     }
 
+    @Override
+    public CompletionStage<Optional<Credential>> getCredentialAsync(final URI name, final URI uri) {
+        if (VERIFIABLE_CREDENTIAL.equals(name)) {
+            final Optional<EncodedGrant> grant = findGrant(uri);
+            if (grant.isPresent()) {
+                // Take the principal from the ID token, since getPrincipal may wait on a synchronous refresh
+                return session.getCredentialAsync(ID_TOKEN, uri)
+                    .thenApply(credential -> credential.flatMap(Credential::getPrincipal).orElse(null))
+                    .thenApply(principal -> Optional.of(grant.get().getCredential(principal)));
+            }
+        }
+        return session.getCredentialAsync(name, uri);
+    }
+
+    private Optional<EncodedGrant> findGrant(final URI uri) {
+        // An expired grant must not shadow a current grant for an ancestor resource
+        final Instant now = Instant.now();
+        final Optional<EncodedGrant> grant = grants.get(uri, g -> g.getExpiration().isAfter(now));
+        if (grant.isPresent()) {
+            return grant;
+        }
+        return grants.get(uri, g -> true);
+    }
+
     @Override
     public Optional<String> selectThumbprint(final Collection<String> algorithms) {
         return session.selectThumbprint(algorithms);
@@ -148,26 +215,63 @@ public final class AccessGrantSession implements Session {
     @Override
     public CompletionStage<Optional<Credential>> authenticate(final Authenticator authenticator,
             final Request request, final Set<String> algorithms) {
-        return authenticator.authenticate(this, request, algorithms)
-            .thenApply(credential -> {
-                if (credential != null) {
-                    tokenCache.put(cacheKey(request.uri()), credential);
-                }
-                return Optional.ofNullable(credential);
-            });
+        // Concurrent callers share a single negotiation, whose result is cached once
+        final URI key = cacheKey(request.uri());
+        return tokenCache.negotiate(key, authenticator, algorithms, () ->
+                authenticator.authenticate(this, request, algorithms)
+                    .thenApply(credential -> {
+                        if (credential != null) {
+                            renewals.track(key, credential);
+                        }
+                        return credential;
+                    }))
+            .thenApply(Optional::ofNullable);
     }
 
     @Override
     public Optional<Credential> fromCache(final Request request) {
-        final Credential cachedToken = tokenCache.get(cacheKey(request.uri()));
-        if (cachedToken != null && cachedToken.getExpiration().isAfter(Instant.now())) {
-            return Optional.of(cachedToken);
-        }
-        return Optional.empty();
+        return tokenCache.get(cacheKey(request.uri()));
+    }
+
+    @Override
+    public void rejectCredential(final Request request, final Credential credential) {
+        tokenCache.reject(cacheKey(request.uri()), credential);
+    }
+
+    @Override
+    public boolean requiresRenewal(final Request request) {
+        final URI key = cacheKey(request.uri());
+        final Credential cachedToken = tokenCache.getExact(key);
+        return cachedToken != null && cachedToken.getExpiration().isAfter(Instant.now())
+            && renewals.claim(key, cachedToken);
     }
 
-    static boolean isAncestor(final URI parent, final URI resource) {
-        return !parent.relativize(resource).isAbsolute();
+    /**
+     * An access grant with its encoded claim token.
+     *
+     * <p>Grants are immutable, so the claim token is encoded once. The credential is retained for as long as
+     * the principal of the underlying session remains the same.
+     */
+    static final class EncodedGrant {
+        final AccessGrant grant;
+        final String token;
+        private volatile Credential credential;
+
+        EncodedGrant(final AccessGrant grant) {
+            this.grant = grant;
+            this.token = Base64.getUrlEncoder().withoutPadding().encodeToString(grant.serialize().getBytes(UTF_8));
+        }
+
+        Credential getCredential(final URI principal) {
+            final Credential cached = credential;
+            if (cached != null && Objects.equals(principal, cached.getPrincipal().orElse(null))) {
+                return cached;
+            }
+            final Credential created = new Credential("", grant.getIssuer(), token, grant.getExpiration(),
+                    principal, null);
+            credential = created;
+            return created;
+        }
     }
 
     static URI cacheKey(final URI uri) {
@@ -0,0 +1,221 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.accessgrant;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * An index of access grants by the resources to which they apply.
+ *
+ * <p>The index is a trie of URI path segments, with one root per origin. A grant for a resource also applies
+ * to all of the resource's descendants, so the grant for a resource is found by descending the trie along the
+ * resource's path and retaining the deepest matching grant. A lookup therefore takes time proportional to the
+ * depth of the resource, rather than to the number of granted resources. Grants may be added and removed
+ * concurrently with lookups, and nodes that no longer hold any grants are pruned.
+ *
+ * @param <T> the type of the indexed entries
+ */
+final class GrantIndex<T> {
+
+    final Map<String, Node<T>> origins = new ConcurrentHashMap<>();
+    private final Function<T, AccessGrant> accessor;
+
+    /**
+     * Create an index.
+     *
+     * @param accessor the function that yields the access grant of an entry
+     */
+    GrantIndex(final Function<T, AccessGrant> accessor) {
+        this.accessor = accessor;
+    }
+
+    /**
+     * Add an entry for each of the resources of its access grant.
+     *
+     * @param entry the entry
+     */
+    synchronized void add(final T entry) {
+        for (final URI resource : accessor.apply(entry).getResources()) {
+            final String origin = origin(resource);
+            if (origin != null) {
+                Node<T> node = origins.computeIfAbsent(origin, k -> new Node<>());
+                for (final String segment : segments(resource)) {
+                    node = node.children.computeIfAbsent(segment, k -> new Node<>());
+                }
+                node.add(entry);
+            }
+        }
+    }
+
+    /**
+     * Remove the entries for an access grant.
+     *
+     * @param grant the access grant
+     * @return true if any entries were removed
+     */
+    synchronized boolean remove(final AccessGrant grant) {
+        boolean removed = false;
+        for (final URI resource : grant.getResources()) {
+            final String origin = origin(resource);
+            final Node<T> root = origin != null ? origins.get(origin) : null;
+            if (root == null) {
+                continue;
+            }
+
+            final List<String> segments = segments(resource);
+            final List<Node<T>> path = new ArrayList<>();
+            Node<T> node = root;
+            path.add(node);
+            for (final String segment : segments) {
+                node = node.children.get(segment);
+                if (node == null) {
+                    break;
+                }
+                path.add(node);
+            }
+
+            if (node != null && node.remove(entry -> isSame(accessor.apply(entry), grant))) {
+                removed = true;
+                // Prune the nodes that no longer lead to any entries. Additions and removals are serialized,
+                // so no entry is added to a node while it is being detached
+                for (int i = segments.size(); i > 0 && path.get(i).isEmpty(); i--) {
+                    path.get(i - 1).children.remove(segments.get(i - 1));
+                }
+                if (root.isEmpty()) {
+                    origins.remove(origin);
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Find the entry that applies to a resource.
+     *
+     * <p>The entry is taken from the nearest ancestor of the resource, or the resource itself, that has a
+     * matching grant. Among several matching grants for the same resource, the grant that expires last is
+     * selected.
+     *
+     * @param uri the resource URI
+     * @param filter a predicate that matching grants must satisfy
+     * @return the entry, if present
+     */
+    Optional<T> get(final URI uri, final Predicate<AccessGrant> filter) {
+        final String origin = origin(uri);
+        Node<T> node = origin != null ? origins.get(origin) : null;
+        T selected = null;
+        if (node != null) {
+            selected = node.select(filter, accessor);
+            for (final String segment : segments(uri)) {
+                node = node.children.get(segment);
+                if (node == null) {
+                    break;
+                }
+                final T candidate = node.select(filter, accessor);
+                if (candidate != null) {
+                    selected = candidate;
+                }
+            }
+        }
+        return Optional.ofNullable(selected);
+    }
+
+    static boolean isSame(final AccessGrant first, final AccessGrant second) {
+        if (first == second) {
+            return true;
+        }
+        return first.getIdentifier() != null && first.getIdentifier().equals(second.getIdentifier());
+    }
+
+    static String origin(final URI uri) {
+        if (uri.isOpaque() || uri.getScheme() == null || uri.getRawAuthority() == null) {
+            return null;
+        }
+        return uri.getScheme().toLowerCase(Locale.ROOT) + "://" + uri.getRawAuthority().toLowerCase(Locale.ROOT);
+    }
+
+    /* The non-empty path segments of a URI, so that a container and a resource of the same name coincide */
+    static List<String> segments(final URI uri) {
+        final String path = uri.normalize().getRawPath();
+        if (path == null || path.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<String> segments = new ArrayList<>();
+        int start = 0;
+        while (start < path.length()) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            if (end > start) {
+                segments.add(path.substring(start, end));
+            }
+            start = end + 1;
+        }
+        return segments;
+    }
+
+    static final class Node<T> {
+        final Map<String, Node<T>> children = new ConcurrentHashMap<>();
+        private volatile List<T> entries = Collections.emptyList();
+
+        synchronized void add(final T entry) {
+            final List<T> updated = new ArrayList<>(entries);
+            updated.add(entry);
+            entries = Collections.unmodifiableList(updated);
+        }
+
+        boolean isEmpty() {
+            return entries.isEmpty() && children.isEmpty();
+        }
+
+        synchronized boolean remove(final Predicate<T> matcher) {
+            final List<T> updated = new ArrayList<>(entries);
+            if (updated.removeIf(matcher)) {
+                entries = Collections.unmodifiableList(updated);
+                return true;
+            }
+            return false;
+        }
+
+        T select(final Predicate<AccessGrant> filter, final Function<T, AccessGrant> accessor) {
+            T selected = null;
+            for (final T entry : entries) {
+                final AccessGrant grant = accessor.apply(entry);
+                if (filter.test(grant) && (selected == null ||
+                        grant.getExpiration().isAfter(accessor.apply(selected).getExpiration()))) {
+                    selected = entry;
+                }
+            }
+            return selected;
+        }
+    }
+}
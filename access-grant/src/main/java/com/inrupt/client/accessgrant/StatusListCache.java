@@ -0,0 +1,203 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.accessgrant;
+
+import com.inrupt.client.ClientCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A cache for decoded status lists, such as those of the Revocation List 2020 specification.
+ *
+ * <p>A status list is shared by many credentials, so each list is fetched and decoded once and the status of
+ * an individual credential is then a single bit test. Concurrent lookups of a list that is not cached share a
+ * single in-flight fetch. Once a list is stale, it is retained so that the fetch can revalidate it, for
+ * instance with its entity tag.
+ *
+ * @see <a href="https://w3c-ccg.github.io/vc-status-rl-2020/">Revocation List 2020</a>
+ */
+final class StatusListCache {
+
+    private final ClientCache<URI, StatusList> cache;
+    private final Map<URI, CompletableFuture<StatusList>> inflight = new ConcurrentHashMap<>();
+
+    /**
+     * Create a status list cache.
+     *
+     * @param cache the underlying cache, which also retains stale lists for revalidation
+     */
+    StatusListCache(final ClientCache<URI, StatusList> cache) {
+        this.cache = Objects.requireNonNull(cache, "cache may not be null!");
+    }
+
+    /**
+     * Get a status list, fetching it if it is not cached or no longer fresh.
+     *
+     * @param uri the identifier of the status list credential
+     * @param fetch the function that fetches the list, given any stale copy of it
+     * @return the next stage of completion, containing the status list
+     */
+    CompletionStage<StatusList> get(final URI uri,
+            final BiFunction<URI, StatusList, CompletionStage<StatusList>> fetch) {
+        final StatusList cached = cache.get(uri);
+        if (cached != null && cached.isFresh()) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        final CompletableFuture<StatusList> future = new CompletableFuture<>();
+        final CompletableFuture<StatusList> existing = inflight.putIfAbsent(uri, future);
+        if (existing != null) {
+            return existing.thenApply(Function.identity());
+        }
+
+        try {
+            fetch.apply(uri, cached).whenComplete((list, err) -> {
+                if (inflight.remove(uri, future) && err == null) {
+                    cache.put(uri, list);
+                }
+                if (err != null) {
+                    future.completeExceptionally(err);
+                } else {
+                    future.complete(list);
+                }
+            });
+        } catch (final RuntimeException ex) {
+            inflight.remove(uri, future);
+            future.completeExceptionally(new CompletionException(ex));
+        }
+        return future.thenApply(Function.identity());
+    }
+
+    /**
+     * Remove a status list from the cache.
+     *
+     * @param uri the identifier of the status list credential
+     */
+    void invalidate(final URI uri) {
+        inflight.remove(uri);
+        cache.invalidate(uri);
+    }
+
+    /**
+     * A decoded status list.
+     */
+    static final class StatusList {
+        // The minimum list is 16 KB, or 131,072 entries; a far larger inflated size indicates a malformed list
+        static final int MAX_SIZE = 1024 * 1024;
+
+        private final byte[] bits;
+        private final String etag;
+        private final Instant expiration;
+
+        StatusList(final byte[] bits, final String etag, final Instant expiration) {
+            this.bits = bits;
+            this.etag = etag;
+            this.expiration = expiration;
+        }
+
+        /**
+         * Decode a status list from its encoded form: a base64-encoded, GZIP-compressed bitstring.
+         *
+         * <p>Lists that inflate to more than {@value #MAX_SIZE} bytes are rejected.
+         *
+         * @param encodedList the encoded list
+         * @param etag the entity tag of the status list credential, may be {@code null}
+         * @param maxAge the time for which the list is fresh
+         * @return the status list
+         */
+        static StatusList decode(final String encodedList, final String etag, final Duration maxAge) {
+            final byte[] compressed;
+            try {
+                // Implementations differ in their choice of the base64 alphabet
+                compressed = encodedList.indexOf('-') >= 0 || encodedList.indexOf('_') >= 0
+                    ? Base64.getUrlDecoder().decode(encodedList)
+                    : Base64.getDecoder().decode(encodedList);
+            } catch (final IllegalArgumentException ex) {
+                throw new AccessGrantException("Invalid status list encoding", ex);
+            }
+
+            try (final InputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed));
+                    final ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+                final byte[] buffer = new byte[8192];
+                int length;
+                while ((length = input.read(buffer)) > 0) {
+                    if (output.size() + length > MAX_SIZE) {
+                        throw new AccessGrantException("Status list exceeds the maximum size of " + MAX_SIZE
+                                + " bytes");
+                    }
+                    output.write(buffer, 0, length);
+                }
+                return new StatusList(output.toByteArray(), etag, Instant.now().plus(maxAge));
+            } catch (final IOException ex) {
+                throw new AccessGrantException("Unable to decompress status list", ex);
+            }
+        }
+
+        /**
+         * Test whether the status bit at an index is set.
+         *
+         * <p>Bits are indexed from the most significant bit of the first byte.
+         *
+         * @param index the status list index
+         * @return true if the bit is set
+         */
+        boolean isSet(final int index) {
+            if (index < 0 || index >= bits.length * 8) {
+                throw new AccessGrantException("Status list index " + index + " is out of range");
+            }
+            return (bits[index >>> 3] & (0x80 >>> (index & 7))) != 0;
+        }
+
+        /**
+         * Extend the freshness of this list, after it was revalidated.
+         *
+         * @param maxAge the time for which the list is fresh
+         * @return the revalidated list
+         */
+        StatusList revalidate(final Duration maxAge) {
+            return new StatusList(bits, etag, Instant.now().plus(maxAge));
+        }
+
+        String getEtag() {
+            return etag;
+        }
+
+        boolean isFresh() {
+            return Instant.now().isBefore(expiration);
+        }
+    }
+}
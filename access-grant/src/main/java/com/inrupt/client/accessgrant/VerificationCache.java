@@ -0,0 +1,161 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.accessgrant;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.inrupt.client.ClientCache;
+
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A cache for the results of access credential verification.
+ *
+ * <p>Results are keyed by credential identifier and by a digest of the credential content, so that a
+ * different credential presented under the same identifier is verified anew. A result is retained for at
+ * most the configured duration and never beyond the expiration of the credential. Concurrent verifications
+ * of the same credential share a single in-flight request.
+ */
+final class VerificationCache {
+
+    private final ClientCache<URI, Entry> cache;
+    private final Duration maxAge;
+    private final Map<String, CompletableFuture<AccessCredentialVerification>> inflight = new ConcurrentHashMap<>();
+
+    /**
+     * Create a verification cache.
+     *
+     * @param cache the underlying cache, whose own expiration policy also applies
+     * @param maxAge the maximum retention time of a verification result
+     */
+    VerificationCache(final ClientCache<URI, Entry> cache, final Duration maxAge) {
+        this.cache = Objects.requireNonNull(cache, "cache may not be null!");
+        this.maxAge = Objects.requireNonNull(maxAge, "maxAge may not be null!");
+    }
+
+    /**
+     * Get the verification result for a credential, verifying it if there is no cached result.
+     *
+     * @param credential the access credential
+     * @param verify the function that verifies the credential
+     * @return the next stage of completion, containing the verification result
+     */
+    CompletionStage<AccessCredentialVerification> get(final AccessCredential credential,
+            final Function<AccessCredential, CompletionStage<AccessCredentialVerification>> verify) {
+        final URI identifier = credential.getIdentifier();
+        if (identifier == null) {
+            return verify.apply(credential);
+        }
+
+        final String digest = digest(credential.serialize());
+        final Entry cached = cache.get(identifier);
+        if (cached != null) {
+            if (cached.digest.equals(digest) && Instant.now().isBefore(cached.expiration)) {
+                return CompletableFuture.completedFuture(cached.verification);
+            }
+            if (!Instant.now().isBefore(cached.expiration)) {
+                cache.invalidate(identifier);
+            }
+        }
+
+        final String key = inflightKey(identifier, digest);
+        final CompletableFuture<AccessCredentialVerification> future = new CompletableFuture<>();
+        final CompletableFuture<AccessCredentialVerification> existing = inflight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing.thenApply(Function.identity());
+        }
+
+        try {
+            verify.apply(credential).whenComplete((verification, err) -> {
+                // A result is only retained if the credential was not invalidated while it was being verified
+                if (inflight.remove(key, future) && err == null) {
+                    final Instant expiration = min(Instant.now().plus(maxAge), credential.getExpiration());
+                    if (Instant.now().isBefore(expiration)) {
+                        cache.put(identifier, new Entry(digest, verification, expiration));
+                    }
+                }
+                if (err != null) {
+                    future.completeExceptionally(err);
+                } else {
+                    future.complete(verification);
+                }
+            });
+        } catch (final RuntimeException ex) {
+            inflight.remove(key, future);
+            future.completeExceptionally(new CompletionException(ex));
+        }
+        return future.thenApply(Function.identity());
+    }
+
+    /**
+     * Remove any verification result for a credential.
+     *
+     * @param identifier the credential identifier
+     */
+    void invalidate(final URI identifier) {
+        if (identifier != null) {
+            final String prefix = inflightKey(identifier, "");
+            inflight.keySet().removeIf(key -> key.startsWith(prefix));
+            cache.invalidate(identifier);
+        }
+    }
+
+    static String inflightKey(final URI identifier, final String digest) {
+        return identifier + " " + digest;
+    }
+
+    static Instant min(final Instant first, final Instant second) {
+        return first.isBefore(second) ? first : second;
+    }
+
+    static String digest(final String serialization) {
+        try {
+            final MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(md.digest(serialization.getBytes(UTF_8)));
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new AccessGrantException("SHA-256 is not supported", ex);
+        }
+    }
+
+    static final class Entry {
+        final String digest;
+        final AccessCredentialVerification verification;
+        final Instant expiration;
+
+        Entry(final String digest, final AccessCredentialVerification verification, final Instant expiration) {
+            this.digest = digest;
+            this.verification = verification;
+            this.expiration = expiration;
+        }
+    }
+}
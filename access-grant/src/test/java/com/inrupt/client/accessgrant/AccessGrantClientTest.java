@@ -28,11 +28,14 @@ import com.inrupt.client.auth.Session;
 import com.inrupt.client.openid.OpenIdSession;
 import com.inrupt.client.util.URIBuilder;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.net.URI;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -111,6 +114,111 @@ class AccessGrantClientTest {
         assertDoesNotThrow(client.revoke(grant).toCompletableFuture()::join);
     }
 
+    @Test
+    void testVerifyCache() {
+        final Map<String, Object> claims = new HashMap<>();
+        claims.put("webid", WEBID);
+        claims.put("sub", SUB);
+        claims.put("iss", ISS);
+        claims.put("azp", AZP);
+        final String token = generateIdToken(claims);
+        final URI uri = URIBuilder.newBuilder(baseUri).path("access-grant-1").build();
+        final AccessGrantClient client = new AccessGrantClient(baseUri).session(OpenIdSession.ofIdToken(token));
+        final AccessGrant fetched = client.fetch(uri, AccessGrant.class).toCompletableFuture().join();
+        final AccessGrant grant = AccessGrant.of(fetched.serialize()
+                .replace("2022-08-27T12:00:00Z", Instant.now().plus(Duration.ofDays(1)).toString()));
+
+        final AccessCredentialVerification response = client.verify(grant).toCompletableFuture().join();
+        assertTrue(response.getErrors().isEmpty());
+        final int verified = mockServer.countRequests("/verify");
+        assertSame(response, client.verify(grant).toCompletableFuture().join());
+        assertEquals(verified, mockServer.countRequests("/verify"));
+
+        // Revocation discards the result
+        client.revoke(grant).toCompletableFuture().join();
+        assertNotSame(response, client.verify(grant).toCompletableFuture().join());
+        assertTrue(mockServer.countRequests("/verify") > verified);
+    }
+
+    @Test
+    void testIsRevoked() {
+        final Map<String, Object> claims = new HashMap<>();
+        claims.put("webid", WEBID);
+        claims.put("sub", SUB);
+        claims.put("iss", ISS);
+        claims.put("azp", AZP);
+        final String token = generateIdToken(claims);
+        final URI uri = URIBuilder.newBuilder(baseUri).path("access-grant-1").build();
+        final AccessGrantClient client = new AccessGrantClient(baseUri).session(OpenIdSession.ofIdToken(token));
+        final AccessGrant fetched = client.fetch(uri, AccessGrant.class).toCompletableFuture().join();
+        final String statusList = baseUri + "/status-list-1";
+        final AccessGrant revoked = AccessGrant.of(fetched.serialize()
+                .replace("https://accessgrant.example/status/CVAM", statusList));
+        final AccessGrant active = AccessGrant.of(revoked.serialize().replace("2832", "2833"));
+
+        final int initial = mockServer.countRequests("/status-list-1");
+        assertTrue(client.isRevoked(revoked).toCompletableFuture().join());
+        assertEquals(initial + 1, mockServer.countRequests("/status-list-1"));
+
+        // A stale list is revalidated rather than fetched again
+        assertFalse(client.isRevoked(active).toCompletableFuture().join());
+        assertEquals(initial + 2, mockServer.countRequests("/status-list-1"));
+    }
+
+    @Test
+    void testIsRevokedSharedList() throws IOException {
+        final Map<String, Object> claims = new HashMap<>();
+        claims.put("webid", WEBID);
+        claims.put("sub", SUB);
+        claims.put("iss", ISS);
+        claims.put("azp", AZP);
+        final String token = generateIdToken(claims);
+        final URI uri = URIBuilder.newBuilder(baseUri).path("access-grant-1").build();
+        final AccessGrantClient client = new AccessGrantClient(baseUri).session(OpenIdSession.ofIdToken(token));
+        final AccessGrant fetched = client.fetch(uri, AccessGrant.class).toCompletableFuture().join();
+        final String serialized = fetched.serialize()
+            .replace("https://accessgrant.example/status/CVAM", baseUri + "/status-list-2");
+
+        final List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int index = 2800; index < 2900; index++) {
+            final AccessGrant grant = AccessGrant.of(serialized.replace("2832", Integer.toString(index)));
+            results.add(client.isRevoked(grant).toCompletableFuture());
+        }
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i + 2800 == 2832, results.get(i).join());
+        }
+        assertEquals(1, mockServer.countRequests("/status-list-2"));
+
+        // Credentials without status information cannot be revoked
+        try (final InputStream resource = AccessGrantClientTest.class.getResourceAsStream("/access_grant3.json")) {
+            final AccessGrant noStatus = AccessGrant.of(resource);
+            assertFalse(noStatus.getStatus().isPresent());
+            assertFalse(client.isRevoked(noStatus).toCompletableFuture().join());
+        }
+    }
+
+    @Test
+    void testProcessQueryResponse() throws IOException {
+        try (final InputStream resource = AccessGrantClientTest.class.getResourceAsStream("/query_response1.json")) {
+            final String response = IOUtils.toString(resource, UTF_8).replace("{{baseUrl}}", baseUri.toString());
+            final List<AccessGrant> grants = agClient.processQueryResponse(
+                    new ByteArrayInputStream(response.getBytes(UTF_8)), AccessGrantClient.getAccessGrantTypes(),
+                    AccessGrant.class);
+            assertFalse(grants.isEmpty());
+            for (final AccessGrant grant : grants) {
+                // The serialized form is equivalent to the structure from which the grant was built
+                final AccessGrant parsed = AccessGrant.of(grant.serialize());
+                assertEquals(grant.getIdentifier(), parsed.getIdentifier());
+                assertEquals(grant.getTypes(), parsed.getTypes());
+                assertEquals(grant.getResources(), parsed.getResources());
+                assertEquals(grant.getModes(), parsed.getModes());
+                assertEquals(grant.getPurposes(), parsed.getPurposes());
+                assertEquals(grant.getExpiration(), parsed.getExpiration());
+                assertEquals(grant.getStatus().map(Status::getIndex), parsed.getStatus().map(Status::getIndex));
+            }
+        }
+    }
+
     @Test
     void testFetchUnsupportedType() {
         final Map<String, Object> claims = new HashMap<>();
@@ -215,6 +323,21 @@ class AccessGrantClientTest {
                 client.fetch(uri, AccessGrant.class).toCompletableFuture()::join);
     }
 
+    @Test
+    void testWarmUp() {
+        final AccessGrantClient client = new AccessGrantClient(baseUri);
+        client.warmUp().toCompletableFuture().join();
+
+        final Metadata metadata = client.session(Session.anonymous()).v1Metadata()
+            .toCompletableFuture().join();
+        assertNotNull(metadata.issueEndpoint);
+        assertNotNull(metadata.verifyEndpoint);
+
+        final AccessGrantClient missing = new AccessGrantClient(
+                URIBuilder.newBuilder(baseUri).path("not-found").build());
+        assertThrows(CompletionException.class, missing.warmUp().toCompletableFuture()::join);
+    }
+
     @Test
     void testFetchInvalid() {
         final URI uri = URIBuilder.newBuilder(baseUri).path(".well-known/vc-configuration").build();
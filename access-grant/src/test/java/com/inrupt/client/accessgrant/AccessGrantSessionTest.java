@@ -34,7 +34,11 @@ import com.inrupt.client.util.URIBuilder;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
@@ -42,9 +46,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.stream.Stream;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -111,6 +119,94 @@ class AccessGrantSessionTest {
         }
     }
 
+    @Test
+    void testEncodedGrant() throws IOException {
+        final Map<String, Object> claims = new HashMap<>();
+        claims.put("webid", WEBID);
+        claims.put("sub", SUB);
+        claims.put("iss", ISS);
+        claims.put("azp", AZP);
+
+        final String token = AccessGrantTestUtils.generateIdToken(claims);
+
+        try (final InputStream resource = AccessGrantTest.class.getResourceAsStream("/access_grant1.json")) {
+            final AccessGrant grant = AccessGrant.of(resource);
+            final Session session = AccessGrantSession.ofAccessGrant(OpenIdSession.ofIdToken(token), grant);
+            final URI uri = grant.getResources().iterator().next();
+            final URI child = URIBuilder.newBuilder(uri).path("a").build();
+
+            // The credential is encoded once and shared across lookups
+            final Credential credential = session.getCredential(AccessGrantSession.VERIFIABLE_CREDENTIAL, uri)
+                .orElseThrow(AssertionError::new);
+            assertSame(credential, session.getCredential(AccessGrantSession.VERIFIABLE_CREDENTIAL, uri).get());
+            assertSame(credential, session.getCredential(AccessGrantSession.VERIFIABLE_CREDENTIAL, child).get());
+            assertEquals(Optional.of(URI.create(WEBID)), credential.getPrincipal());
+
+            // A change of principal yields a new credential with the same encoded token
+            final AccessGrantSession.EncodedGrant encoded = new AccessGrantSession.EncodedGrant(grant);
+            final Credential other = encoded.getCredential(URI.create("https://id.test/other"));
+            assertSame(other, encoded.getCredential(URI.create("https://id.test/other")));
+            assertNotSame(other, encoded.getCredential(null));
+            assertSame(encoded.token, encoded.getCredential(null).getToken());
+        }
+    }
+
+    @Test
+    void testAsyncGrantPrincipal() throws IOException {
+        final Map<String, Object> claims = new HashMap<>();
+        claims.put("webid", WEBID);
+        claims.put("sub", SUB);
+        claims.put("iss", ISS);
+        claims.put("azp", AZP);
+
+        final Session delegate = OpenIdSession.ofIdToken(AccessGrantTestUtils.generateIdToken(claims));
+        // The synchronous principal accessor may block on a refresh, so the async path must not use it
+        final Session openid = (Session) Proxy.newProxyInstance(Session.class.getClassLoader(),
+                new Class<?>[] { Session.class }, (proxy, method, args) -> {
+                    if ("getPrincipal".equals(method.getName())) {
+                        throw new AssertionError("Synchronous principal lookup");
+                    }
+                    try {
+                        return method.invoke(delegate, args);
+                    } catch (final InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                });
+
+        try (final InputStream resource = AccessGrantTest.class.getResourceAsStream("/access_grant1.json")) {
+            final AccessGrant grant = AccessGrant.of(resource);
+            final Session session = AccessGrantSession.ofAccessGrant(openid, grant);
+            final URI uri = grant.getResources().iterator().next();
+
+            final Credential credential = session.getCredentialAsync(AccessGrantSession.VERIFIABLE_CREDENTIAL, uri)
+                .toCompletableFuture().join().orElseThrow(AssertionError::new);
+            assertEquals(Optional.of(URI.create(WEBID)), credential.getPrincipal());
+            assertEquals(Base64.getUrlEncoder().withoutPadding().encodeToString(grant.serialize().getBytes(UTF_8)),
+                    credential.getToken());
+        }
+    }
+
+    @Test
+    void testEncodedGrantLookups() throws IOException {
+        try (final InputStream resource = AccessGrantTest.class.getResourceAsStream("/access_grant1.json")) {
+            final AccessGrant grant = AccessGrant.of(resource);
+            final Session session = AccessGrantSession.ofAccessGrant(Session.anonymous(), grant);
+            final URI uri = URIBuilder.newBuilder(grant.getResources().iterator().next()).path("a").build();
+
+            // Repeated lookups return the same credential and token, rather than encoding the grant each time
+            final Credential credential = session.getCredential(AccessGrantSession.VERIFIABLE_CREDENTIAL, uri)
+                .orElseThrow(AssertionError::new);
+            for (int i = 0; i < 100; i++) {
+                final Credential other = session.getCredential(AccessGrantSession.VERIFIABLE_CREDENTIAL, uri)
+                    .orElseThrow(AssertionError::new);
+                assertSame(credential, other);
+                assertSame(credential.getToken(), other.getToken());
+            }
+            assertEquals(Base64.getUrlEncoder().withoutPadding().encodeToString(grant.serialize().getBytes(UTF_8)),
+                    credential.getToken());
+        }
+    }
+
     @Test
     void testProtectedResource() throws IOException {
         final Map<String, Object> claims = new HashMap<>();
@@ -161,10 +257,111 @@ class AccessGrantSessionTest {
         }
     }
 
+    @Test
+    void testGrantSelection() throws IOException {
+        final String container = "https://storage.example/e973cc3d-5c28-4a10-98c5-e40079289358/";
+        final AccessGrant read = grant("read", container, "Read", "2022-08-27T12:00:00Z");
+        final AccessGrant later = grant("later", container, "Read", "2022-09-27T12:00:00Z");
+        final AccessGrant write = grant("write", container + "a/", "Write", "2022-08-27T12:00:00Z");
+        final AccessGrantSession session = AccessGrantSession.ofAccessGrant(OpenIdSession.ofIdToken(idToken()),
+                read, later, write);
+
+        final URI resource = URI.create(container + "a/b/c");
+        assertEquals(Optional.of(write.getIdentifier()),
+                session.getAccessGrant(resource, g -> true).map(AccessGrant::getIdentifier));
+        assertEquals(Optional.of(later.getIdentifier()),
+                session.getAccessGrant(resource, g -> g.getModes().contains("Read"))
+                    .map(AccessGrant::getIdentifier));
+        assertEquals(Optional.of(read.getIdentifier()),
+                session.getAccessGrant(resource, g -> g.getModes().contains("Read") &&
+                        g.getExpiration().isBefore(later.getExpiration()))
+                    .map(AccessGrant::getIdentifier));
+        assertFalse(session.getAccessGrant(resource, g -> g.getModes().contains("Append")).isPresent());
+        assertFalse(session.getAccessGrant(URI.create("https://storage.example/other/a/b/c"), g -> true)
+                .isPresent());
+        assertFalse(session.getAccessGrant(URI.create("http://storage.example/e973cc3d-5c28-4a10-98c5-e40079289358"),
+                    g -> true).isPresent());
+
+        // Equivalent forms of a path share the same grants
+        assertEquals(Optional.of(write.getIdentifier()),
+                session.getAccessGrant(URI.create(container + "b/../a//c"), g -> true)
+                    .map(AccessGrant::getIdentifier));
+        assertEquals(Optional.of(write.getIdentifier()),
+                session.getAccessGrant(URI.create("HTTPS://Storage.Example/e973cc3d-5c28-4a10-98c5-e40079289358/a"),
+                    g -> true).map(AccessGrant::getIdentifier));
+    }
+
+    @Test
+    void testAddRemoveGrants() throws IOException {
+        final String container = "https://storage.example/e973cc3d-5c28-4a10-98c5-e40079289358/";
+        final AccessGrant parent = grant("parent", container, "Read", "2022-08-27T12:00:00Z");
+        final AccessGrant child = grant("child", container + "a/", "Read", "2022-08-27T12:00:00Z");
+        final AccessGrantSession session = AccessGrantSession.ofAccessGrant(OpenIdSession.ofIdToken(idToken()));
+
+        final URI resource = URI.create(container + "a/b");
+        assertFalse(session.getCredential(AccessGrantSession.VERIFIABLE_CREDENTIAL, resource).isPresent());
+
+        session.addAccessGrants(parent, child);
+        assertEquals(Optional.of(child.getIdentifier()),
+                session.getAccessGrant(resource, g -> true).map(AccessGrant::getIdentifier));
+        assertTrue(session.getCredential(AccessGrantSession.VERIFIABLE_CREDENTIAL, resource).isPresent());
+
+        final Credential token = new Credential("Bearer", URI.create(ISS), "token",
+                Instant.now().plusSeconds(300), URI.create(WEBID), null);
+        session.authenticate(new StaticAuthenticator(token), Request.newBuilder(resource).build(),
+                Collections.emptySet()).toCompletableFuture().join();
+        assertTrue(session.fromCache(Request.newBuilder(resource).build()).isPresent());
+
+        session.removeAccessGrants(child);
+        assertEquals(Optional.of(parent.getIdentifier()),
+                session.getAccessGrant(resource, g -> true).map(AccessGrant::getIdentifier));
+        assertFalse(session.fromCache(Request.newBuilder(resource).build()).isPresent());
+
+        session.removeAccessGrants(parent);
+        assertFalse(session.getAccessGrant(resource, g -> true).isPresent());
+        assertFalse(session.getCredential(AccessGrantSession.VERIFIABLE_CREDENTIAL, resource).isPresent());
+    }
+
+    @Test
+    void testExpiredGrants() throws IOException {
+        final String container = "https://storage.example/e973cc3d-5c28-4a10-98c5-e40079289358/";
+        final AccessGrant parent = grant("parent", container, "Read", "2099-08-27T12:00:00Z");
+        final AccessGrant expired = grant("expired", container + "a/", "Read", "2022-08-27T12:00:00Z");
+        final AccessGrantSession session = AccessGrantSession.ofAccessGrant(OpenIdSession.ofIdToken(idToken()),
+                parent, expired);
+
+        // A current grant for an ancestor takes precedence over an expired grant
+        assertEquals(Optional.of(parent.getExpiration()),
+                session.getCredential(AccessGrantSession.VERIFIABLE_CREDENTIAL, URI.create(container + "a/b"))
+                    .map(Credential::getExpiration));
+    }
+
+    @Test
+    void testGrantIndexPruning() throws IOException {
+        final String container = "https://storage.example/e973cc3d-5c28-4a10-98c5-e40079289358/";
+        final AccessGrant parent = grant("parent", container, "Read", "2022-08-27T12:00:00Z");
+        final AccessGrant child = grant("child", container + "a/b/", "Read", "2022-08-27T12:00:00Z");
+        final GrantIndex<AccessGrant> index = new GrantIndex<>(grant -> grant);
+
+        index.add(parent);
+        index.add(child);
+        assertEquals(4, nodes(index));
+
+        assertTrue(index.remove(child));
+        assertEquals(2, nodes(index));
+        assertFalse(index.remove(child));
+
+        assertTrue(index.remove(parent));
+        assertEquals(0, nodes(index));
+    }
+
     @ParameterizedTest
     @MethodSource
-    void ancestors(final URI parent, final URI resource, final boolean expected) {
-        assertEquals(expected, AccessGrantSession.isAncestor(parent, resource));
+    void ancestors(final URI parent, final URI resource, final boolean expected) throws IOException {
+        // A grant for a resource applies to the resource itself and to all of its descendants
+        final GrantIndex<AccessGrant> index = new GrantIndex<>(grant -> grant);
+        index.add(grant("ancestor", parent.toString(), "Read", "2099-08-27T12:00:00Z"));
+        assertEquals(expected, index.get(resource, grant -> true).isPresent());
     }
 
     private static Stream<Arguments> ancestors() {
@@ -184,7 +381,70 @@ class AccessGrantSessionTest {
                 Arguments.of(URI.create("https://storage.example/a/b/c/d"),
                     URI.create("https://storage.example/a/a/c/d"), false),
                 Arguments.of(URI.create("https://storage.example/a/b/c/d"),
-                    URI.create("https://storage.example/a/b/c/d"), true)
+                    URI.create("https://storage.example/a/b/c/d"), true),
+                Arguments.of(URI.create("https://storage.example/a/b"),
+                    URI.create("https://storage.example/a/bc"), false),
+                Arguments.of(URI.create("https://storage.example/a/b/"),
+                    URI.create("https://storage.example/a/./b/../b/c"), true),
+                Arguments.of(URI.create("https://storage.example/a/"),
+                    URI.create("https://Storage.Example/a/b"), true),
+                Arguments.of(URI.create("https://storage.example/a/"),
+                    URI.create("urn:uuid:" + UUID.randomUUID()), false)
             );
     }
+
+    static String idToken() {
+        final Map<String, Object> claims = new HashMap<>();
+        claims.put("webid", WEBID);
+        claims.put("sub", SUB);
+        claims.put("iss", ISS);
+        claims.put("azp", AZP);
+        return AccessGrantTestUtils.generateIdToken(claims);
+    }
+
+    static int nodes(final GrantIndex<?> index) {
+        int count = 0;
+        final List<GrantIndex.Node<?>> pending = new ArrayList<>(index.origins.values());
+        while (!pending.isEmpty()) {
+            pending.addAll(pending.remove(pending.size() - 1).children.values());
+            count++;
+        }
+        return count;
+    }
+
+    static AccessGrant grant(final String id, final String resource, final String mode, final String expiration)
+            throws IOException {
+        try (final InputStream stream = AccessGrantTest.class.getResourceAsStream("/access_grant1.json")) {
+            final String template = IOUtils.toString(stream, UTF_8);
+            return AccessGrant.of(template
+                    .replace("credential/5c6060ad-2f16-4bc1-b022-dffb46bff626", "credential/" + id)
+                    .replace("https://storage.example/e973cc3d-5c28-4a10-98c5-e40079289358/", resource)
+                    .replace("\"mode\":[\"Read\"]", "\"mode\":[\"" + mode + "\"]")
+                    .replace("2022-08-27T12:00:00Z", expiration));
+        }
+    }
+
+    static class StaticAuthenticator implements Authenticator {
+        private final Credential credential;
+
+        StaticAuthenticator(final Credential credential) {
+            this.credential = credential;
+        }
+
+        @Override
+        public String getName() {
+            return "Static";
+        }
+
+        @Override
+        public int getPriority() {
+            return 1;
+        }
+
+        @Override
+        public CompletionStage<Credential> authenticate(final Session session, final Request request,
+                final Set<String> algorithms) {
+            return CompletableFuture.completedFuture(credential);
+        }
+    }
 }
@@ -26,9 +26,12 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
 
 import org.apache.commons.io.IOUtils;
 
@@ -43,6 +46,10 @@ class MockAccessGrantServer {
         wireMockServer = new WireMockServer(WireMockConfiguration.options().dynamicPort());
     }
 
+    public int countRequests(final String path) {
+        return wireMockServer.countRequestsMatching(anyRequestedFor(urlEqualTo(path)).build()).getCount();
+    }
+
     public String start() {
         wireMockServer.start();
 
@@ -56,6 +63,30 @@ class MockAccessGrantServer {
     }
 
     private void setupMocks() {
+        wireMockServer.stubFor(get(urlEqualTo("/status-list-1"))
+                .atPriority(1)
+                .withHeader("If-None-Match", equalTo("\"v1\""))
+                .willReturn(aResponse()
+                    .withStatus(304)
+                    .withHeader("ETag", "\"v1\"")
+                    .withHeader("Cache-Control", "max-age=0")));
+
+        wireMockServer.stubFor(get(urlEqualTo("/status-list-1"))
+                .atPriority(2)
+                .willReturn(aResponse()
+                    .withStatus(200)
+                    .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                    .withHeader("ETag", "\"v1\"")
+                    .withHeader("Cache-Control", "max-age=0")
+                    .withBody(statusList(wireMockServer.baseUrl() + "/status-list-1", 2832))));
+
+        wireMockServer.stubFor(get(urlEqualTo("/status-list-2"))
+                .willReturn(aResponse()
+                    .withStatus(200)
+                    .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                    .withHeader("Cache-Control", "max-age=300")
+                    .withBody(statusList(wireMockServer.baseUrl() + "/status-list-2", 2832))));
+
         wireMockServer.stubFor(get(urlEqualTo("/.well-known/vc-configuration"))
                 .willReturn(aResponse()
                     .withStatus(200)
@@ -363,6 +394,32 @@ class MockAccessGrantServer {
                         .withHeader("WWW-Authenticate", "Bearer,DPoP algs=\"ES256\"")));
     }
 
+    static String statusList(final String identifier, final int... revoked) {
+        return "{\"id\":\"" + identifier + "\"," +
+            "\"type\":[\"VerifiableCredential\",\"RevocationList2020Credential\"]," +
+            "\"credentialSubject\":{\"id\":\"" + identifier + "#list\",\"type\":\"RevocationList2020\"," +
+            "\"encodedList\":\"" + encodedList(Base64.getUrlEncoder().withoutPadding(), revoked) + "\"}}";
+    }
+
+    static String encodedList(final Base64.Encoder encoder, final int... revoked) {
+        // The minimum list size is 16KB, or 131,072 entries
+        return encodedList(encoder, new byte[16 * 1024], revoked);
+    }
+
+    static String encodedList(final Base64.Encoder encoder, final byte[] bits, final int... revoked) {
+        for (final int index : revoked) {
+            bits[index / 8] |= 0x80 >>> (index % 8);
+        }
+        try (final ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+            try (final GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+                gzip.write(bits);
+            }
+            return encoder.encodeToString(output.toByteArray());
+        } catch (final IOException ex) {
+            throw new UncheckedIOException("Could not encode status list", ex);
+        }
+    }
+
     private static String getResource(final String path) {
         try (final InputStream res = MockAccessGrantServer.class.getResourceAsStream(path)) {
             return new String(IOUtils.toByteArray(res), UTF_8);
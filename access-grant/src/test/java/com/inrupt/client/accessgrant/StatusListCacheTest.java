@@ -0,0 +1,129 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.accessgrant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.inrupt.client.spi.ServiceProvider;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class StatusListCacheTest {
+
+    static final URI LIST = URI.create("https://accessgrant.example/status/CVAM");
+
+    @Test
+    void testDecode() {
+        for (final Base64.Encoder encoder : Arrays.asList(Base64.getEncoder(), Base64.getUrlEncoder())) {
+            final StatusListCache.StatusList list = StatusListCache.StatusList.decode(
+                    MockAccessGrantServer.encodedList(encoder, 0, 7, 2832, 131071), "\"etag\"", Duration.ofMinutes(5));
+            assertTrue(list.isSet(0));
+            assertTrue(list.isSet(7));
+            assertTrue(list.isSet(2832));
+            assertTrue(list.isSet(131071));
+            assertFalse(list.isSet(1));
+            assertFalse(list.isSet(2833));
+            assertEquals("\"etag\"", list.getEtag());
+            assertTrue(list.isFresh());
+            assertThrows(AccessGrantException.class, () -> list.isSet(131072));
+            assertThrows(AccessGrantException.class, () -> list.isSet(-1));
+        }
+
+        assertThrows(AccessGrantException.class, () ->
+                StatusListCache.StatusList.decode("not*base64", null, Duration.ofMinutes(5)));
+        assertThrows(AccessGrantException.class, () ->
+                StatusListCache.StatusList.decode("bm90IGd6aXA", null, Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void testDecodeMaximumSize() {
+        final int max = StatusListCache.StatusList.MAX_SIZE;
+        final String full = MockAccessGrantServer.encodedList(Base64.getEncoder(), new byte[max], max * 8 - 1);
+        assertTrue(StatusListCache.StatusList.decode(full, null, Duration.ofMinutes(5)).isSet(max * 8 - 1));
+
+        // A highly compressible list that inflates beyond the limit is rejected
+        final String encoded = MockAccessGrantServer.encodedList(Base64.getEncoder(), new byte[64 * max]);
+        assertTrue(encoded.length() < max / 8);
+        assertThrows(AccessGrantException.class, () ->
+                StatusListCache.StatusList.decode(encoded, null, Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void testSingleFlight() {
+        final StatusListCache cache = new StatusListCache(ServiceProvider.getCacheBuilder()
+                .build(10, Duration.ofMinutes(5)));
+        final AtomicInteger fetches = new AtomicInteger();
+        final CompletableFuture<StatusListCache.StatusList> pending = new CompletableFuture<>();
+
+        final List<CompletableFuture<StatusListCache.StatusList>> results = Arrays.asList(
+                cache.get(LIST, (uri, stale) -> fetch(fetches, pending)).toCompletableFuture(),
+                cache.get(LIST, (uri, stale) -> fetch(fetches, pending)).toCompletableFuture());
+
+        pending.complete(list(Duration.ofMinutes(5)));
+        for (final CompletableFuture<StatusListCache.StatusList> result : results) {
+            assertTrue(result.join().isSet(2832));
+        }
+        cache.get(LIST, (uri, stale) -> fetch(fetches, pending)).toCompletableFuture().join();
+        assertEquals(1, fetches.get());
+
+        cache.invalidate(LIST);
+        cache.get(LIST, (uri, stale) -> fetch(fetches, pending)).toCompletableFuture().join();
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    void testRevalidation() {
+        final StatusListCache cache = new StatusListCache(ServiceProvider.getCacheBuilder()
+                .build(10, Duration.ofMinutes(5)));
+        final StatusListCache.StatusList stale = list(Duration.ZERO);
+        cache.get(LIST, (uri, previous) -> {
+            assertNull(previous);
+            return CompletableFuture.completedFuture(stale);
+        }).toCompletableFuture().join();
+
+        final StatusListCache.StatusList revalidated = cache.get(LIST, (uri, previous) -> {
+            assertSame(stale, previous);
+            return CompletableFuture.completedFuture(previous.revalidate(Duration.ofMinutes(5)));
+        }).toCompletableFuture().join();
+        assertTrue(revalidated.isFresh());
+        assertTrue(revalidated.isSet(2832));
+    }
+
+    static StatusListCache.StatusList list(final Duration maxAge) {
+        return StatusListCache.StatusList.decode(MockAccessGrantServer.encodedList(Base64.getEncoder(), 2832),
+                "\"v1\"", maxAge);
+    }
+
+    static CompletionStage<StatusListCache.StatusList> fetch(final AtomicInteger fetches,
+            final CompletableFuture<StatusListCache.StatusList> result) {
+        fetches.incrementAndGet();
+        return result;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.accessgrant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.inrupt.client.spi.ServiceProvider;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class VerificationCacheTest {
+
+    static final String CONTAINER = "https://storage.example/e973cc3d-5c28-4a10-98c5-e40079289358/";
+    static final String FUTURE = Instant.now().plus(Duration.ofDays(1)).toString();
+
+    @Test
+    void testSingleFlight() throws IOException {
+        final VerificationCache cache = newCache(Duration.ofMinutes(5));
+        final AccessGrant grant = AccessGrantSessionTest.grant("single", CONTAINER, "Read", FUTURE);
+        final AtomicInteger verifications = new AtomicInteger();
+        final CompletableFuture<AccessCredentialVerification> pending = new CompletableFuture<>();
+
+        final List<CompletableFuture<AccessCredentialVerification>> results = Arrays.asList(
+                cache.get(grant, c -> verify(verifications, pending)).toCompletableFuture(),
+                cache.get(grant, c -> verify(verifications, pending)).toCompletableFuture(),
+                cache.get(grant, c -> verify(verifications, pending)).toCompletableFuture());
+
+        final AccessCredentialVerification verification = verification();
+        pending.complete(verification);
+        for (final CompletableFuture<AccessCredentialVerification> result : results) {
+            assertSame(verification, result.join());
+        }
+        assertSame(verification, cache.get(grant, c -> verify(verifications, pending)).toCompletableFuture().join());
+        assertEquals(1, verifications.get());
+    }
+
+    @Test
+    void testContentDigest() throws IOException {
+        final VerificationCache cache = newCache(Duration.ofMinutes(5));
+        final AccessGrant grant = AccessGrantSessionTest.grant("digest", CONTAINER, "Read", FUTURE);
+        final AccessGrant altered = AccessGrantSessionTest.grant("digest", CONTAINER, "Write", FUTURE);
+        assertEquals(grant.getIdentifier(), altered.getIdentifier());
+
+        final AtomicInteger verifications = new AtomicInteger();
+        final CompletableFuture<AccessCredentialVerification> done =
+            CompletableFuture.completedFuture(verification());
+        cache.get(grant, c -> verify(verifications, done)).toCompletableFuture().join();
+        cache.get(altered, c -> verify(verifications, done)).toCompletableFuture().join();
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void testExpiration() throws IOException {
+        final AtomicInteger verifications = new AtomicInteger();
+        final CompletableFuture<AccessCredentialVerification> done =
+            CompletableFuture.completedFuture(verification());
+
+        // Results for expired credentials are not retained
+        final VerificationCache cache = newCache(Duration.ofMinutes(5));
+        final AccessGrant expired = AccessGrantSessionTest.grant("expired", CONTAINER, "Read",
+                "2022-08-27T12:00:00Z");
+        cache.get(expired, c -> verify(verifications, done)).toCompletableFuture().join();
+        cache.get(expired, c -> verify(verifications, done)).toCompletableFuture().join();
+        assertEquals(2, verifications.get());
+
+        // Results are not retained beyond the maximum age
+        final VerificationCache uncached = newCache(Duration.ZERO);
+        final AccessGrant grant = AccessGrantSessionTest.grant("max-age", CONTAINER, "Read", FUTURE);
+        uncached.get(grant, c -> verify(verifications, done)).toCompletableFuture().join();
+        uncached.get(grant, c -> verify(verifications, done)).toCompletableFuture().join();
+        assertEquals(4, verifications.get());
+    }
+
+    @Test
+    void testInvalidate() throws IOException {
+        final VerificationCache cache = newCache(Duration.ofMinutes(5));
+        final AccessGrant grant = AccessGrantSessionTest.grant("invalidate", CONTAINER, "Read", FUTURE);
+        final AtomicInteger verifications = new AtomicInteger();
+        final CompletableFuture<AccessCredentialVerification> done =
+            CompletableFuture.completedFuture(verification());
+
+        cache.get(grant, c -> verify(verifications, done)).toCompletableFuture().join();
+        cache.invalidate(grant.getIdentifier());
+        cache.get(grant, c -> verify(verifications, done)).toCompletableFuture().join();
+        assertEquals(2, verifications.get());
+
+        // A verification in flight during invalidation is not retained
+        final CompletableFuture<AccessCredentialVerification> pending = new CompletableFuture<>();
+        cache.invalidate(grant.getIdentifier());
+        final CompletableFuture<AccessCredentialVerification> result =
+            cache.get(grant, c -> verify(verifications, pending)).toCompletableFuture();
+        cache.invalidate(grant.getIdentifier());
+        pending.complete(verification());
+        assertNotNull(result.join());
+        cache.get(grant, c -> verify(verifications, done)).toCompletableFuture().join();
+        assertEquals(4, verifications.get());
+    }
+
+    @Test
+    void testFailedVerification() throws IOException {
+        final VerificationCache cache = newCache(Duration.ofMinutes(5));
+        final AccessGrant grant = AccessGrantSessionTest.grant("failed", CONTAINER, "Read", FUTURE);
+        final AtomicInteger verifications = new AtomicInteger();
+        final CompletableFuture<AccessCredentialVerification> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new AccessGrantException("Unable to verify", 500));
+
+        final CompletionException err = assertThrows(CompletionException.class, () ->
+                cache.get(grant, c -> verify(verifications, failed)).toCompletableFuture().join());
+        assertInstanceOf(AccessGrantException.class, err.getCause());
+
+        // Failures are not cached
+        cache.get(grant, c -> verify(verifications, CompletableFuture.completedFuture(verification())))
+            .toCompletableFuture().join();
+        assertEquals(2, verifications.get());
+    }
+
+    static VerificationCache newCache(final Duration maxAge) {
+        return new VerificationCache(ServiceProvider.getCacheBuilder().build(100, Duration.ofMinutes(5)), maxAge);
+    }
+
+    static AccessCredentialVerification verification() {
+        return new AccessCredentialVerification(Collections.singletonList("expirationDate"),
+                Collections.emptyList(), Collections.emptyList());
+    }
+
+    static CompletionStage<AccessCredentialVerification> verify(final AtomicInteger verifications,
+            final CompletableFuture<AccessCredentialVerification> result) {
+        verifications.incrementAndGet();
+        return result;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * A streaming {@link BodyPublisher} backed by an {@link InputStream}.
+ *
+ * <p>A single-use stream retains a copy of the data it has supplied, up to a fixed limit. If the entire stream
+ * fits within that limit, the request body can be repeated, for instance after an authorization challenge.
+ */
+class InputStreamPublisher implements Request.BodyPublisher {
+
+    static final int REPLAY_LIMIT = 1024 * 1024;
+
+    private final Supplier<InputStream> supplier;
+    private final long length;
+    private final boolean repeatable;
+    private final AtomicBoolean consumed = new AtomicBoolean();
+    private volatile ByteBuffer buf;
+
+    public InputStreamPublisher(final Supplier<InputStream> supplier, final long length, final boolean repeatable) {
+        this.supplier = supplier;
+        this.length = length;
+        this.repeatable = repeatable;
+    }
+
+    @Override
+    public ByteBuffer getBytes() {
+        if (buf == null) {
+            synchronized (this) {
+                if (buf == null) {
+                    try (final InputStream input = getInputStream()) {
+                        buf = ByteBuffer.wrap(IOUtils.toByteArray(input));
+                    } catch (final IOException ex) {
+                        throw new UncheckedIOException("Error reading request body", ex);
+                    }
+                }
+            }
+        }
+        return buf;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        if (buf != null) {
+            return new ByteArrayInputStream(buf.array());
+        }
+        if (repeatable) {
+            return supplier.get();
+        }
+        if (!consumed.compareAndSet(false, true)) {
+            throw new IllegalStateException("The request body has already been consumed");
+        }
+        return new ReplayInputStream(supplier.get());
+    }
+
+    @Override
+    public long contentLength() {
+        if (buf != null) {
+            return buf.capacity();
+        }
+        return length;
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return buf == null;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return repeatable || buf != null;
+    }
+
+    /**
+     * An input stream that records the data it has read, up to the replay limit.
+     */
+    class ReplayInputStream extends FilterInputStream {
+
+        private ByteArrayOutputStream replay = new ByteArrayOutputStream();
+
+        ReplayInputStream(final InputStream input) {
+            super(input);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b == -1) {
+                complete();
+            } else if (record(1)) {
+                replay.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] data, final int off, final int len) throws IOException {
+            final int count = super.read(data, off, len);
+            if (count == -1) {
+                complete();
+            } else if (record(count)) {
+                replay.write(data, off, count);
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(final long count) throws IOException {
+            // Skipped data cannot be replayed
+            replay = null;
+            return super.skip(count);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        boolean record(final int count) {
+            if (replay != null && replay.size() + count > REPLAY_LIMIT) {
+                replay = null;
+            }
+            return replay != null;
+        }
+
+        void complete() {
+            if (replay != null) {
+                buf = ByteBuffer.wrap(replay.toByteArray());
+                replay = null;
+            }
+        }
+    }
+}
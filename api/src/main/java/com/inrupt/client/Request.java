@@ -22,11 +22,14 @@ package com.inrupt.client;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.net.URI;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -35,6 +38,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.TreeMap;
+import java.util.function.Supplier;
 
 import org.apache.commons.io.IOUtils;
 
@@ -132,6 +136,8 @@ public final class Request {
         /**
          * Get the serialized bytes for an HTTP Request.
          *
+         * <p>For streaming publishers, this will read the entire request body into memory.
+         *
          * @return the serialized request body
          */
         ByteBuffer getBytes();
@@ -139,9 +145,39 @@ public final class Request {
         /**
          * Get the length of the HTTP Request.
          *
-         * @return the request length
+         * @return the request length, or {@code -1} if the length is not known in advance
          */
         long contentLength();
+
+        /**
+         * Get the serialized HTTP Request as a stream.
+         *
+         * <p>Streaming publishers supply data as it is written to the network, without first
+         * buffering the entire request body in memory.
+         *
+         * @return the serialized request body
+         */
+        default InputStream getInputStream() {
+            return new ByteArrayInputStream(getBytes().array());
+        }
+
+        /**
+         * Indicate whether an HTTP client should transmit this request body as a stream.
+         *
+         * @return true if the request body should be streamed; false otherwise
+         */
+        default boolean isStreaming() {
+            return false;
+        }
+
+        /**
+         * Indicate whether the request body can be transmitted more than once.
+         *
+         * @return true if the request body can be repeated; false otherwise
+         */
+        default boolean isRepeatable() {
+            return true;
+        }
     }
 
     /**
@@ -172,12 +208,70 @@ public final class Request {
         /**
          * Create an InputStream-based {@link BodyPublisher}.
          *
+         * <p>The request body is streamed to the network. As a stream can only be read once, the request
+         * can only be repeated, such as after an authorization challenge, if the entire body is small enough
+         * to have been retained in memory. Data that is already held in memory, such as a
+         * {@link ByteArrayInputStream}, is buffered.
+         *
          * @param body the request body
          * @return the publisher
          */
         public static BodyPublisher ofInputStream(final InputStream body) {
+            Objects.requireNonNull(body, "Request body may not be null!");
+            if (body instanceof ByteArrayInputStream) {
+                try {
+                    return new ByteBufferPublisher(IOUtils.toByteArray(body));
+                } catch (final IOException ex) {
+                    throw new UncheckedIOException("Error reading request body", ex);
+                }
+            }
+            return new InputStreamPublisher(() -> body, -1, false);
+        }
+
+        /**
+         * Create a streaming {@link BodyPublisher} from an InputStream supplier.
+         *
+         * <p>The supplier is invoked each time the request body is transmitted.
+         *
+         * @param supplier the request body supplier
+         * @return the publisher
+         */
+        public static BodyPublisher ofInputStream(final Supplier<InputStream> supplier) {
+            return ofInputStream(supplier, -1);
+        }
+
+        /**
+         * Create a streaming {@link BodyPublisher} of a known length from an InputStream supplier.
+         *
+         * <p>The supplier is invoked each time the request body is transmitted.
+         *
+         * @param supplier the request body supplier
+         * @param contentLength the length of the request body
+         * @return the publisher
+         */
+        public static BodyPublisher ofInputStream(final Supplier<InputStream> supplier, final long contentLength) {
+            return new InputStreamPublisher(Objects.requireNonNull(supplier, "Request body may not be null!"),
+                    contentLength, true);
+        }
+
+        /**
+         * Create a file-based {@link BodyPublisher}.
+         *
+         * <p>The file is streamed to the network each time the request body is transmitted.
+         *
+         * @param file the file
+         * @return the publisher
+         */
+        public static BodyPublisher ofFile(final Path file) {
             try {
-                return new ByteBufferPublisher(IOUtils.toByteArray(body));
+                final long size = Files.size(file);
+                return ofInputStream(() -> {
+                    try {
+                        return Files.newInputStream(file);
+                    } catch (final IOException ex) {
+                        throw new UncheckedIOException("Error reading request body", ex);
+                    }
+                }, size);
             } catch (final IOException ex) {
                 throw new UncheckedIOException("Error reading request body", ex);
             }
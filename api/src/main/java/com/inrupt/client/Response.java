@@ -21,11 +21,20 @@
 package com.inrupt.client;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
 
 /**
  * An HTTP Response.
@@ -90,9 +99,27 @@ public interface Response<T> {
 
         /**
          * Retrieve the response body as a byte buffer.
+         *
+         * <p>This will read the entire response body into memory. Once the body has been retrieved
+         * via {@link #bodyAsInputStream}, this method may no longer be used.
+         *
          * @return the body
          */
         ByteBuffer body();
+
+        /**
+         * Retrieve the response body as an input stream.
+         *
+         * <p>Implementations that support streaming will return data as it arrives from the network,
+         * without first buffering the entire response body in memory. The caller is responsible for
+         * closing the stream.
+         *
+         * @implNote The default implementation wraps the value of {@link #body()}.
+         * @return the body
+         */
+        default InputStream bodyAsInputStream() {
+            return new ByteArrayInputStream(body().array());
+        }
     }
 
     /**
@@ -116,6 +143,8 @@ public interface Response<T> {
      */
     final class BodyHandlers {
 
+        private static final long TRANSFER_SIZE = 1024 * 1024;
+
         /**
          * Creates a {@code byte[]} response handler.
          *
@@ -137,10 +166,42 @@ public interface Response<T> {
         /**
          * Creates an {@link InputStream}-based response handler.
          *
+         * <p>Where supported by the underlying HTTP client, the response body is streamed as it arrives
+         * from the network. The caller is responsible for closing the returned stream.
+         *
          * @return the body handler
          */
         public static BodyHandler<InputStream> ofInputStream() {
-            return responseInfo -> new ByteArrayInputStream(responseInfo.body().array());
+            return ResponseInfo::bodyAsInputStream;
+        }
+
+        /**
+         * Creates a file-based response handler.
+         *
+         * <p>The response body of a successful (2xx) response is transferred to the file as it arrives from
+         * the network, replacing any existing file content. Other responses, such as an authorization challenge
+         * that precedes a retried request, leave the file untouched and yield a {@code null} body.
+         *
+         * @param file the file
+         * @return the body handler
+         */
+        public static BodyHandler<Path> ofFile(final Path file) {
+            return responseInfo -> {
+                if (responseInfo.statusCode() < 200 || responseInfo.statusCode() >= 300) {
+                    return null;
+                }
+                try (final ReadableByteChannel source = Channels.newChannel(responseInfo.bodyAsInputStream());
+                        final FileChannel target = FileChannel.open(file, CREATE, WRITE, TRUNCATE_EXISTING)) {
+                    long position = 0;
+                    long count;
+                    while ((count = target.transferFrom(source, position, TRANSFER_SIZE)) > 0) {
+                        position += count;
+                    }
+                    return file;
+                } catch (final IOException ex) {
+                    throw new UncheckedIOException("Unable to write response data to file", ex);
+                }
+            };
         }
 
         /**
@@ -22,6 +22,8 @@ package com.inrupt.client.auth;
 
 import com.inrupt.client.Request;
 
+import java.net.URI;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
 
@@ -44,6 +46,18 @@ public interface Authenticator {
      */
     int getPriority();
 
+    /**
+     * Gets the authority that issues the access tokens of this authenticator, if any.
+     *
+     * <p>Concurrent authentications with the same authority, for the same resource and session, may share
+     * a single exchange with that authority.
+     *
+     * @return the issuer, if known
+     */
+    default Optional<URI> getIssuer() {
+        return Optional.empty();
+    }
+
     /**
      * Perform an ansynchronous authentication process, resulting in an access token.
      *
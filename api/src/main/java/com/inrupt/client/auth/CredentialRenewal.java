@@ -0,0 +1,125 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.auth;
+
+import com.inrupt.client.ClientCache;
+import com.inrupt.client.spi.ServiceProvider;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tracks when cached credentials are due for renewal, ahead of their expiration.
+ *
+ * <p>A credential becomes due for renewal once a given fraction of its lifetime has elapsed. Until it
+ * expires, the credential can continue to be used while a single replacement is negotiated in the background.
+ */
+public final class CredentialRenewal {
+
+    /**
+     * The default fraction of a credential's lifetime after which it is due for renewal.
+     */
+    public static final double DEFAULT_RATIO = 0.8;
+
+    private final double ratio;
+    private final ClientCache<URI, Renewal> renewals;
+
+    /**
+     * Create a renewal tracker.
+     *
+     * @param ratio the fraction of a credential's lifetime after which it is due for renewal, where {@code 1}
+     *              disables renewal
+     * @param maximumSize the maximum number of tracked credentials
+     * @param duration the duration for which a credential is tracked
+     */
+    public CredentialRenewal(final double ratio, final int maximumSize, final Duration duration) {
+        if (!(ratio > 0 && ratio <= 1)) {
+            throw new IllegalArgumentException("The renewal ratio must be greater than zero and at most one");
+        }
+        this.ratio = ratio;
+        this.renewals = ServiceProvider.getCacheBuilder().build(maximumSize, duration);
+    }
+
+    /**
+     * Track a newly cached credential.
+     *
+     * @param key the cache key
+     * @param credential the credential
+     */
+    public void track(final URI key, final Credential credential) {
+        renewals.put(key, new Renewal(credential, renewAfter(Instant.now(), credential.getExpiration(), ratio)));
+    }
+
+    /**
+     * Claim the renewal of a cached credential, if it is due.
+     *
+     * <p>This returns {@code true} at most once for each tracked credential, so that only one caller
+     * negotiates its replacement.
+     *
+     * @param key the cache key
+     * @param credential the cached credential
+     * @return true if the caller should renew the credential; false otherwise
+     */
+    public boolean claim(final URI key, final Credential credential) {
+        final Renewal renewal = renewals.get(key);
+        return renewal != null && renewal.credential == credential && Instant.now().isAfter(renewal.after)
+            && renewal.claimed.compareAndSet(false, true);
+    }
+
+    /**
+     * Stop tracking all credentials.
+     */
+    public void clear() {
+        renewals.invalidateAll();
+    }
+
+    /**
+     * Compute the instant after which a credential is due for renewal.
+     *
+     * @param issued the instant at which the credential was obtained
+     * @param expiration the expiration of the credential
+     * @param ratio the fraction of the credential's lifetime after which it is due for renewal
+     * @return the renewal instant
+     */
+    public static Instant renewAfter(final Instant issued, final Instant expiration, final double ratio) {
+        if (ratio >= 1 || !expiration.isAfter(issued)) {
+            return expiration;
+        }
+        final Duration lifetime = Duration.between(issued, expiration);
+        final double seconds = lifetime.getSeconds() * ratio;
+        final long wholeSeconds = (long) seconds;
+        final long nanos = (long) ((seconds - wholeSeconds) * 1_000_000_000L + lifetime.getNano() * ratio);
+        return issued.plusSeconds(wholeSeconds).plusNanos(nanos);
+    }
+
+    static final class Renewal {
+        final Credential credential;
+        final Instant after;
+        final AtomicBoolean claimed = new AtomicBoolean();
+
+        Renewal(final Credential credential, final Instant after) {
+            this.credential = credential;
+            this.after = after;
+        }
+    }
+}
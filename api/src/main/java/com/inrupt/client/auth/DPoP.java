@@ -87,5 +87,16 @@ public interface DPoP {
     static DPoP of(final Map<String, KeyPair> keypairs) {
         return ServiceProvider.getDpopService().ofKeyPairs(keypairs);
     }
+
+    /**
+     * Create a DPoP manager with a default keypair that is shared by all sessions of the same client of an issuer.
+     *
+     * @param issuer the issuer with which the client is registered
+     * @param clientId the client identifier
+     * @return the DPoP manager
+     */
+    static DPoP ofClient(final URI issuer, final String clientId) {
+        return ServiceProvider.getDpopService().ofClient(issuer, clientId);
+    }
 }
 
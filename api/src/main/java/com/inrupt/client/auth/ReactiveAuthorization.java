@@ -58,32 +58,50 @@ public class ReactiveAuthorization {
         .comparing(Authenticator::getPriority)
         .reversed();
 
-    private final Map<String, AuthenticationProvider> registry = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
-
+    private final Map<String, AuthenticationProvider> registry;
 
     /**
-     * Create a new authorization handler, loading any {@link AuthenticationProvider} implementations
-     * via the {@link ServiceLoader}.
+     * Create a new authorization handler, using the {@link AuthenticationProvider} implementations
+     * available via the {@link ServiceLoader}.
+     *
+     * <p>The service loader is consulted only once: the resulting registry is immutable and shared by every
+     * handler created with this constructor.
      *
      * <p>Known weak authorization mechanisms such as {@code Basic} and {@code Digest} are explicitly omitted.
      */
     public ReactiveAuthorization() {
-        final ServiceLoader<AuthenticationProvider> loader = ServiceLoader.load(AuthenticationProvider.class,
-                ReactiveAuthorization.class.getClassLoader());
+        this.registry = DefaultRegistry.INSTANCE;
+    }
 
-        final Set<String> prohibited = getProhibitedSchemes();
-        for (final AuthenticationProvider provider : loader) {
-            for (final String scheme : provider.getSchemes()) {
-                if (!prohibited.contains(scheme)) {
-                    LOGGER.debug("Registering {} scheme via {} authentication provider", scheme,
-                            provider.getClass().getSimpleName());
-                    registry.put(scheme, provider);
-                } else {
-                    LOGGER.debug("Omitting {} scheme via {} authentication provider", scheme,
-                            provider.getClass().getSimpleName());
-                }
-            }
-        }
+    /**
+     * Create a new authorization handler with an explicit collection of {@link AuthenticationProvider}
+     * implementations.
+     *
+     * <p>Known weak authorization mechanisms such as {@code Basic} and {@code Digest} are explicitly omitted.
+     *
+     * @param providers the authentication providers
+     */
+    public ReactiveAuthorization(final Iterable<? extends AuthenticationProvider> providers) {
+        this.registry = buildRegistry(providers);
+    }
+
+    /**
+     * Get a shared authorization handler, using the {@link AuthenticationProvider} implementations
+     * available via the {@link ServiceLoader}.
+     *
+     * @return the shared authorization handler
+     */
+    public static ReactiveAuthorization getDefault() {
+        return DefaultHandler.INSTANCE;
+    }
+
+    /**
+     * Get the authentication schemes supported by this handler.
+     *
+     * @return the supported schemes, ordered without regard to case
+     */
+    public Set<String> getSchemes() {
+        return registry.keySet();
     }
 
     /**
@@ -133,11 +151,45 @@ public class ReactiveAuthorization {
         return session.supportedSchemes().contains(scheme);
     }
 
+    static Map<String, AuthenticationProvider> buildRegistry(
+            final Iterable<? extends AuthenticationProvider> providers) {
+        final Map<String, AuthenticationProvider> registry = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        final Set<String> prohibited = getProhibitedSchemes();
+        for (final AuthenticationProvider provider : providers) {
+            for (final String scheme : provider.getSchemes()) {
+                if (!prohibited.contains(scheme)) {
+                    LOGGER.debug("Registering {} scheme via {} authentication provider", scheme,
+                            provider.getClass().getSimpleName());
+                    registry.put(scheme, provider);
+                } else {
+                    LOGGER.debug("Omitting {} scheme via {} authentication provider", scheme,
+                            provider.getClass().getSimpleName());
+                }
+            }
+        }
+        return Collections.unmodifiableMap(registry);
+    }
+
     static Set<String> getProhibitedSchemes() {
         final Set<String> prohibited = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
         prohibited.add("Basic");
         prohibited.add("Digest");
         return prohibited;
     }
-}
 
+    /* Lazily loaded, immutable registry of the service-loaded providers */
+    static final class DefaultRegistry {
+        static final Map<String, AuthenticationProvider> INSTANCE = buildRegistry(
+                ServiceLoader.load(AuthenticationProvider.class, ReactiveAuthorization.class.getClassLoader()));
+
+        private DefaultRegistry() {
+        }
+    }
+
+    static final class DefaultHandler {
+        static final ReactiveAuthorization INSTANCE = new ReactiveAuthorization();
+
+        private DefaultHandler() {
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.auth;
+
+import com.inrupt.client.ClientCache;
+import com.inrupt.client.spi.ServiceProvider;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A cache of access tokens for resources, which also offers tokens across sibling and descendant resources.
+ *
+ * <p>Besides the token for a specific resource, the cache keeps the most recent token obtained for any resource
+ * in a container. When there is no token for a resource, the token for its nearest container is offered, since
+ * authorization servers often issue tokens that are valid for a whole container or realm. When such a token is
+ * rejected, the container is no longer used for sharing tokens, and subsequent lookups fall back to
+ * per-resource tokens.
+ *
+ * <p>Tokens are never shared across origins or via the root container of an origin.
+ *
+ * <p>Concurrent negotiations of a token for the same resource may also be coalesced, so that all callers
+ * share a single exchange with the authorization server.
+ */
+public final class ResourceTokenCache {
+
+    private final ClientCache<URI, Credential> tokens;
+    private final ClientCache<URI, Credential> containers;
+    private final ClientCache<URI, Boolean> unshared;
+    private final Map<String, CompletableFuture<Credential>> negotiations = new ConcurrentHashMap<>();
+
+    /**
+     * Create a resource token cache.
+     *
+     * @param tokens the cache of tokens for specific resources
+     */
+    public ResourceTokenCache(final ClientCache<URI, Credential> tokens) {
+        this(tokens, ServiceProvider.getCacheBuilder().build(1000, Duration.ofMinutes(10)),
+                ServiceProvider.getCacheBuilder().build(1000, Duration.ofHours(1)));
+    }
+
+    ResourceTokenCache(final ClientCache<URI, Credential> tokens, final ClientCache<URI, Credential> containers,
+            final ClientCache<URI, Boolean> unshared) {
+        this.tokens = Objects.requireNonNull(tokens, "Token cache may not be null!");
+        this.containers = containers;
+        this.unshared = unshared;
+    }
+
+    /**
+     * Find an unexpired token for a resource.
+     *
+     * @param uri the resource URI, without a fragment
+     * @return the token for the resource or, failing that, the token for its nearest container, if present
+     */
+    public Optional<Credential> get(final URI uri) {
+        final Credential token = tokens.get(uri);
+        if (isValid(token)) {
+            return Optional.of(token);
+        }
+
+        for (final URI container : containers(uri)) {
+            if (unshared.get(container) != null) {
+                break;
+            }
+            final Credential shared = containers.get(container);
+            if (isValid(shared)) {
+                return Optional.of(shared);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Retrieve the token stored for a specific resource.
+     *
+     * @param uri the resource URI, without a fragment
+     * @return the token, which may have expired, or {@code null}
+     */
+    public Credential getExact(final URI uri) {
+        return tokens.get(uri);
+    }
+
+    /**
+     * Store a token for a resource.
+     *
+     * @param uri the resource URI, without a fragment
+     * @param credential the token
+     */
+    public void put(final URI uri, final Credential credential) {
+        tokens.put(uri, credential);
+        final List<URI> parents = containers(uri);
+        if (!parents.isEmpty() && unshared.get(parents.get(0)) == null) {
+            containers.put(parents.get(0), credential);
+        }
+    }
+
+    /**
+     * Negotiate a token for a resource, sharing a single in-flight negotiation among concurrent callers.
+     *
+     * <p>Once the negotiation completes, a resulting token is stored for the resource. A failed negotiation
+     * is not retained, so a later call starts a new negotiation.
+     *
+     * @param uri the resource URI, without a fragment
+     * @param authenticator the authenticator, whose name and issuer distinguish concurrent negotiations
+     * @param algorithms the supported DPoP algorithms
+     * @param negotiator the function that performs the negotiation; the resulting token may be {@code null}
+     * @return the next stage of completion, containing the token, which may be {@code null}
+     */
+    public CompletionStage<Credential> negotiate(final URI uri, final Authenticator authenticator,
+            final Set<String> algorithms, final Supplier<CompletionStage<Credential>> negotiator) {
+        final String key = String.join(" ", uri.toString(), authenticator.getName(),
+                authenticator.getIssuer().map(URI::toString).orElse(""), new TreeSet<>(algorithms).toString());
+        final CompletableFuture<Credential> future = new CompletableFuture<>();
+        final CompletableFuture<Credential> existing = negotiations.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing.thenApply(Function.identity());
+        }
+
+        try {
+            negotiator.get().whenComplete((credential, err) -> {
+                // Store the token before later callers can no longer join this negotiation
+                if (err == null && credential != null) {
+                    put(uri, credential);
+                }
+                negotiations.remove(key, future);
+                if (err != null) {
+                    future.completeExceptionally(err);
+                } else {
+                    future.complete(credential);
+                }
+            });
+        } catch (final RuntimeException ex) {
+            negotiations.remove(key, future);
+            future.completeExceptionally(ex);
+        }
+        return future.thenApply(Function.identity());
+    }
+
+    /**
+     * Record that a token was rejected for a resource.
+     *
+     * <p>The token is no longer offered for the resource. If the token was offered via a container, tokens
+     * are no longer shared within that container.
+     *
+     * @param uri the resource URI, without a fragment
+     * @param credential the rejected token
+     */
+    public void reject(final URI uri, final Credential credential) {
+        if (tokens.get(uri) == credential) {
+            tokens.invalidate(uri);
+        }
+        for (final URI container : containers(uri)) {
+            if (containers.get(container) == credential) {
+                containers.invalidate(container);
+                unshared.put(container, Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * Remove all tokens from the cache.
+     */
+    public void invalidateAll() {
+        tokens.invalidateAll();
+        containers.invalidateAll();
+        unshared.invalidateAll();
+    }
+
+    static boolean isValid(final Credential credential) {
+        return credential != null && credential.getExpiration().isAfter(Instant.now());
+    }
+
+    /* The containers of a resource, nearest first, excluding the root container */
+    static List<URI> containers(final URI uri) {
+        final List<URI> parents = new ArrayList<>();
+        final String path = uri.getRawPath();
+        if (uri.isOpaque() || path == null || uri.getRawAuthority() == null) {
+            return parents;
+        }
+
+        // A container's own tokens are shared within its parent
+        int end = path.endsWith("/") ? path.length() - 1 : path.length();
+        int slash = path.lastIndexOf('/', end - 1);
+        while (slash > 0) {
+            parents.add(URI.create(uri.getScheme() + "://" + uri.getRawAuthority() + path.substring(0, slash + 1)));
+            end = slash;
+            slash = path.lastIndexOf('/', end - 1);
+        }
+        return parents;
+    }
+}
@@ -28,6 +28,7 @@ import java.util.Collections;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
 /**
@@ -67,6 +68,20 @@ public interface Session {
      */
     Optional<Credential> getCredential(URI name, URI uri);
 
+    /**
+     * Retrieve a credential from this session, asynchronously.
+     *
+     * <p>Implementations that may need to refresh a credential over the network should override this method
+     * so that callers on an event-loop thread are never blocked.
+     *
+     * @param name the credential name
+     * @param uri the request URI
+     * @return the next stage of completion, containing the credential, if present
+     */
+    default CompletionStage<Optional<Credential>> getCredentialAsync(final URI name, final URI uri) {
+        return CompletableFuture.completedFuture(getCredential(name, uri));
+    }
+
     /**
      * Retrieve an access token for a request from a cache.
      *
@@ -75,6 +90,43 @@ public interface Session {
      */
     Optional<Credential> fromCache(Request request);
 
+    /**
+     * Report that a cached credential was rejected by the server for a request.
+     *
+     * <p>A session that offers a cached credential for resources beyond the one for which it was obtained
+     * should stop offering that credential for the request.
+     *
+     * @param request the HTTP request
+     * @param credential the rejected credential
+     */
+    default void rejectCredential(final Request request, final Credential credential) {
+        // no-op
+    }
+
+    /**
+     * Determine whether the cached credential for a request should be renewed ahead of its expiration.
+     *
+     * <p>This returns {@code true} at most once for each cached credential. The caller may continue to use
+     * the cached credential while negotiating a replacement via {@link #authenticate}.
+     *
+     * @param request the HTTP request
+     * @return true if the caller should renew the cached credential; false otherwise
+     */
+    default boolean requiresRenewal(final Request request) {
+        return false;
+    }
+
+    /**
+     * Indicate whether this session holds credentials with which to answer an authorization challenge.
+     *
+     * <p>A client may use this to decide whether a request is likely to be resent after a challenge.
+     *
+     * @return true if the session holds credentials; false otherwise
+     */
+    default boolean hasCredentials() {
+        return true;
+    }
+
     /**
      * Generate a proof for a request.
      *
@@ -142,6 +194,11 @@ public interface Session {
                 return Optional.empty();
             }
 
+            @Override
+            public boolean hasCredentials() {
+                return false;
+            }
+
             @Override
             public Optional<String> generateProof(final String jkt, final Request request) {
                 return Optional.empty();
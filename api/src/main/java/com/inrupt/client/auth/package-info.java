@@ -99,7 +99,9 @@
  * methods for generating a proof or creating a DPoP manager, for example.
  *
  * <p>{@link ReactiveAuthorization} is the class which will negotiate for a token based on the WWW-Authenticate header
- * and the Authenticator loaded on the classpath.
+ * and the Authenticator loaded on the classpath. The providers found on the classpath are loaded once and shared,
+ * via {@link ReactiveAuthorization#getDefault()}; a handler with an explicit set of providers can be created with
+ * {@link ReactiveAuthorization#ReactiveAuthorization(Iterable)}.
  *
  */
 package com.inrupt.client.auth;
@@ -22,7 +22,9 @@ package com.inrupt.client.spi;
 
 import com.inrupt.client.auth.DPoP;
 
+import java.net.URI;
 import java.security.KeyPair;
+import java.util.Collections;
 import java.util.Map;
 
 /**
@@ -37,4 +39,17 @@ public interface DpopService {
      * @return the DPoP manager
      */
     DPoP ofKeyPairs(Map<String, KeyPair> keypairs);
+
+    /**
+     * Create a DPoP manager with a default keypair that is shared by all managers for the same client of an issuer.
+     *
+     * <p>Implementations that do not support sharing return a manager with its own default keypair.
+     *
+     * @param issuer the issuer with which the client is registered
+     * @param clientId the client identifier
+     * @return the DPoP manager
+     */
+    default DPoP ofClient(final URI issuer, final String clientId) {
+        return ofKeyPairs(Collections.emptyMap());
+    }
 }
@@ -0,0 +1,191 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.util;
+
+import com.inrupt.client.ClientCache;
+import com.inrupt.client.Headers;
+import com.inrupt.client.Response;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A cache for discovery documents, such as the metadata resources of authorization servers.
+ *
+ * <p>Concurrent lookups of an uncached document share a single in-flight fetch. Each document is
+ * retained for the duration indicated by the {@code Cache-Control: max-age} directive of its response,
+ * or for a default duration if the response has no such directive. Documents with a {@code no-store}
+ * or {@code no-cache} directive are not retained.
+ *
+ * @param <T> the type of the discovery document
+ */
+public final class DiscoveryCache<T> {
+
+    private static final String CACHE_CONTROL = "Cache-Control";
+    private static final String AGE = "Age";
+    private static final String MAX_AGE = "max-age";
+    private static final List<String> NOT_RETAINED = Arrays.asList("no-store", "no-cache");
+
+    private final ClientCache<URI, T> cache;
+    private final Duration defaultMaxAge;
+    private final Map<URI, Instant> expirations = new ConcurrentHashMap<>();
+    private final Map<URI, CompletableFuture<T>> inflight = new ConcurrentHashMap<>();
+
+    /**
+     * Create a discovery cache.
+     *
+     * @param cache the underlying cache, whose own expiration policy also applies
+     * @param defaultMaxAge the retention time of a document whose response has no {@code max-age} directive
+     */
+    public DiscoveryCache(final ClientCache<URI, T> cache, final Duration defaultMaxAge) {
+        this.cache = Objects.requireNonNull(cache, "cache may not be null!");
+        this.defaultMaxAge = Objects.requireNonNull(defaultMaxAge, "defaultMaxAge may not be null!");
+    }
+
+    /**
+     * Get a discovery document, fetching it if it is not cached.
+     *
+     * @param uri the location of the document
+     * @param fetch the function that requests the document
+     * @param parse the function that converts a response into the document; it may throw an exception
+     *              if the response is not successful
+     * @param <R> the response body type
+     * @return the next stage of completion, containing the document
+     */
+    public <R> CompletionStage<T> get(final URI uri, final Function<URI, CompletionStage<Response<R>>> fetch,
+            final Function<Response<R>, T> parse) {
+        final T cached = getIfPresent(uri);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final CompletableFuture<T> existing = inflight.putIfAbsent(uri, future);
+        if (existing != null) {
+            return existing.thenApply(Function.identity());
+        }
+
+        try {
+            fetch.apply(uri).thenApply(res -> {
+                final T document = parse.apply(res);
+                final Duration maxAge = maxAge(res.headers(), defaultMaxAge);
+                if (!maxAge.isZero()) {
+                    expirations.put(uri, Instant.now().plus(maxAge));
+                    cache.put(uri, document);
+                }
+                return document;
+            }).whenComplete((document, err) -> {
+                inflight.remove(uri, future);
+                if (err != null) {
+                    future.completeExceptionally(err);
+                } else {
+                    future.complete(document);
+                }
+            });
+        } catch (final RuntimeException ex) {
+            inflight.remove(uri, future);
+            future.completeExceptionally(new CompletionException(ex));
+        }
+        return future.thenApply(Function.identity());
+    }
+
+    /**
+     * Get a discovery document, if it is cached and fresh.
+     *
+     * @param uri the location of the document
+     * @return the document, or {@code null} if it is not cached
+     */
+    public T getIfPresent(final URI uri) {
+        final T cached = cache.get(uri);
+        if (cached != null) {
+            final Instant expiration = expirations.get(uri);
+            // Documents added to the underlying cache directly follow that cache's expiration policy
+            if (expiration == null || Instant.now().isBefore(expiration)) {
+                return cached;
+            }
+            expirations.remove(uri, expiration);
+            cache.invalidate(uri);
+        }
+        return null;
+    }
+
+    /**
+     * Remove a discovery document from the cache.
+     *
+     * @param uri the location of the document
+     */
+    public void invalidate(final URI uri) {
+        expirations.remove(uri);
+        cache.invalidate(uri);
+    }
+
+    /**
+     * Determine the retention time of a response from its {@code Cache-Control} and {@code Age} headers.
+     *
+     * @param headers the response headers
+     * @param defaultMaxAge the retention time if there is no {@code max-age} directive
+     * @return the retention time, which is zero if the response may not be retained
+     */
+    public static Duration maxAge(final Headers headers, final Duration defaultMaxAge) {
+        Duration maxAge = null;
+        for (final String value : headers.allValues(CACHE_CONTROL)) {
+            for (final String directive : value.split(",")) {
+                final String[] parts = directive.split("=", 2);
+                final String name = parts[0].trim().toLowerCase(Locale.ROOT);
+                if (NOT_RETAINED.contains(name)) {
+                    return Duration.ZERO;
+                } else if (MAX_AGE.equals(name) && parts.length == 2) {
+                    final long seconds = seconds(parts[1]);
+                    if (seconds >= 0) {
+                        maxAge = Duration.ofSeconds(seconds);
+                    }
+                }
+            }
+        }
+
+        if (maxAge == null) {
+            return defaultMaxAge;
+        }
+
+        // Documents served by a shared cache have already aged
+        final long age = headers.firstValue(AGE).map(DiscoveryCache::seconds).orElse(0L);
+        return age > 0 ? maxAge.minusSeconds(Math.min(age, maxAge.getSeconds())) : maxAge;
+    }
+
+    static long seconds(final String value) {
+        try {
+            return Long.parseLong(value.trim().replace("\"", ""));
+        } catch (final NumberFormatException ex) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.auth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+class CredentialRenewalTest {
+
+    @Test
+    void testRenewAfter() {
+        final Instant issued = Instant.parse("2023-01-01T00:00:00Z");
+        final Instant expiration = issued.plusSeconds(300);
+        assertEquals(issued.plusSeconds(240), CredentialRenewal.renewAfter(issued, expiration, 0.8));
+        assertEquals(issued.plusSeconds(150), CredentialRenewal.renewAfter(issued, expiration, 0.5));
+        assertEquals(expiration, CredentialRenewal.renewAfter(issued, expiration, 1));
+        assertEquals(issued, CredentialRenewal.renewAfter(issued, issued, 0.5));
+        assertEquals(issued.plusMillis(750), CredentialRenewal.renewAfter(issued, issued.plusMillis(1500), 0.5));
+        assertTrue(CredentialRenewal.renewAfter(issued, Instant.MAX, 0.8).isBefore(Instant.MAX));
+    }
+
+    @Test
+    void testInvalidRatio() {
+        final Duration duration = Duration.ofMinutes(5);
+        assertThrows(IllegalArgumentException.class, () -> new CredentialRenewal(0, 100, duration));
+        assertThrows(IllegalArgumentException.class, () -> new CredentialRenewal(1.5, 100, duration));
+        assertThrows(IllegalArgumentException.class, () -> new CredentialRenewal(Double.NaN, 100, duration));
+        assertDoesNotThrow(() -> new CredentialRenewal(1, 100, duration));
+    }
+}
@@ -25,8 +25,10 @@ import static org.junit.jupiter.api.Assertions.*;
 import com.inrupt.client.Request;
 
 import java.net.URI;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -46,6 +48,36 @@ class ReactiveAuthorizationTest {
         assertFalse(credential.isPresent());
     }
 
+    @Test
+    void testSharedRegistry() {
+        final ReactiveAuthorization auth = ReactiveAuthorization.getDefault();
+        assertSame(auth, ReactiveAuthorization.getDefault());
+        assertFalse(auth.getSchemes().contains("Basic"));
+        assertEquals(auth.getSchemes(), new ReactiveAuthorization().getSchemes());
+        assertThrows(UnsupportedOperationException.class, () -> auth.getSchemes().add("Bearer"));
+    }
+
+    @Test
+    void testCustomRegistry() {
+        final ReactiveAuthorization auth = new ReactiveAuthorization(Arrays.asList(new BasicAuthProvider(),
+                    new PermissiveAuthProvider()));
+        assertEquals(Collections.singleton("basic-test"), auth.getSchemes());
+        assertTrue(auth.getSchemes().contains("BASIC-TEST"));
+
+        final Session session = new BasicAuthSession();
+        final Request req = Request.newBuilder(URI.create("https://storage.example")).build();
+        final Optional<Credential> credential = auth.negotiate(session, req,
+                Collections.singleton(Challenge.of("Basic-Test"))).toCompletableFuture().join();
+        assertTrue(credential.isPresent());
+    }
+
+    static class PermissiveAuthProvider extends BasicAuthProvider {
+        @Override
+        public Set<String> getSchemes() {
+            return Collections.singleton("basic-test");
+        }
+    }
+
     static class BasicAuthSession implements Session {
 
         @Override
@@ -60,7 +92,7 @@ class ReactiveAuthorizationTest {
 
         @Override
         public Set<String> supportedSchemes() {
-            return Collections.singleton("Basic");
+            return new HashSet<>(Arrays.asList("Basic", "Basic-Test"));
         }
 
         @Override
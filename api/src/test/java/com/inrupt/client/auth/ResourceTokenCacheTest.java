@@ -0,0 +1,246 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.auth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.inrupt.client.ClientCache;
+import com.inrupt.client.Request;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class ResourceTokenCacheTest {
+
+    static final URI AS = URI.create("https://as.example");
+
+    @Test
+    void testExactToken() {
+        final ResourceTokenCache cache = cache();
+        final URI uri = URI.create("https://storage.example/container/resource");
+        final Credential token = token(300);
+        assertFalse(cache.get(uri).isPresent());
+        cache.put(uri, token);
+        assertEquals(Optional.of(token), cache.get(uri));
+        assertSame(token, cache.getExact(uri));
+    }
+
+    @Test
+    void testSharedTokens() {
+        final ResourceTokenCache cache = cache();
+        final Credential token = token(300);
+        cache.put(URI.create("https://storage.example/container/resource"), token);
+
+        // Siblings and descendants of siblings
+        assertEquals(Optional.of(token), cache.get(URI.create("https://storage.example/container/other")));
+        assertEquals(Optional.of(token), cache.get(URI.create("https://storage.example/container/child/")));
+        assertEquals(Optional.of(token), cache.get(URI.create("https://storage.example/container/child/item")));
+        assertNull(cache.getExact(URI.create("https://storage.example/container/other")));
+
+        // Neither the parent container, nor other containers or origins
+        assertFalse(cache.get(URI.create("https://storage.example/container/")).isPresent());
+        assertFalse(cache.get(URI.create("https://storage.example/other/resource")).isPresent());
+        assertFalse(cache.get(URI.create("https://other.example/container/resource")).isPresent());
+    }
+
+    @Test
+    void testNearestContainer() {
+        final ResourceTokenCache cache = cache();
+        final Credential outer = token(300);
+        final Credential inner = token(300);
+        cache.put(URI.create("https://storage.example/a/resource"), outer);
+        cache.put(URI.create("https://storage.example/a/b/resource"), inner);
+        assertEquals(Optional.of(inner), cache.get(URI.create("https://storage.example/a/b/other")));
+        assertEquals(Optional.of(outer), cache.get(URI.create("https://storage.example/a/other")));
+    }
+
+    @Test
+    void testExpiredTokens() {
+        final ResourceTokenCache cache = cache();
+        cache.put(URI.create("https://storage.example/container/resource"), token(-1));
+        assertFalse(cache.get(URI.create("https://storage.example/container/resource")).isPresent());
+        assertFalse(cache.get(URI.create("https://storage.example/container/other")).isPresent());
+    }
+
+    @Test
+    void testRejectedToken() {
+        final ResourceTokenCache cache = cache();
+        final URI resource = URI.create("https://storage.example/container/resource");
+        final URI other = URI.create("https://storage.example/container/other");
+        final Credential token = token(300);
+        cache.put(resource, token);
+
+        cache.reject(other, token);
+        assertFalse(cache.get(other).isPresent());
+        assertFalse(cache.get(URI.create("https://storage.example/container/child/item")).isPresent());
+        assertEquals(Optional.of(token), cache.get(resource));
+
+        // Tokens are no longer shared in that container
+        final Credential token2 = token(300);
+        cache.put(other, token2);
+        assertEquals(Optional.of(token2), cache.get(other));
+        assertFalse(cache.get(URI.create("https://storage.example/container/third")).isPresent());
+
+        cache.reject(resource, token);
+        assertFalse(cache.get(resource).isPresent());
+
+        cache.invalidateAll();
+        assertFalse(cache.get(other).isPresent());
+    }
+
+    @Test
+    void testNegotiate() {
+        final ResourceTokenCache cache = cache();
+        final URI uri = URI.create("https://storage.example/container/resource");
+        final Set<String> algorithms = Collections.singleton("ES256");
+        final Authenticator authenticator = new TestAuthenticator(AS);
+        final AtomicInteger negotiations = new AtomicInteger();
+        final CompletableFuture<Credential> pending = new CompletableFuture<>();
+
+        final CompletableFuture<Credential> first = cache.negotiate(uri, authenticator, algorithms, () -> {
+            negotiations.incrementAndGet();
+            return pending;
+        }).toCompletableFuture();
+        final CompletableFuture<Credential> second = cache.negotiate(uri, authenticator, algorithms, () -> {
+            negotiations.incrementAndGet();
+            return pending;
+        }).toCompletableFuture();
+
+        // A different authorization server is negotiated separately
+        final Credential other = token(300);
+        assertSame(other, cache.negotiate(uri, new TestAuthenticator(URI.create("https://other.example")),
+                    algorithms, () -> CompletableFuture.completedFuture(other)).toCompletableFuture().join());
+
+        final Credential token = token(300);
+        pending.complete(token);
+        assertSame(token, first.join());
+        assertSame(token, second.join());
+        assertEquals(1, negotiations.get());
+        assertSame(token, cache.getExact(uri));
+    }
+
+    @Test
+    void testFailedNegotiation() {
+        final ResourceTokenCache cache = cache();
+        final URI uri = URI.create("https://storage.example/container/resource");
+        final Authenticator authenticator = new TestAuthenticator(AS);
+        final CompletableFuture<Credential> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("Negotiation failed"));
+
+        final CompletionException err = assertThrows(CompletionException.class, () ->
+                cache.negotiate(uri, authenticator, Collections.emptySet(), () -> failed).toCompletableFuture().join());
+        assertTrue(err.getCause() instanceof IllegalStateException);
+        assertNull(cache.getExact(uri));
+
+        // The failure is not retained
+        final Credential token = token(300);
+        assertSame(token, cache.negotiate(uri, authenticator, Collections.emptySet(),
+                    () -> CompletableFuture.completedFuture(token)).toCompletableFuture().join());
+        assertNull(cache.negotiate(uri, authenticator, Collections.emptySet(),
+                    () -> CompletableFuture.completedFuture(null)).toCompletableFuture().join());
+        assertSame(token, cache.getExact(uri));
+    }
+
+    @Test
+    void testContainers() {
+        assertEquals(Arrays.asList(URI.create("https://storage.example/a/b/"),
+                    URI.create("https://storage.example/a/")),
+                ResourceTokenCache.containers(URI.create("https://storage.example/a/b/c?query")));
+        assertEquals(Collections.singletonList(URI.create("https://storage.example/a/")),
+                ResourceTokenCache.containers(URI.create("https://storage.example/a/b/")));
+        assertEquals(Collections.emptyList(), ResourceTokenCache.containers(URI.create("https://storage.example/a")));
+        assertEquals(Collections.emptyList(), ResourceTokenCache.containers(URI.create("https://storage.example")));
+        assertEquals(Collections.emptyList(), ResourceTokenCache.containers(URI.create("urn:example:a/b")));
+    }
+
+    static Credential token(final long seconds) {
+        return new Credential("Bearer", AS, "token", Instant.now().plusSeconds(seconds), null, null);
+    }
+
+    static ResourceTokenCache cache() {
+        return new ResourceTokenCache(new MapCache<>(), new MapCache<>(), new MapCache<>());
+    }
+
+    static class TestAuthenticator implements Authenticator {
+        private final URI issuer;
+
+        TestAuthenticator(final URI issuer) {
+            this.issuer = issuer;
+        }
+
+        @Override
+        public String getName() {
+            return "TEST";
+        }
+
+        @Override
+        public int getPriority() {
+            return 1;
+        }
+
+        @Override
+        public Optional<URI> getIssuer() {
+            return Optional.of(issuer);
+        }
+
+        @Override
+        public CompletionStage<Credential> authenticate(final Session session, final Request request,
+                final Set<String> algorithms) {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    static class MapCache<T, U> implements ClientCache<T, U> {
+        private final Map<T, U> data = new ConcurrentHashMap<>();
+
+        @Override
+        public U get(final T key) {
+            return data.get(key);
+        }
+
+        @Override
+        public void put(final T key, final U value) {
+            data.put(key, value);
+        }
+
+        @Override
+        public void invalidate(final T key) {
+            data.remove(key);
+        }
+
+        @Override
+        public void invalidateAll() {
+            data.clear();
+        }
+    }
+}
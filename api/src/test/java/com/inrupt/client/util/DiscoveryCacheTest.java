@@ -0,0 +1,185 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.inrupt.client.ClientCache;
+import com.inrupt.client.Headers;
+import com.inrupt.client.Response;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class DiscoveryCacheTest {
+
+    static final URI URI_1 = URI.create("https://as.example/.well-known/uma2-configuration");
+
+    @Test
+    void testSingleFlight() {
+        final DiscoveryCache<String> cache = new DiscoveryCache<>(new MapCache<>(), Duration.ofMinutes(60));
+        final AtomicInteger fetches = new AtomicInteger();
+        final CompletableFuture<Response<String>> pending = new CompletableFuture<>();
+
+        final List<CompletableFuture<String>> results = Arrays.asList(
+                cache.get(URI_1, uri -> fetch(fetches, pending), Response::body).toCompletableFuture(),
+                cache.get(URI_1, uri -> fetch(fetches, pending), Response::body).toCompletableFuture(),
+                cache.get(URI_1, uri -> fetch(fetches, pending), Response::body).toCompletableFuture());
+
+        pending.complete(response("metadata", Collections.emptyMap()));
+        for (final CompletableFuture<String> result : results) {
+            assertEquals("metadata", result.join());
+        }
+        assertEquals("metadata", cache.get(URI_1, uri -> fetch(fetches, pending), Response::body)
+                .toCompletableFuture().join());
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void testFailedFetch() {
+        final DiscoveryCache<String> cache = new DiscoveryCache<>(new MapCache<>(), Duration.ofMinutes(60));
+        final AtomicInteger fetches = new AtomicInteger();
+        final CompletableFuture<Response<String>> failing = CompletableFuture.completedFuture(
+                response("error", Collections.emptyMap()));
+
+        final CompletionException err = assertThrows(CompletionException.class, () ->
+                cache.get(URI_1, uri -> fetch(fetches, failing), res -> {
+                    throw new IllegalStateException(res.body());
+                }).toCompletableFuture().join());
+        assertTrue(err.getCause() instanceof IllegalStateException);
+
+        // Failures are not cached
+        assertEquals("error", cache.get(URI_1, uri -> fetch(fetches, failing), Response::body)
+                .toCompletableFuture().join());
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    void testMaxAge() {
+        final DiscoveryCache<String> cache = new DiscoveryCache<>(new MapCache<>(), Duration.ofMinutes(60));
+        final AtomicInteger fetches = new AtomicInteger();
+
+        final CompletableFuture<Response<String>> expired = CompletableFuture.completedFuture(
+                response("expired", Collections.singletonMap("Cache-Control", Arrays.asList("public, max-age=0"))));
+        cache.get(URI_1, uri -> fetch(fetches, expired), Response::body).toCompletableFuture().join();
+        assertNull(cache.getIfPresent(URI_1));
+
+        final CompletableFuture<Response<String>> fresh = CompletableFuture.completedFuture(
+                response("fresh", Collections.singletonMap("Cache-Control", Arrays.asList("max-age=600"))));
+        cache.get(URI_1, uri -> fetch(fetches, fresh), Response::body).toCompletableFuture().join();
+        assertEquals("fresh", cache.getIfPresent(URI_1));
+        assertEquals(2, fetches.get());
+
+        cache.invalidate(URI_1);
+        assertNull(cache.getIfPresent(URI_1));
+    }
+
+    @Test
+    void testMaxAgeDirectives() {
+        final Duration defaultMaxAge = Duration.ofMinutes(60);
+        assertEquals(defaultMaxAge, DiscoveryCache.maxAge(Headers.empty(), defaultMaxAge));
+        assertEquals(Duration.ofSeconds(300), DiscoveryCache.maxAge(headers("Cache-Control", "max-age=300"),
+                    defaultMaxAge));
+        assertEquals(Duration.ofSeconds(300), DiscoveryCache.maxAge(headers("Cache-Control", "Max-Age=\"300\""),
+                    defaultMaxAge));
+        assertEquals(defaultMaxAge, DiscoveryCache.maxAge(headers("Cache-Control", "max-age=soon"), defaultMaxAge));
+        assertEquals(Duration.ZERO, DiscoveryCache.maxAge(headers("Cache-Control", "max-age=300, no-store"),
+                    defaultMaxAge));
+        assertEquals(Duration.ZERO, DiscoveryCache.maxAge(headers("Cache-Control", "no-cache"), defaultMaxAge));
+
+        final Map<String, List<String>> aged = new HashMap<>();
+        aged.put("Cache-Control", Arrays.asList("max-age=300"));
+        aged.put("Age", Arrays.asList("100"));
+        assertEquals(Duration.ofSeconds(200), DiscoveryCache.maxAge(Headers.of(aged), defaultMaxAge));
+        aged.put("Age", Arrays.asList("400"));
+        assertEquals(Duration.ZERO, DiscoveryCache.maxAge(Headers.of(aged), defaultMaxAge));
+    }
+
+    static Headers headers(final String name, final String value) {
+        return Headers.of(Collections.singletonMap(name, Arrays.asList(value)));
+    }
+
+    static CompletionStage<Response<String>> fetch(final AtomicInteger fetches,
+            final CompletableFuture<Response<String>> response) {
+        fetches.incrementAndGet();
+        return response;
+    }
+
+    static Response<String> response(final String body, final Map<String, List<String>> headers) {
+        return new Response<String>() {
+            @Override
+            public String body() {
+                return body;
+            }
+
+            @Override
+            public Headers headers() {
+                return Headers.of(headers);
+            }
+
+            @Override
+            public URI uri() {
+                return URI_1;
+            }
+
+            @Override
+            public int statusCode() {
+                return 200;
+            }
+        };
+    }
+
+    static class MapCache<T, U> implements ClientCache<T, U> {
+        private final Map<T, U> data = new ConcurrentHashMap<>();
+
+        @Override
+        public U get(final T key) {
+            return data.get(key);
+        }
+
+        @Override
+        public void put(final T key, final U value) {
+            data.put(key, value);
+        }
+
+        @Override
+        public void invalidate(final T key) {
+            data.remove(key);
+        }
+
+        @Override
+        public void invalidateAll() {
+            data.clear();
+        }
+    }
+}
@@ -22,6 +22,8 @@ package com.inrupt.client.util;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.inrupt.client.Request;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -102,6 +104,75 @@ class IOUtilsTest {
         }
     }
 
+    @Test
+    void testStreamPublisher() throws IOException {
+        try (final InputStream res = IOUtilsTest.class.getResourceAsStream(INPUT_DOC)) {
+            final byte[] data = org.apache.commons.io.IOUtils.toByteArray(res);
+
+            final Request.BodyPublisher publisher = IOUtils.stream(source -> produce(source, data, Speed.SLOW));
+
+            assertTrue(publisher.isStreaming());
+            assertFalse(publisher.isRepeatable());
+            assertEquals(-1, publisher.contentLength());
+            try (final InputStream sink = publisher.getInputStream()) {
+                consume(sink, data, Speed.FAST);
+            }
+            assertThrows(IllegalStateException.class, publisher::getInputStream);
+        }
+    }
+
+    @Test
+    void testStreamPublisherReplay() throws IOException {
+        try (final InputStream res = IOUtilsTest.class.getResourceAsStream(INPUT_DOC)) {
+            final byte[] data = org.apache.commons.io.IOUtils.toByteArray(res);
+
+            final Request.BodyPublisher publisher = IOUtils.stream(source -> produce(source, data, Speed.FAST));
+
+            try (final InputStream sink = publisher.getInputStream()) {
+                assertArrayEquals(data, org.apache.commons.io.IOUtils.toByteArray(sink));
+            }
+
+            // A fully consumed stream within the replay limit can be repeated
+            assertFalse(publisher.isStreaming());
+            assertTrue(publisher.isRepeatable());
+            assertEquals(data.length, publisher.contentLength());
+            try (final InputStream sink = publisher.getInputStream()) {
+                consume(sink, data, Speed.FAST);
+            }
+        }
+    }
+
+    @Test
+    void testStreamPublisherBuffered() throws IOException {
+        try (final InputStream res = IOUtilsTest.class.getResourceAsStream(INPUT_DOC)) {
+            final byte[] data = org.apache.commons.io.IOUtils.toByteArray(res);
+
+            final Request.BodyPublisher publisher = IOUtils.stream(source -> produce(source, data, Speed.FAST));
+
+            assertArrayEquals(data, publisher.getBytes().array());
+            assertFalse(publisher.isStreaming());
+            assertTrue(publisher.isRepeatable());
+            assertEquals(data.length, publisher.contentLength());
+            try (final InputStream sink = publisher.getInputStream()) {
+                consume(sink, data, Speed.FAST);
+            }
+        }
+    }
+
+    @Test
+    void testBufferPublisher() throws IOException {
+        try (final InputStream res = IOUtilsTest.class.getResourceAsStream(INPUT_DOC)) {
+            final byte[] data = org.apache.commons.io.IOUtils.toByteArray(res);
+
+            final Request.BodyPublisher publisher = IOUtils.buffer(source -> produce(source, data, Speed.FAST));
+
+            assertFalse(publisher.isStreaming());
+            assertTrue(publisher.isRepeatable());
+            assertEquals(data.length, publisher.contentLength());
+            assertArrayEquals(data, publisher.getBytes().array());
+        }
+    }
+
     void produce(final OutputStream out, final byte[] data, final Speed speed) {
         try {
             for (int i = 0; i < data.length; i++) {
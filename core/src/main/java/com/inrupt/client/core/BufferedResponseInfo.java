@@ -0,0 +1,98 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.core;
+
+import com.inrupt.client.Headers;
+import com.inrupt.client.Response;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+
+/**
+ * A fully buffered HTTP response that may be handled more than once.
+ */
+final class BufferedResponseInfo implements Response.ResponseInfo {
+
+    private final URI uri;
+    private final int statusCode;
+    private final Headers headers;
+    private final byte[] body;
+
+    BufferedResponseInfo(final URI uri, final int statusCode, final Headers headers, final byte[] body) {
+        this.uri = uri;
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    @Override
+    public Headers headers() {
+        return headers;
+    }
+
+    @Override
+    public URI uri() {
+        return uri;
+    }
+
+    @Override
+    public int statusCode() {
+        return statusCode;
+    }
+
+    @Override
+    public ByteBuffer body() {
+        // Copy the data so that the buffered value cannot be modified
+        return ByteBuffer.wrap(body.clone());
+    }
+
+    @Override
+    public InputStream bodyAsInputStream() {
+        return new ByteArrayInputStream(body);
+    }
+
+    BufferedResponseInfo withHeaders(final Headers updated) {
+        return new BufferedResponseInfo(uri, statusCode, updated, body);
+    }
+
+    <T> Response<T> handle(final Response.BodyHandler<T> responseBodyHandler) {
+        return new ClientResponse<>(uri, statusCode, headers, responseBodyHandler.apply(this));
+    }
+
+    static boolean fits(final Response.ResponseInfo responseInfo, final long limit) {
+        // Only a body of known size can be buffered within a limit
+        try {
+            return responseInfo.headers().firstValue("Content-Length").map(Long::parseLong)
+                .filter(length -> length <= limit).isPresent();
+        } catch (final NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    static BufferedResponseInfo of(final Response.ResponseInfo responseInfo) {
+        final ByteBuffer buffer = responseInfo.body();
+        final byte[] data = new byte[buffer.remaining()];
+        buffer.duplicate().get(data);
+        return new BufferedResponseInfo(responseInfo.uri(), responseInfo.statusCode(), responseInfo.headers(), data);
+    }
+}
@@ -0,0 +1,430 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.core;
+
+import com.inrupt.client.Client;
+import com.inrupt.client.ClientCache;
+import com.inrupt.client.Headers;
+import com.inrupt.client.Request;
+import com.inrupt.client.Response;
+import com.inrupt.client.auth.Session;
+import com.inrupt.client.spi.ServiceProvider;
+import com.inrupt.client.util.DiscoveryCache;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An HTTP client that caches responses to {@code GET} requests and revalidates them with conditional requests.
+ *
+ * <p>This client wraps another {@link Client}, typically the {@link DefaultClient}. Successful responses that
+ * carry an {@code ETag} or {@code Last-Modified} validator or a positive {@code Cache-Control: max-age} are
+ * stored, as bytes, in a {@link ClientCache}. Fresh entries are served without contacting the server. Stale
+ * entries are revalidated with {@code If-None-Match} or {@code If-Modified-Since}, and a {@code 304 Not Modified}
+ * response is served from the cache. The {@code stale-while-revalidate} and {@code stale-if-error} response
+ * directives are honored. Responses without a {@code Content-Length}, or larger than a configurable limit,
+ * are passed through without being stored.
+ *
+ * <p>Cached responses are partitioned by session, so that data retrieved with one set of credentials is never
+ * served to a different session. Unsafe requests invalidate the cached copy of the target resource and of its
+ * parent container in the current partition.
+ */
+public final class CachingClient implements Client {
+
+    private static final int OK = 200;
+    private static final int NOT_MODIFIED = 304;
+    private static final int SERVER_ERROR = 500;
+    private static final int DEFAULT_CACHE_SIZE = 1000;
+    private static final long DEFAULT_MAX_ENTRY_SIZE = 1024 * 1024;
+    private static final Duration DEFAULT_CACHE_DURATION = Duration.ofMinutes(60);
+    private static final String GET = "GET";
+    private static final String ETAG = "ETag";
+    private static final String LAST_MODIFIED = "Last-Modified";
+    private static final String CACHE_CONTROL = "Cache-Control";
+    private static final String VARY = "Vary";
+    private static final String IF_NONE_MATCH = "If-None-Match";
+    private static final String IF_MODIFIED_SINCE = "If-Modified-Since";
+    private static final String NO_STORE = "no-store";
+    private static final String NO_CACHE = "no-cache";
+    private static final String STALE_WHILE_REVALIDATE = "stale-while-revalidate";
+    private static final String STALE_IF_ERROR = "stale-if-error";
+    private static final List<String> SAFE_METHODS = Arrays.asList(GET, "HEAD", "OPTIONS", "TRACE");
+    private static final List<String> CONDITIONAL_HEADERS = Arrays.asList("Authorization", IF_NONE_MATCH,
+            IF_MODIFIED_SINCE, "If-Match", "If-Unmodified-Since", "If-Range", "Range");
+    private static final List<String> NOT_MODIFIED_EXCLUSIONS = Arrays.asList("Content-Length",
+            "Content-Encoding", "Transfer-Encoding");
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingClient.class);
+
+    private final Client client;
+    private final ClientCache<String, Entry> cache;
+    private final String partition;
+    private final Clock clock;
+    private final long maxEntrySize;
+
+    /**
+     * Create a caching HTTP client, using a cache from the {@link ServiceProvider}.
+     *
+     * @param client the underlying HTTP client
+     */
+    public CachingClient(final Client client) {
+        this(client, ServiceProvider.getCacheBuilder().build(DEFAULT_CACHE_SIZE, DEFAULT_CACHE_DURATION));
+    }
+
+    /**
+     * Create a caching HTTP client with a custom cache.
+     *
+     * <p>The cache eviction policy bounds how long an entry remains available for revalidation,
+     * independently of its freshness lifetime.
+     *
+     * @param client the underlying HTTP client
+     * @param cache the response cache
+     */
+    public CachingClient(final Client client, final ClientCache<String, Entry> cache) {
+        this(client, cache, DEFAULT_MAX_ENTRY_SIZE);
+    }
+
+    /**
+     * Create a caching HTTP client with a custom cache and a limit on the size of stored responses.
+     *
+     * @param client the underlying HTTP client
+     * @param cache the response cache
+     * @param maxEntrySize the maximum size, in bytes, of a stored response body
+     */
+    public CachingClient(final Client client, final ClientCache<String, Entry> cache, final long maxEntrySize) {
+        this(client, cache, "", Clock.systemUTC(), maxEntrySize);
+    }
+
+    CachingClient(final Client client, final ClientCache<String, Entry> cache, final String partition,
+            final Clock clock, final long maxEntrySize) {
+        this.client = Objects.requireNonNull(client, "Client may not be null!");
+        this.cache = Objects.requireNonNull(cache, "Cache may not be null!");
+        this.partition = Objects.requireNonNull(partition, "Partition may not be null!");
+        this.clock = Objects.requireNonNull(clock, "Clock may not be null!");
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    @Override
+    public CachingClient session(final Session session) {
+        return new CachingClient(client.session(session), cache, session.getId(), clock, maxEntrySize);
+    }
+
+    @Override
+    public <T> CompletionStage<Response<T>> send(final Request request,
+            final Response.BodyHandler<T> responseBodyHandler) {
+        if (!GET.equalsIgnoreCase(request.method())) {
+            if (!SAFE_METHODS.contains(request.method().toUpperCase(Locale.ROOT))) {
+                return client.send(request, responseBodyHandler)
+                    .whenComplete((res, err) -> invalidate(request.uri()));
+            }
+            return client.send(request, responseBodyHandler);
+        }
+
+        final Map<String, String> directives = cacheControl(request.headers());
+        if (directives.containsKey(NO_STORE) || !isCacheable(request)) {
+            return client.send(request, responseBodyHandler);
+        }
+
+        final String key = key(request.uri());
+        final Entry entry = cache.get(key);
+        if (entry == null || !entry.matches(request)) {
+            return fetch(key, request, null, responseBodyHandler);
+        }
+
+        if (!directives.containsKey(NO_CACHE)) {
+            final Instant now = clock.instant();
+            if (entry.isFresh(now)) {
+                LOGGER.debug("Serving cached response: {}", request.uri());
+                return CompletableFuture.completedFuture(entry.toResponse(responseBodyHandler));
+            }
+            if (entry.isWithinStaleWhileRevalidate(now)) {
+                LOGGER.debug("Serving stale cached response while revalidating: {}", request.uri());
+                revalidate(key, request, entry);
+                return CompletableFuture.completedFuture(entry.toResponse(responseBodyHandler));
+            }
+        }
+        return fetch(key, request, entry, responseBodyHandler);
+    }
+
+    <T> CompletionStage<Response<T>> fetch(final String key, final Request request, final Entry entry,
+            final Response.BodyHandler<T> responseBodyHandler) {
+        final Instant requested = clock.instant();
+        final Request req = entry != null ? entry.conditionalRequest(request) : request;
+        return client.send(req, exchange(request, entry, requested, responseBodyHandler))
+            .handle((res, err) -> {
+                if (err != null) {
+                    if (entry != null && entry.isWithinStaleIfError(clock.instant())) {
+                        LOGGER.debug("Serving stale cached response after error: {}", err.getMessage());
+                        return entry.toResponse(responseBodyHandler);
+                    }
+                    throw err instanceof CompletionException ? (CompletionException) err
+                        : new CompletionException(err);
+                }
+                return complete(key, entry, requested, res, responseBodyHandler);
+            });
+    }
+
+    <T> Response<T> complete(final String key, final Entry entry, final Instant requested,
+            final Response<Exchange<T>> response, final Response.BodyHandler<T> responseBodyHandler) {
+        final Exchange<T> exchange = response.body();
+        if (exchange.notModified) {
+            LOGGER.debug("Cached response revalidated: {}", response.uri());
+            final Entry updated = entry.revalidated(response.headers(), requested);
+            cache.put(key, updated);
+            return updated.toResponse(responseBodyHandler);
+        }
+        if (exchange.stale) {
+            LOGGER.debug("Serving stale cached response after status {}: {}", response.statusCode(),
+                    response.uri());
+            return entry.toResponse(responseBodyHandler);
+        }
+        if (exchange.entry != null) {
+            cache.put(key, exchange.entry);
+            return exchange.entry.toResponse(responseBodyHandler);
+        }
+        if (entry != null) {
+            cache.invalidate(key);
+        }
+        return new ClientResponse<>(response.uri(), response.statusCode(), response.headers(), exchange.body);
+    }
+
+    <T> Response.BodyHandler<Exchange<T>> exchange(final Request request, final Entry entry,
+            final Instant requested, final Response.BodyHandler<T> responseBodyHandler) {
+        return responseInfo -> {
+            final int status = responseInfo.statusCode();
+            if (status == NOT_MODIFIED && entry != null) {
+                return new Exchange<>(null, null, true, false);
+            }
+            if (status >= SERVER_ERROR && entry != null && entry.isWithinStaleIfError(clock.instant())) {
+                return new Exchange<>(null, null, false, true);
+            }
+            if (status == OK && isStorable(responseInfo.headers())
+                    && BufferedResponseInfo.fits(responseInfo, maxEntrySize)) {
+                final Entry stored = Entry.of(request, responseInfo, requested);
+                return new Exchange<>(stored, null, false, false);
+            }
+            return new Exchange<>(null, responseBodyHandler.apply(responseInfo), false, false);
+        };
+    }
+
+    void revalidate(final String key, final Request request, final Entry entry) {
+        // Only a single background revalidation per entry
+        if (entry.revalidating.compareAndSet(false, true)) {
+            fetch(key, request, entry, Response.BodyHandlers.discarding()).whenComplete((res, err) -> {
+                entry.revalidating.set(false);
+                if (err != null) {
+                    LOGGER.debug("Unable to revalidate cached response: {}", err.getMessage());
+                }
+            });
+        }
+    }
+
+    void invalidate(final URI uri) {
+        cache.invalidate(key(uri));
+        // Modifying a resource also changes the containment data of its parent container
+        final String path = uri.getPath();
+        if (path != null && !path.isEmpty() && !"/".equals(path)) {
+            cache.invalidate(key(uri.resolve(path.endsWith("/") ? ".." : ".")));
+        }
+    }
+
+    String key(final URI uri) {
+        return partition + " " + uri;
+    }
+
+    static boolean isCacheable(final Request request) {
+        for (final String header : CONDITIONAL_HEADERS) {
+            if (request.headers().firstValue(header).isPresent()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean isStorable(final Headers headers) {
+        final Map<String, String> directives = cacheControl(headers);
+        if (directives.containsKey(NO_STORE) || headers.allValues(VARY).stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .anyMatch(name -> "*".equals(name.trim()))) {
+            return false;
+        }
+        return headers.firstValue(ETAG).isPresent() || headers.firstValue(LAST_MODIFIED).isPresent()
+            || !DiscoveryCache.maxAge(headers, Duration.ZERO).isZero();
+    }
+
+    static Map<String, String> cacheControl(final Headers headers) {
+        final Map<String, String> directives = new HashMap<>();
+        for (final String value : headers.allValues(CACHE_CONTROL)) {
+            for (final String directive : value.split(",")) {
+                final String[] parts = directive.split("=", 2);
+                final String name = parts[0].trim().toLowerCase(Locale.ROOT);
+                if (!name.isEmpty()) {
+                    directives.put(name, parts.length > 1 ? parts[1].trim().replace("\"", "") : "");
+                }
+            }
+        }
+        return directives;
+    }
+
+    static long seconds(final String value) {
+        if (value != null) {
+            try {
+                return Math.max(0, Long.parseLong(value.trim()));
+            } catch (final NumberFormatException ex) {
+                LOGGER.debug("Ignoring invalid cache duration: {}", value);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * A cached HTTP response.
+     *
+     * <p>Entries are immutable, apart from internal revalidation bookkeeping.
+     */
+    public static final class Entry {
+
+        private final BufferedResponseInfo info;
+        private final Map<String, List<String>> vary;
+        private final Instant expires;
+        private final boolean noCache;
+        private final long staleWhileRevalidate;
+        private final long staleIfError;
+        private final AtomicBoolean revalidating = new AtomicBoolean();
+
+        Entry(final BufferedResponseInfo info, final Map<String, List<String>> vary, final Instant stored) {
+            this.info = info;
+            this.vary = vary;
+
+            final Map<String, String> directives = cacheControl(info.headers());
+            this.expires = stored.plus(DiscoveryCache.maxAge(info.headers(), Duration.ZERO));
+            this.noCache = directives.containsKey(NO_CACHE);
+            this.staleWhileRevalidate = seconds(directives.get(STALE_WHILE_REVALIDATE));
+            this.staleIfError = seconds(directives.get(STALE_IF_ERROR));
+        }
+
+        static Entry of(final Request request, final Response.ResponseInfo responseInfo, final Instant stored) {
+            // Record the request headers that were used to select this representation
+            final Map<String, List<String>> vary = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (final String value : responseInfo.headers().allValues(VARY)) {
+                for (final String name : value.split(",")) {
+                    if (!name.trim().isEmpty()) {
+                        vary.put(name.trim(), request.headers().allValues(name.trim()));
+                    }
+                }
+            }
+            return new Entry(BufferedResponseInfo.of(responseInfo), vary, stored);
+        }
+
+        boolean matches(final Request request) {
+            for (final Map.Entry<String, List<String>> header : vary.entrySet()) {
+                if (!header.getValue().equals(request.headers().allValues(header.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean isFresh(final Instant now) {
+            return !noCache && now.isBefore(expires);
+        }
+
+        boolean isWithinStaleWhileRevalidate(final Instant now) {
+            return !noCache && now.isBefore(expires.plusSeconds(staleWhileRevalidate));
+        }
+
+        boolean isWithinStaleIfError(final Instant now) {
+            return now.isBefore(expires.plusSeconds(staleIfError));
+        }
+
+        Request conditionalRequest(final Request request) {
+            final Request.Builder builder = Request.newBuilder()
+                .uri(request.uri())
+                .method(request.method(), Request.BodyPublishers.noBody());
+
+            request.timeout().ifPresent(builder::timeout);
+            request.headers().asMap().forEach((name, values) -> {
+                for (final String value : values) {
+                    builder.header(name, value);
+                }
+            });
+
+            info.headers().firstValue(ETAG).ifPresent(etag -> builder.setHeader(IF_NONE_MATCH, etag));
+            info.headers().firstValue(LAST_MODIFIED).ifPresent(date -> builder.setHeader(IF_MODIFIED_SINCE, date));
+            return builder.build();
+        }
+
+        Entry revalidated(final Headers updates, final Instant stored) {
+            // Update the stored headers with those from the 304 response
+            final NavigableMap<String, List<String>> merged = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            merged.putAll(info.headers().asMap());
+            updates.asMap().forEach((name, values) -> {
+                if (NOT_MODIFIED_EXCLUSIONS.stream().noneMatch(name::equalsIgnoreCase)) {
+                    merged.put(name, values);
+                }
+            });
+            return new Entry(info.withHeaders(Headers.of(merged)), vary, stored);
+        }
+
+        <T> Response<T> toResponse(final Response.BodyHandler<T> responseBodyHandler) {
+            return info.handle(responseBodyHandler);
+        }
+    }
+
+    static final class Exchange<T> implements AutoCloseable {
+
+        final Entry entry;
+        final T body;
+        final boolean notModified;
+        final boolean stale;
+
+        Exchange(final Entry entry, final T body, final boolean notModified, final boolean stale) {
+            this.entry = entry;
+            this.body = body;
+            this.notModified = notModified;
+            this.stale = stale;
+        }
+
+        @Override
+        public void close() throws Exception {
+            // Allow a superseded response to release any streaming body
+            if (body instanceof AutoCloseable) {
+                ((AutoCloseable) body).close();
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.core;
+
+import com.inrupt.client.ClientCache;
+import com.inrupt.client.Headers.Link;
+import com.inrupt.client.Headers.WacAllow;
+import com.inrupt.client.Headers.WwwAuthenticate;
+import com.inrupt.client.auth.Challenge;
+import com.inrupt.client.spi.HeaderParser;
+import com.inrupt.client.spi.ServiceProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A header parser that memoizes parsed values.
+ *
+ * <p>Solid servers tend to send the same {@code Link}, {@code WWW-Authenticate} and {@code WAC-Allow} values
+ * for many resources. This parser keeps the parsed form of each raw header value in a bounded
+ * {@link ClientCache}, so that repeated values are parsed only once. The parsed values are immutable and may be
+ * shared by any number of clients. When loaded through the {@link ServiceProvider}, a single instance is used
+ * for the entire application.
+ */
+public class CachingHeaderParser implements HeaderParser {
+
+    private static final int DEFAULT_CACHE_SIZE = 1000;
+    private static final Duration DEFAULT_CACHE_DURATION = Duration.ofMinutes(60);
+
+    private final HeaderParser parser;
+    private final ClientCache<String, List<Link>> linkCache;
+    private final ClientCache<String, WwwAuthenticate> wwwAuthenticateCache;
+    private final ClientCache<String, WacAllow> wacAllowCache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Create a memoizing header parser for the {@link DefaultHeaderParser}.
+     */
+    public CachingHeaderParser() {
+        this(new DefaultHeaderParser());
+    }
+
+    /**
+     * Create a memoizing header parser.
+     *
+     * @param parser the header parser
+     */
+    public CachingHeaderParser(final HeaderParser parser) {
+        this(parser, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Create a memoizing header parser with a custom cache size.
+     *
+     * @param parser the header parser
+     * @param maximumSize the maximum number of cached values for each header type
+     */
+    public CachingHeaderParser(final HeaderParser parser, final int maximumSize) {
+        this.parser = Objects.requireNonNull(parser, "Header parser may not be null!");
+        this.linkCache = ServiceProvider.getCacheBuilder().build(maximumSize, DEFAULT_CACHE_DURATION);
+        this.wwwAuthenticateCache = ServiceProvider.getCacheBuilder().build(maximumSize, DEFAULT_CACHE_DURATION);
+        this.wacAllowCache = ServiceProvider.getCacheBuilder().build(maximumSize, DEFAULT_CACHE_DURATION);
+    }
+
+    @Override
+    public List<Link> parseLink(final List<String> headers) {
+        Objects.requireNonNull(headers, "Header values may not be null!");
+        if (headers.size() == 1) {
+            return parseLink(headers.get(0));
+        }
+        final List<Link> links = new ArrayList<>();
+        for (final String header : headers) {
+            links.addAll(parseLink(header));
+        }
+        return Collections.unmodifiableList(links);
+    }
+
+    @Override
+    public WwwAuthenticate parseWwwAuthenticate(final List<String> headers) {
+        if (headers.size() == 1) {
+            return parseWwwAuthenticate(headers.get(0));
+        }
+        final List<Challenge> challenges = new ArrayList<>();
+        for (final String header : headers) {
+            challenges.addAll(parseWwwAuthenticate(header).getChallenges());
+        }
+        return WwwAuthenticate.of(challenges);
+    }
+
+    @Override
+    public WacAllow parseWacAllow(final List<String> headers) {
+        if (headers.size() == 1) {
+            return parseWacAllow(headers.get(0));
+        }
+        final Map<String, Set<String>> accessParams = new HashMap<>();
+        for (final String header : headers) {
+            parseWacAllow(header).getAccessParams().forEach((group, modes) ->
+                    accessParams.computeIfAbsent(group, k -> new HashSet<>()).addAll(modes));
+        }
+        return immutable(accessParams);
+    }
+
+    /**
+     * Get the number of header values that were served from the cache.
+     *
+     * @return the cache hit count
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Get the number of header values that were parsed.
+     *
+     * @return the cache miss count
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    List<Link> parseLink(final String header) {
+        final List<Link> cached = linkCache.get(header);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        final List<Link> links = Collections.unmodifiableList(
+                new ArrayList<>(parser.parseLink(Collections.singletonList(header))));
+        linkCache.put(header, links);
+        return links;
+    }
+
+    WwwAuthenticate parseWwwAuthenticate(final String header) {
+        final WwwAuthenticate cached = wwwAuthenticateCache.get(header);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        final WwwAuthenticate wwwAuthenticate = WwwAuthenticate.of(new ArrayList<>(parser
+                    .parseWwwAuthenticate(Collections.singletonList(header)).getChallenges()));
+        wwwAuthenticateCache.put(header, wwwAuthenticate);
+        return wwwAuthenticate;
+    }
+
+    WacAllow parseWacAllow(final String header) {
+        final WacAllow cached = wacAllowCache.get(header);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        final WacAllow wacAllow = immutable(parser.parseWacAllow(Collections.singletonList(header))
+                .getAccessParams());
+        wacAllowCache.put(header, wacAllow);
+        return wacAllow;
+    }
+
+    static WacAllow immutable(final Map<String, Set<String>> accessParams) {
+        final Map<String, Set<String>> copy = new HashMap<>();
+        accessParams.forEach((group, modes) -> copy.put(group, Collections.unmodifiableSet(new HashSet<>(modes))));
+        return WacAllow.of(copy);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.core;
+
+import com.inrupt.client.ClientCache;
+import com.inrupt.client.auth.Challenge;
+import com.inrupt.client.spi.ServiceProvider;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A cache of the authentication challenges that servers have issued, keyed by origin and container path.
+ *
+ * <p>A challenge learned for a container applies to all of its members and descendants, so that the
+ * nearest container with a learned challenge predicts how a new resource will respond.
+ */
+final class ChallengeCache {
+
+    private final ClientCache<URI, List<Challenge>> challenges;
+
+    ChallengeCache() {
+        this(ServiceProvider.getCacheBuilder().build(1000, Duration.ofMinutes(30)));
+    }
+
+    ChallengeCache(final ClientCache<URI, List<Challenge>> challenges) {
+        this.challenges = challenges;
+    }
+
+    /**
+     * Record the challenges issued for a resource.
+     *
+     * @param uri the resource URI
+     * @param learned the challenges from an unauthorized response
+     */
+    void learn(final URI uri, final List<Challenge> learned) {
+        final List<URI> containers = containers(uri);
+        if (!containers.isEmpty() && !learned.isEmpty()) {
+            challenges.put(containers.get(0), Collections.unmodifiableList(new ArrayList<>(learned)));
+        }
+    }
+
+    /**
+     * Predict the challenges that a server will issue for a resource.
+     *
+     * @param uri the resource URI
+     * @return the challenges learned for the nearest container, which may be empty
+     */
+    List<Challenge> predict(final URI uri) {
+        for (final URI container : containers(uri)) {
+            final List<Challenge> learned = challenges.get(container);
+            if (learned != null) {
+                return learned;
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /* The containers of a resource, nearest first, including the root container */
+    static List<URI> containers(final URI uri) {
+        final List<URI> parents = new ArrayList<>();
+        final String path = uri.getRawPath();
+        if (uri.isOpaque() || uri.getRawAuthority() == null) {
+            return parents;
+        }
+
+        final String origin = uri.getScheme() + "://" + uri.getRawAuthority();
+        if (path != null && !path.isEmpty()) {
+            int end = path.endsWith("/") ? path.length() - 1 : path.length();
+            int slash = path.lastIndexOf('/', end - 1);
+            while (slash > 0) {
+                parents.add(URI.create(origin + path.substring(0, slash + 1)));
+                end = slash;
+                slash = path.lastIndexOf('/', end - 1);
+            }
+        }
+        parents.add(URI.create(origin + "/"));
+        return parents;
+    }
+}
@@ -0,0 +1,425 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.core;
+
+import com.inrupt.client.Request;
+import com.inrupt.client.Response;
+import com.inrupt.client.spi.HttpService;
+
+import java.net.URI;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An adaptive, per-origin concurrency limiter for HTTP requests.
+ *
+ * <p>The limiter uses an additive-increase, multiplicative-decrease (AIMD) algorithm. Each origin starts
+ * with an initial concurrency limit, which grows while responses arrive promptly. The limit shrinks when a server
+ * responds with {@code 429 Too Many Requests} or {@code 503 Service Unavailable}, or when the time until the
+ * response headers arrive rises well above the lowest such latency recently observed for that origin. Requests
+ * in excess of the limit are queued, and a {@code Retry-After} response header pauses all requests to the origin
+ * until the indicated time.
+ *
+ * <p>A single limiter may be shared across several clients. Other components that send their own requests,
+ * such as an UMA client, can be limited by wrapping their {@link HttpService}:
+ *
+ * <pre>{@code
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.newBuilder().initialLimit(10).build();
+    UmaClient umaClient = new UmaClient(limiter.wrap(ServiceProvider.getHttpService()), 5);
+    ReactiveAuthorization auth = new ReactiveAuthorization(Arrays.asList(
+            new UmaAuthenticationProvider(50, umaClient), new OpenIdAuthenticationProvider()));
+    Client client = DefaultClient.newBuilder().concurrencyLimiter(limiter).authorization(auth).build();
+ * }</pre>
+ */
+public final class ConcurrencyLimiter {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVICE_UNAVAILABLE = 503;
+    private static final String RETRY_AFTER = "Retry-After";
+    private static final long BASELINE_WINDOW = TimeUnit.SECONDS.toNanos(30);
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrencyLimiter.class);
+
+    private final Map<String, Origin> origins = new ConcurrentHashMap<>();
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+
+    ConcurrencyLimiter(final int initialLimit, final int minLimit, final int maxLimit, final double backoffRatio,
+            final double latencyTolerance) {
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    /**
+     * Get the current concurrency limit for the origin of a URI.
+     *
+     * @param uri the URI
+     * @return the concurrency limit
+     */
+    public int getLimit(final URI uri) {
+        final Origin origin = origins.get(origin(uri));
+        return origin != null ? origin.getLimit() : initialLimit;
+    }
+
+    /**
+     * Acquire a permit to send a request to the origin of a URI.
+     *
+     * <p>The permit must be released once a response is received.
+     *
+     * @param uri the request URI
+     * @return the next stage of completion, containing the permit
+     */
+    CompletionStage<Permit> acquire(final URI uri) {
+        return origins.computeIfAbsent(origin(uri), Origin::new).acquire();
+    }
+
+    /**
+     * Apply this limiter to all requests sent by an HTTP service.
+     *
+     * @param service the HTTP service
+     * @return an HTTP service whose requests are subject to this limiter
+     */
+    public HttpService wrap(final HttpService service) {
+        return new HttpService() {
+            @Override
+            public <T> CompletionStage<Response<T>> send(final Request request,
+                    final Response.BodyHandler<T> responseBodyHandler) {
+                return ConcurrencyLimiter.this.send(service, request, responseBodyHandler);
+            }
+        };
+    }
+
+    <T> CompletionStage<Response<T>> send(final HttpService service, final Request request,
+            final Response.BodyHandler<T> responseBodyHandler) {
+        return acquire(request.uri()).thenCompose(permit -> {
+            try {
+                // Latency is measured until the response headers arrive, excluding the body transfer
+                return service.send(request, responseInfo -> {
+                    permit.received();
+                    return responseBodyHandler.apply(responseInfo);
+                }).whenComplete((res, err) -> permit.release(res));
+            } catch (final RuntimeException ex) {
+                permit.release(null);
+                throw ex;
+            }
+        });
+    }
+
+    static String origin(final URI uri) {
+        return uri.getScheme() + "://" + uri.getAuthority();
+    }
+
+    static Optional<Long> retryAfter(final Response<?> response, final long now) {
+        return response.headers().firstValue(RETRY_AFTER).flatMap(value -> {
+            try {
+                return Optional.of(TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim())));
+            } catch (final NumberFormatException ex) {
+                try {
+                    final long date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                        .toInstant().toEpochMilli();
+                    return Optional.of(date - now);
+                } catch (final DateTimeParseException e) {
+                    LOGGER.debug("Ignoring invalid Retry-After header: {}", value);
+                    return Optional.empty();
+                }
+            }
+        }).filter(delay -> delay > 0);
+    }
+
+    /**
+     * Create a new {@link ConcurrencyLimiter} builder.
+     *
+     * @return the builder
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * A permit to send a single request.
+     */
+    final class Permit {
+
+        private final Origin origin;
+        private final long started = System.nanoTime();
+        private long finished;
+        private boolean released;
+
+        Permit(final Origin origin) {
+            this.origin = origin;
+        }
+
+        /**
+         * Record the arrival of the response headers.
+         */
+        synchronized void received() {
+            if (finished == 0) {
+                finished = System.nanoTime();
+            }
+        }
+
+        /**
+         * Release the permit.
+         *
+         * @param response the response, may be {@code null} if the request failed
+         */
+        void release(final Response<?> response) {
+            final long latency;
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                latency = (finished != 0 ? finished : System.nanoTime()) - started;
+            }
+            origin.release(response, started, latency);
+        }
+    }
+
+    final class Origin {
+
+        private final String name;
+        private final Deque<CompletableFuture<Permit>> queue = new ArrayDeque<>();
+        private double limit = initialLimit;
+        private long windowStart;
+        private long windowMin = Long.MAX_VALUE;
+        private long previousMin = Long.MAX_VALUE;
+        private int inflight;
+        private long blockedUntil;
+        private long lastDecrease;
+
+        Origin(final String name) {
+            this.name = name;
+            this.lastDecrease = System.nanoTime();
+            this.windowStart = lastDecrease;
+        }
+
+        synchronized int getLimit() {
+            return (int) limit;
+        }
+
+        CompletionStage<Permit> acquire() {
+            final CompletableFuture<Permit> future = new CompletableFuture<>();
+            synchronized (this) {
+                queue.add(future);
+            }
+            dispatch();
+            return future;
+        }
+
+        void release(final Response<?> response, final long started, final long latency) {
+            synchronized (this) {
+                inflight--;
+                final int status = response != null ? response.statusCode() : 0;
+                if (status == TOO_MANY_REQUESTS || status == SERVICE_UNAVAILABLE) {
+                    decrease(started);
+                    final long now = System.currentTimeMillis();
+                    retryAfter(response, now).ifPresent(delay -> {
+                        LOGGER.debug("Pausing requests to {} for {} ms", name, delay);
+                        blockedUntil = Math.max(blockedUntil, now + delay);
+                        Scheduler.INSTANCE.schedule(this::dispatch, delay, TimeUnit.MILLISECONDS);
+                    });
+                } else if (response != null) {
+                    adjust(started, latency);
+                }
+            }
+            dispatch();
+        }
+
+        void adjust(final long started, final long latency) {
+            if (latency > baseline(latency, System.nanoTime()) * latencyTolerance) {
+                decrease(started);
+            } else if (inflight + 1 >= (int) limit) {
+                // Only grow the limit when it is actually being used
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+
+        long baseline(final long latency, final long now) {
+            // The baseline is the lowest latency over the current and previous windows,
+            // so that it follows a lasting change in server latency
+            if (now - windowStart >= BASELINE_WINDOW) {
+                previousMin = now - windowStart < 2 * BASELINE_WINDOW ? windowMin : Long.MAX_VALUE;
+                windowMin = Long.MAX_VALUE;
+                windowStart = now;
+            }
+            windowMin = Math.min(windowMin, latency);
+            return Math.min(previousMin, windowMin);
+        }
+
+        void decrease(final long started) {
+            // Back off at most once for the requests that were sent under the previous limit
+            if (started - lastDecrease >= 0) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecrease = System.nanoTime();
+                LOGGER.debug("Reduced concurrency limit for {} to {}", name, (int) limit);
+            }
+        }
+
+        void dispatch() {
+            final List<CompletableFuture<Permit>> ready = new ArrayList<>();
+            synchronized (this) {
+                if (System.currentTimeMillis() < blockedUntil) {
+                    return;
+                }
+                while (!queue.isEmpty() && inflight < (int) limit) {
+                    final CompletableFuture<Permit> next = queue.poll();
+                    if (!next.isDone()) {
+                        inflight++;
+                        ready.add(next);
+                    }
+                }
+            }
+            // Complete the futures outside of the lock, since dependent stages run synchronously
+            for (final CompletableFuture<Permit> future : ready) {
+                final Permit permit = new Permit(this);
+                if (!future.complete(permit)) {
+                    permit.release(null);
+                }
+            }
+        }
+    }
+
+    static final class Scheduler {
+        static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "inrupt-concurrency-limiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        private Scheduler() {
+            // Prevent instantiation
+        }
+    }
+
+    /**
+     * A builder for {@link ConcurrencyLimiter} objects.
+     */
+    public static final class Builder {
+
+        private int builderInitialLimit = 20;
+        private int builderMinLimit = 1;
+        private int builderMaxLimit = 200;
+        private double builderBackoffRatio = 0.5;
+        private double builderLatencyTolerance = 2.0;
+
+        /**
+         * Set the initial concurrency limit for each origin.
+         *
+         * @param initialLimit the initial limit, default 20
+         * @return this builder
+         */
+        public Builder initialLimit(final int initialLimit) {
+            builderInitialLimit = initialLimit;
+            return this;
+        }
+
+        /**
+         * Set the minimum concurrency limit for each origin.
+         *
+         * @param minLimit the minimum limit, default 1
+         * @return this builder
+         */
+        public Builder minLimit(final int minLimit) {
+            builderMinLimit = minLimit;
+            return this;
+        }
+
+        /**
+         * Set the maximum concurrency limit for each origin.
+         *
+         * @param maxLimit the maximum limit, default 200
+         * @return this builder
+         */
+        public Builder maxLimit(final int maxLimit) {
+            builderMaxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * Set the factor applied to the limit when an origin is overloaded.
+         *
+         * @param backoffRatio a ratio between 0 and 1, default 0.5
+         * @return this builder
+         */
+        public Builder backoffRatio(final double backoffRatio) {
+            builderBackoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * Set the latency increase, relative to the lowest observed latency, that is treated as overload.
+         *
+         * @param latencyTolerance a ratio greater than 1, default 2.0
+         * @return this builder
+         */
+        public Builder latencyTolerance(final double latencyTolerance) {
+            builderLatencyTolerance = latencyTolerance;
+            return this;
+        }
+
+        /**
+         * Build the {@link ConcurrencyLimiter}.
+         *
+         * @return the concurrency limiter
+         */
+        public ConcurrencyLimiter build() {
+            if (builderMinLimit < 1 || builderMaxLimit < builderMinLimit || builderInitialLimit < builderMinLimit
+                    || builderInitialLimit > builderMaxLimit) {
+                throw new IllegalArgumentException("Invalid concurrency limits: " + builderMinLimit + " <= "
+                        + builderInitialLimit + " <= " + builderMaxLimit);
+            }
+            if (builderBackoffRatio <= 0 || builderBackoffRatio >= 1) {
+                throw new IllegalArgumentException("Invalid backoff ratio: " + builderBackoffRatio);
+            }
+            if (builderLatencyTolerance <= 1) {
+                throw new IllegalArgumentException("Invalid latency tolerance: " + builderLatencyTolerance);
+            }
+            return new ConcurrencyLimiter(builderInitialLimit, builderMinLimit, builderMaxLimit,
+                    builderBackoffRatio, builderLatencyTolerance);
+        }
+
+        Builder() {
+            // Prevent direct instantiation
+        }
+    }
+}
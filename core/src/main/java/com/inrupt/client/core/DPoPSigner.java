@@ -0,0 +1,127 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.core;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.jose4j.lang.HashUtil.SHA_256;
+
+import java.net.URI;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.jose4j.base64url.Base64Url;
+import org.jose4j.jca.ProviderContext;
+import org.jose4j.json.JsonUtil;
+import org.jose4j.jwa.AlgorithmFactoryFactory;
+import org.jose4j.jwa.CryptoPrimitive;
+import org.jose4j.jwk.JsonWebKey;
+import org.jose4j.jwk.PublicJsonWebKey;
+import org.jose4j.jws.JsonWebSignatureAlgorithm;
+import org.jose4j.lang.JoseException;
+
+/**
+ * A DPoP proof generator for a single key pair.
+ *
+ * <p>The protected header, including the public JWK, is serialized and encoded once. Each proof only
+ * assembles the {@code jti}, {@code htm}, {@code htu} and {@code iat} claims and signs them. Prepared signature
+ * objects are kept in a small pool owned by the signer, so that they are released along with it.
+ */
+final class DPoPSigner {
+
+    private static final int POOL_SIZE = 4;
+
+    private final String algorithm;
+    private final String thumbprint;
+    private final String encodedHeader;
+    private final JsonWebSignatureAlgorithm jwsAlgorithm;
+    private final PrivateKey privateKey;
+    private final ProviderContext context = new ProviderContext();
+    private final BlockingQueue<CryptoPrimitive> primitives = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    DPoPSigner(final String algorithm, final KeyPair keypair) throws JoseException {
+        this.algorithm = algorithm;
+        this.jwsAlgorithm = AlgorithmFactoryFactory.getInstance().getJwsAlgorithmFactory().getAlgorithm(algorithm);
+        this.jwsAlgorithm.validateSigningKey(keypair.getPrivate());
+        this.privateKey = keypair.getPrivate();
+
+        final PublicJsonWebKey jwk = PublicJsonWebKey.Factory.newPublicJwk(keypair.getPublic());
+        this.thumbprint = jwk.calculateBase64urlEncodedThumbprint(SHA_256);
+
+        final Map<String, Object> header = new LinkedHashMap<>();
+        header.put("alg", algorithm);
+        header.put("typ", "dpop+jwt");
+        header.put("jwk", jwk.toParams(JsonWebKey.OutputControlLevel.PUBLIC_ONLY));
+        this.encodedHeader = Base64Url.encode(JsonUtil.toJson(header), UTF_8.name());
+    }
+
+    String getAlgorithm() {
+        return algorithm;
+    }
+
+    String getThumbprint() {
+        return thumbprint;
+    }
+
+    String sign(final String htm, final URI htu) {
+        final StringBuilder payload = new StringBuilder(128).append("{\"jti\":\"").append(UUID.randomUUID())
+            .append("\",\"htm\":");
+        appendJsonString(payload, htm);
+        payload.append(",\"htu\":");
+        appendJsonString(payload, htu.toString());
+        payload.append(",\"iat\":").append(System.currentTimeMillis() / 1000).append('}');
+
+        final String signingInput = encodedHeader + "." + Base64Url.encode(payload.toString(), UTF_8.name());
+        try {
+            // A prepared signature is stateful, but may be reused once signing completes
+            CryptoPrimitive primitive = primitives.poll();
+            if (primitive == null) {
+                primitive = jwsAlgorithm.prepareForSign(privateKey, context);
+            }
+            final byte[] signature = jwsAlgorithm.sign(primitive, signingInput.getBytes(US_ASCII));
+            // A signature object left in an unknown state by a failure is not returned to the pool
+            primitives.offer(primitive);
+            return signingInput + "." + Base64Url.encode(signature);
+        } catch (final JoseException ex) {
+            throw new AuthenticationException("Unable to generate DPoP proof", ex);
+        }
+    }
+
+    static void appendJsonString(final StringBuilder builder, final String value) {
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        builder.append('"');
+    }
+}
@@ -22,6 +22,7 @@ package com.inrupt.client.core;
 
 import com.inrupt.client.Client;
 import com.inrupt.client.Headers.WwwAuthenticate;
+import com.inrupt.client.InruptClientException;
 import com.inrupt.client.Request;
 import com.inrupt.client.Response;
 import com.inrupt.client.auth.Challenge;
@@ -31,10 +32,20 @@ import com.inrupt.client.auth.Session;
 import com.inrupt.client.spi.HttpService;
 import com.inrupt.client.spi.ServiceProvider;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,62 +56,298 @@ import org.slf4j.LoggerFactory;
 public final class DefaultClient implements Client {
 
     private static final int UNAUTHORIZED = 401;
+    private static final long COALESCE_LIMIT = 1024 * 1024;
     private static final String AUTHORIZATION = "Authorization";
+    private static final String BEARER = "Bearer";
     private static final String DPOP = "DPoP";
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultClient.class);
 
-    private final ReactiveAuthorization authHandler = new ReactiveAuthorization();
+    private static final List<String> COALESCED_METHODS = Arrays.asList("GET", "HEAD");
+
+    private final ReactiveAuthorization authHandler;
     private final HttpService httpClient;
     private final Session clientSession;
+    private final Map<String, Flight> inflight;
+    private final ConcurrencyLimiter limiter;
+    private final ChallengeCache challengeCache;
+    private final Set<Credential> unsafeTokens;
 
     DefaultClient(final HttpService httpClient) {
         this(httpClient, Session.anonymous());
     }
 
     DefaultClient(final HttpService httpClient, final Session session) {
+        this(httpClient, session, new ConcurrentHashMap<>(), null, ReactiveAuthorization.getDefault(),
+                new ChallengeCache(), tokenRegistry());
+    }
+
+    DefaultClient(final HttpService httpClient, final Session session, final Map<String, Flight> inflight,
+            final ConcurrencyLimiter limiter, final ReactiveAuthorization authHandler,
+            final ChallengeCache challengeCache, final Set<Credential> unsafeTokens) {
         Objects.requireNonNull(httpClient, "Http client may not be null!");
         Objects.requireNonNull(session, "Session may not be null!");
+        Objects.requireNonNull(authHandler, "Authorization handler may not be null!");
+        this.authHandler = authHandler;
         this.httpClient = httpClient;
         this.clientSession = session;
+        this.inflight = inflight;
+        this.limiter = limiter;
+        this.challengeCache = challengeCache;
+        this.unsafeTokens = unsafeTokens;
     }
 
     @Override
     public Client session(final Session session) {
-        return new DefaultClient(this.httpClient, session);
+        return new DefaultClient(this.httpClient, session, this.inflight, this.limiter, this.authHandler,
+                this.challengeCache, this.unsafeTokens);
     }
 
     @Override
     public <T> CompletionStage<Response<T>> send(final Request request,
             final Response.BodyHandler<T> responseBodyHandler) {
+        if (!COALESCED_METHODS.contains(request.method())) {
+            return authorize(request, responseBodyHandler);
+        }
+
+        // Concurrent identical requests share a single in-flight exchange
+        final String key = key(request);
+        final Flight flight = new Flight();
+        final Flight existing = inflight.putIfAbsent(key, flight);
+        if (existing != null) {
+            if (existing.join()) {
+                LOGGER.debug("Joining in-flight request: {}", request.uri());
+                // A response that could not be shared is requested separately
+                return existing.shared.thenCompose(info -> info != null
+                        ? CompletableFuture.completedFuture(info.handle(responseBodyHandler))
+                        : authorize(request, responseBodyHandler));
+            }
+            return authorize(request, responseBodyHandler);
+        }
+
+        return authorize(request, coalescing(key, flight, responseBodyHandler))
+            .handle((res, err) -> {
+                inflight.remove(key, flight);
+                if (err != null) {
+                    flight.shared.completeExceptionally(err);
+                    throw err instanceof CompletionException ? (CompletionException) err
+                        : new CompletionException(err);
+                }
+
+                final Coalesced<T> coalesced = res.body();
+                if (coalesced.info != null) {
+                    flight.shared.complete(coalesced.info);
+                    return coalesced.info.handle(responseBodyHandler);
+                }
+                flight.shared.complete(null);
+                return new ClientResponse<>(res.uri(), res.statusCode(), res.headers(), coalesced.body);
+            });
+    }
+
+    <T> Response.BodyHandler<Coalesced<T>> coalescing(final String key, final Flight flight,
+            final Response.BodyHandler<T> responseBodyHandler) {
+        return responseInfo -> {
+            // An unauthorized response is usually followed by an authenticated retry, so it is
+            // buffered. Otherwise, without any waiting requests, the body is handled directly.
+            // A body of unknown or large size is never buffered for sharing, so any waiting requests
+            // are released right away to send their own request.
+            if (!shareable(responseInfo)) {
+                flight.close();
+                inflight.remove(key, flight);
+                flight.shared.complete(null);
+                return new Coalesced<>(responseBodyHandler.apply(responseInfo), null);
+            }
+            if (responseInfo.statusCode() != UNAUTHORIZED && flight.seal()) {
+                inflight.remove(key, flight);
+                return new Coalesced<>(responseBodyHandler.apply(responseInfo), null);
+            }
+            return new Coalesced<>(null, BufferedResponseInfo.of(responseInfo));
+        };
+    }
+
+    static boolean shareable(final Response.ResponseInfo responseInfo) {
+        return BufferedResponseInfo.fits(responseInfo, COALESCE_LIMIT);
+    }
+
+    String key(final Request request) {
+        final StringBuilder key = new StringBuilder(clientSession.getId()).append('\n')
+            .append(request.method()).append(' ').append(request.uri());
+        request.headers().asMap().forEach((name, values) ->
+                key.append('\n').append(name.toLowerCase(Locale.ROOT)).append(": ").append(values));
+        return key.toString();
+    }
+
+    <T> CompletionStage<Response<T>> authorize(final Request request,
+            final Response.BodyHandler<T> responseBodyHandler) {
         // if there is already an auth header, just pass the request directly through
         if (request.headers().firstValue(AUTHORIZATION).isPresent()) {
             LOGGER.debug("Sending user-supplied authorization, skipping Solid authorization handling");
-            return httpClient.send(request, responseBodyHandler);
+            return dispatch(request, responseBodyHandler);
         }
 
         // Check session cache for a relevant access token
         return clientSession.fromCache(request)
-            // Use that token, if present
-            .map(token -> httpClient.send(upgradeRequest(request, token), responseBodyHandler))
-            // Otherwise perform the regular HTTP authorization dance
-            .orElseGet(() -> httpClient.send(request, responseBodyHandler)
-                .thenCompose(res -> {
-                    if (res.statusCode() == UNAUTHORIZED) {
-                        final List<Challenge> challenges = WwwAuthenticate
-                            .parse(res.headers().allValues("WWW-Authenticate").toArray(new String[0]))
-                            .getChallenges();
-
-                        return authHandler.negotiate(clientSession, request, challenges)
-                            .thenCompose(token -> token.map(t ->
-                                        httpClient.send(upgradeRequest(request, t), responseBodyHandler))
-                                    .orElseGet(() -> CompletableFuture.completedFuture(res)))
-                            .exceptionally(err -> {
-                                LOGGER.debug("Unable to negotiate an authentication token: {}", err.getMessage());
-                                return res;
-                            });
-                    }
-                    return CompletableFuture.completedFuture(res);
-                }));
+            // Use that token, if present, renewing it in the background once it is due. Renewal probes the
+            // resource with a safe method, so a token negotiated for an unsafe method is left to expire instead.
+            .map(token -> {
+                if (!unsafeTokens.contains(token) && clientSession.requiresRenewal(request)) {
+                    renew(request);
+                }
+                return dispatch(upgradeRequest(request, token), responseBodyHandler)
+                    .thenCompose(res -> {
+                        if (res.statusCode() == UNAUTHORIZED) {
+                            // The cached token does not cover this resource, so negotiate a new one
+                            clientSession.rejectCredential(request, token);
+                            return negotiate(request, res, responseBodyHandler);
+                        }
+                        return CompletableFuture.completedFuture(res);
+                    });
+            })
+            // Otherwise authenticate up front, if the server is known to require it
+            .orElseGet(() -> preauthorize(request, responseBodyHandler));
+    }
+
+    <T> CompletionStage<Response<T>> preauthorize(final Request request,
+            final Response.BodyHandler<T> responseBodyHandler) {
+        // Bearer and DPoP challenges carry no per-request state, so they can be answered directly.
+        // Other challenges, such as a UMA ticket, are single-use and scoped to the method of the request,
+        // so they are only answered once the request itself has been challenged.
+        final List<Challenge> predicted = challengeCache.predict(request.uri()).stream()
+            .filter(DefaultClient::isReusable)
+            .filter(challenge -> clientSession.supportedSchemes().contains(challenge.getScheme()))
+            .collect(Collectors.toList());
+        if (!predicted.isEmpty()) {
+            LOGGER.debug("Authenticating with a learned challenge: {}", request.uri());
+            return authenticate(request, predicted, responseBodyHandler);
+        }
+
+        // A single-use request body could not be resent after an authorization challenge. If the session can
+        // answer that challenge, the body is buffered. Otherwise, as with repeatable bodies, it is streamed.
+        if (clientSession.hasCredentials()) {
+            try {
+                request.bodyPublisher().filter(publisher -> !publisher.isRepeatable())
+                    .ifPresent(Request.BodyPublisher::getBytes);
+            } catch (final RuntimeException ex) {
+                return failed(ex);
+            }
+        }
+        return unauthenticated(request, responseBodyHandler);
+    }
+
+    <T> CompletionStage<Response<T>> unauthenticated(final Request request,
+            final Response.BodyHandler<T> responseBodyHandler) {
+        // Perform the regular HTTP authorization dance
+        return dispatch(request, responseBodyHandler)
+            .thenCompose(res -> {
+                if (res.statusCode() == UNAUTHORIZED) {
+                    return negotiate(request, res, responseBodyHandler);
+                }
+                return CompletableFuture.completedFuture(res);
+            });
+    }
+
+    <T> CompletionStage<Response<T>> authenticate(final Request request, final List<Challenge> challenges,
+            final Response.BodyHandler<T> responseBodyHandler) {
+        return authHandler.negotiate(clientSession, request, challenges)
+            .exceptionally(err -> {
+                LOGGER.debug("Unable to negotiate an authentication token: {}", err.getMessage());
+                return Optional.empty();
+            })
+            .thenApply(token -> token.map(t -> track(request, challenges, t)))
+            .thenCompose(token -> token.map(t -> dispatch(upgradeRequest(request, t), responseBodyHandler)
+                        .thenCompose(res -> {
+                            if (res.statusCode() == UNAUTHORIZED) {
+                                // The prediction was wrong, so fall back to the current challenge
+                                clientSession.rejectCredential(request, t);
+                                return negotiate(request, res, responseBodyHandler);
+                            }
+                            return CompletableFuture.completedFuture(res);
+                        }))
+                    .orElseGet(() -> unauthenticated(request, responseBodyHandler)));
+    }
+
+    static boolean isReusable(final Challenge challenge) {
+        return BEARER.equalsIgnoreCase(challenge.getScheme()) || DPOP.equalsIgnoreCase(challenge.getScheme());
+    }
+
+    <T> CompletionStage<Response<T>> negotiate(final Request request, final Response<T> unauthorized,
+            final Response.BodyHandler<T> responseBodyHandler) {
+        final List<Challenge> challenges = challenges(unauthorized);
+        challengeCache.learn(request.uri(), challenges);
+        return authHandler.negotiate(clientSession, request, challenges)
+            .thenApply(token -> token.map(t -> track(request, challenges, t)))
+            .exceptionally(err -> {
+                LOGGER.debug("Unable to negotiate an authentication token: {}", err.getMessage());
+                return Optional.empty();
+            })
+            .thenCompose(token -> token.map(t -> retry(request, t, unauthorized, responseBodyHandler))
+                    .orElseGet(() -> CompletableFuture.completedFuture(unauthorized)));
+    }
+
+    <T> CompletionStage<Response<T>> retry(final Request request, final Credential token,
+            final Response<T> unauthorized, final Response.BodyHandler<T> responseBodyHandler) {
+        // The unauthorized response is superseded
+        release(unauthorized);
+
+        // A streamed body that was too large to retain cannot be sent a second time
+        if (request.bodyPublisher().filter(publisher -> !publisher.isRepeatable()).isPresent()) {
+            return failed(new InruptClientException("The request body is not repeatable, so the request cannot "
+                        + "be resent with authorization: " + request.uri()));
+        }
+        return dispatch(upgradeRequest(request, token), responseBodyHandler);
+    }
+
+    void renew(final Request request) {
+        // An unauthenticated probe yields a fresh challenge, from which a replacement token is negotiated.
+        // The session caches the new token, while the current token remains in use until then.
+        LOGGER.debug("Renewing access token ahead of its expiration: {}", request.uri());
+        final Request probe = Request.newBuilder(request.uri()).HEAD().build();
+        dispatch(probe, Response.BodyHandlers.discarding())
+            .thenCompose(res -> {
+                if (res.statusCode() == UNAUTHORIZED) {
+                    final List<Challenge> challenges = challenges(res);
+                    challengeCache.learn(request.uri(), challenges);
+                    return authHandler.negotiate(clientSession, probe, challenges);
+                }
+                return CompletableFuture.completedFuture(Optional.<Credential>empty());
+            })
+            .whenComplete((token, err) -> {
+                if (err != null) {
+                    LOGGER.debug("Unable to renew access token: {}", err.getMessage());
+                }
+            });
+    }
+
+    Credential track(final Request request, final List<Challenge> challenges, final Credential token) {
+        // Tokens for single-use challenges, such as a UMA ticket, are scoped to the method of the request
+        if (!COALESCED_METHODS.contains(request.method()) && !challenges.stream().allMatch(DefaultClient::isReusable)) {
+            unsafeTokens.add(token);
+        }
+        return token;
+    }
+
+    static Set<Credential> tokenRegistry() {
+        // Tokens are held weakly, so that they are released along with the session caches
+        return Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    }
+
+    static <T> CompletionStage<T> failed(final Throwable error) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(error);
+        return future;
+    }
+
+    static List<Challenge> challenges(final Response<?> response) {
+        return WwwAuthenticate.parse(response.headers().allValues("WWW-Authenticate").toArray(new String[0]))
+            .getChallenges();
+    }
+
+    <T> CompletionStage<Response<T>> dispatch(final Request request,
+            final Response.BodyHandler<T> responseBodyHandler) {
+        if (limiter == null) {
+            return httpClient.send(request, responseBodyHandler);
+        }
+
+        return limiter.send(httpClient, request, responseBodyHandler);
     }
 
     Request upgradeRequest(final Request request, final Credential token) {
@@ -126,7 +373,70 @@ public final class DefaultClient implements Client {
         return builder.build();
     }
 
-    public static Client.Builder newBuilder() {
+    static void release(final Response<?> response) {
+        // Streaming response bodies hold on to network resources until closed
+        if (response.body() instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) response.body()).close();
+            } catch (final Exception ex) {
+                LOGGER.debug("Unable to release response body: {}", ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A shared in-flight request.
+     */
+    static final class Flight {
+
+        final CompletableFuture<BufferedResponseInfo> shared = new CompletableFuture<>();
+        private int waiters;
+        private boolean sealed;
+
+        synchronized boolean join() {
+            if (sealed) {
+                return false;
+            }
+            waiters++;
+            return true;
+        }
+
+        synchronized boolean seal() {
+            if (waiters == 0) {
+                sealed = true;
+            }
+            return sealed;
+        }
+
+        synchronized void close() {
+            sealed = true;
+        }
+    }
+
+    static final class Coalesced<T> implements AutoCloseable {
+
+        final T body;
+        final BufferedResponseInfo info;
+
+        Coalesced(final T body, final BufferedResponseInfo info) {
+            this.body = body;
+            this.info = info;
+        }
+
+        @Override
+        public void close() throws Exception {
+            if (body instanceof AutoCloseable) {
+                ((AutoCloseable) body).close();
+            }
+        }
+    }
+
+    /**
+     * Create a new builder for the default client.
+     *
+     * @return the builder
+     */
+    public static Builder newBuilder() {
         return new Builder();
     }
 
@@ -136,19 +446,50 @@ public final class DefaultClient implements Client {
     public static class Builder implements Client.Builder {
 
         private HttpService instance;
+        private ConcurrencyLimiter limiter;
+        private ReactiveAuthorization authorization;
 
         @Override
-        public Client.Builder withInstance(final HttpService instance) {
+        public Builder withInstance(final HttpService instance) {
             this.instance = instance;
             return this;
         }
 
+        /**
+         * Limit the number of concurrent requests to each origin.
+         *
+         * <p>Authentication providers that send their own requests, such as UMA, are limited only when their
+         * HTTP service is wrapped with {@link ConcurrencyLimiter#wrap}.
+         *
+         * @param limiter the concurrency limiter, which may be shared with other clients
+         * @return this builder
+         */
+        public Builder concurrencyLimiter(final ConcurrencyLimiter limiter) {
+            this.limiter = limiter;
+            return this;
+        }
+
+        /**
+         * Use a custom authorization handler.
+         *
+         * <p>By default, clients share a single handler whose authentication providers are loaded once via
+         * the {@link java.util.ServiceLoader}. The handler is retained by any sessions derived from the client.
+         *
+         * @param authorization the authorization handler
+         * @return this builder
+         */
+        public Builder authorization(final ReactiveAuthorization authorization) {
+            this.authorization = authorization;
+            return this;
+        }
+
         @Override
         public Client build() {
-            if (instance == null) {
-                return new DefaultClient(ServiceProvider.getHttpService());
-            }
-            return new DefaultClient(instance);
+            final HttpService service = instance != null ? instance : ServiceProvider.getHttpService();
+            final ReactiveAuthorization auth = authorization != null ? authorization
+                : ReactiveAuthorization.getDefault();
+            return new DefaultClient(service, Session.anonymous(), new ConcurrentHashMap<>(), limiter, auth,
+                    new ChallengeCache(), tokenRegistry());
         }
     }
 }
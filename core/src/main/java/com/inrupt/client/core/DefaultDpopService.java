@@ -20,28 +20,24 @@
  */
 package com.inrupt.client.core;
 
-import static org.jose4j.jwx.HeaderParameterNames.TYPE;
-import static org.jose4j.lang.HashUtil.SHA_256;
-
+import com.inrupt.client.ClientCache;
 import com.inrupt.client.auth.DPoP;
 import com.inrupt.client.spi.DpopService;
+import com.inrupt.client.spi.ServiceProvider;
 
 import java.net.URI;
 import java.security.KeyPair;
 import java.security.spec.ECParameterSpec;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.UUID;
 
-import org.jose4j.jwk.PublicJsonWebKey;
-import org.jose4j.jws.JsonWebSignature;
-import org.jose4j.jwt.JwtClaims;
 import org.jose4j.keys.EcKeyUtil;
-import org.jose4j.keys.EllipticCurves;
 import org.jose4j.lang.JoseException;
 
 /**
@@ -51,13 +47,33 @@ import org.jose4j.lang.JoseException;
  */
 public class DefaultDpopService implements DpopService {
 
+    private final ClientCache<String, DPoP> shared = ServiceProvider.getCacheBuilder()
+        .build(100, Duration.ofHours(24));
+
     @Override
     public DPoP ofKeyPairs(final Map<String, KeyPair> keypairs) {
         return new DPoPManager(keypairs);
     }
 
+    @Override
+    public DPoP ofClient(final URI issuer, final String clientId) {
+        // The same client identifier may be registered with different issuers
+        final String key = String.join(" ", Objects.requireNonNull(issuer, "Issuer may not be null!").toString(),
+                Objects.requireNonNull(clientId, "Client id may not be null!"));
+        synchronized (shared) {
+            final DPoP cached = shared.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            final DPoP created = new DPoPManager(Collections.emptyMap());
+            shared.put(key, created);
+            return created;
+        }
+    }
+
     public class DPoPManager implements DPoP {
         private final Map<String, KeyPair> keypairs = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private final Map<String, DPoPSigner> signers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
         private final Map<String, String> thumbprints = new HashMap<>();
 
         public DPoPManager(final Map<String, KeyPair> keypairs) {
@@ -65,14 +81,14 @@ public class DefaultDpopService implements DpopService {
             try {
                 this.keypairs.putAll(keypairs);
                 if (this.keypairs.isEmpty()) {
-                    this.keypairs.put("ES256", defaultKeyPair(EllipticCurves.P256));
+                    this.keypairs.put("ES256", KeyPairPool.getDefault().take());
                 }
 
-                // Populate the thumbprints
+                // Prepare the signers and populate the thumbprints
                 for (final Map.Entry<String, KeyPair> item : this.keypairs.entrySet()) {
-                    final PublicJsonWebKey jwk = PublicJsonWebKey.Factory.newPublicJwk(item.getValue().getPublic());
-                    final String jkt = jwk.calculateBase64urlEncodedThumbprint(SHA_256);
-                    this.thumbprints.put(jkt, item.getKey());
+                    final DPoPSigner signer = new DPoPSigner(item.getKey(), item.getValue());
+                    this.signers.put(item.getKey(), signer);
+                    this.thumbprints.put(signer.getThumbprint(), item.getKey());
                 }
             } catch (final JoseException ex) {
                 throw new AuthenticationException("Unable to process provided keypair", ex);
@@ -98,33 +114,12 @@ public class DefaultDpopService implements DpopService {
 
         @Override
         public String generateProof(final String algorithm, final URI uri, final String method) {
-            final KeyPair keypair = keypairs.get(Objects.requireNonNull(algorithm));
-            if (keypair == null) {
+            final DPoPSigner signer = signers.get(Objects.requireNonNull(algorithm));
+            if (signer == null) {
                 throw new AuthenticationException("Unsupported DPoP algorithm: " + algorithm);
             }
 
-            final String htm = Objects.requireNonNull(method);
-            final URI htu = Objects.requireNonNull(uri);
-
-            try {
-                final PublicJsonWebKey jwk = PublicJsonWebKey.Factory.newPublicJwk(keypair.getPublic());
-                final JsonWebSignature jws = new JsonWebSignature();
-                jws.setAlgorithmHeaderValue(algorithm);
-                jws.setHeader(TYPE, "dpop+jwt");
-                jws.setJwkHeader(jwk);
-                jws.setKey(keypair.getPrivate());
-
-                final JwtClaims claims = new JwtClaims();
-                claims.setJwtId(UUID.randomUUID().toString());
-                claims.setStringClaim("htm", htm);
-                claims.setStringClaim("htu", htu.toString());
-                claims.setIssuedAtToNow();
-                jws.setPayload(claims.toJson());
-
-                return jws.getCompactSerialization();
-            } catch (final JoseException ex) {
-                throw new AuthenticationException("Unable to generate DPoP proof", ex);
-            }
+            return signer.sign(Objects.requireNonNull(method), Objects.requireNonNull(uri));
         }
 
         @Override
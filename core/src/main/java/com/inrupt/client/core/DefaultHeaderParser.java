@@ -24,21 +24,10 @@ import com.inrupt.client.Headers.Link;
 import com.inrupt.client.Headers.WacAllow;
 import com.inrupt.client.Headers.WwwAuthenticate;
 import com.inrupt.client.auth.Challenge;
-import com.inrupt.client.parser.ConsumerErrorListener;
-import com.inrupt.client.parser.LinkBaseListener;
-import com.inrupt.client.parser.LinkLexer;
-import com.inrupt.client.parser.LinkParser;
-import com.inrupt.client.parser.WacAllowBaseListener;
-import com.inrupt.client.parser.WacAllowLexer;
-import com.inrupt.client.parser.WacAllowParser;
-import com.inrupt.client.parser.WwwAuthenticateBaseListener;
-import com.inrupt.client.parser.WwwAuthenticateLexer;
-import com.inrupt.client.parser.WwwAuthenticateParser;
 import com.inrupt.client.spi.HeaderParser;
 
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -46,344 +35,420 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
-import org.antlr.v4.runtime.ANTLRErrorListener;
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
-import org.antlr.v4.runtime.tree.ParseTreeWalker;
-import org.antlr.v4.runtime.tree.TerminalNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-
 /**
  * A default header parser.
+ *
+ * <p>Each header is read by a single-pass scanner. The ANTLR grammars in the {@code inrupt-client-parser} module
+ * describe the supported syntax and serve as the reference for conformance tests.
  */
 public class DefaultHeaderParser implements HeaderParser {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultHeaderParser.class);
+
     @Override
     public List<Link> parseLink(final List<String> headers) {
         Objects.requireNonNull(headers, "Header values may not be null!");
-        final LinkHeaderParser parser = new LinkHeaderParser();
         final List<Link> links = new ArrayList<>();
         for (final String header : headers) {
-            links.addAll(parser.parse(header));
+            new LinkScanner(header).parse(links);
         }
         return links;
     }
 
     @Override
     public WwwAuthenticate parseWwwAuthenticate(final List<String> headers) {
-        final WwwAuthenticateHeaderParser parser = new WwwAuthenticateHeaderParser();
         final List<Challenge> challenges = new ArrayList<>();
         for (final String header : headers) {
-            challenges.addAll(parser.parse(header));
+            new WwwAuthenticateScanner(header).parse(challenges);
         }
         return WwwAuthenticate.of(challenges);
     }
 
     @Override
     public WacAllow parseWacAllow(final List<String> headers) {
-        final WacAllowHeaderParser parser = new WacAllowHeaderParser();
         final Map<String, Set<String>> accessParams = new HashMap<>();
-
         for (final String header : headers) {
-            final Map<String, Set<String>> accessParamEntry = parser.parse(header);
-
-            for (Map.Entry<String, Set<String>> entry : accessParamEntry.entrySet()) {
-                accessParams.computeIfAbsent(entry.getKey(), k -> new HashSet<>())
-                            .addAll(entry.getValue());
-            }
+            new WacAllowScanner(header).parse(accessParams);
         }
         return WacAllow.of(accessParams);
     }
 
-    static final class Util {
-        static final int PAIR = 2;
-        static final String DQUOTE = "\"";
-        static final String EQUALS = "=";
-        static final String WS = " ";
+    /**
+     * Character classes and cursor operations shared by the header scanners.
+     */
+    abstract static class Scanner {
+        static final char DQUOTE = '"';
+        static final char COMMA = ',';
+        static final char SEMICOLON = ';';
+        static final char EQUALS = '=';
+        static final char BACKSLASH = '\\';
+
+        final String header;
+        final int length;
+        int pos;
+
+        Scanner(final String header) {
+            this.header = header;
+            this.length = header.length();
+        }
 
-        static String unwrap(final String value, final String character) {
-            if (value.startsWith(character) && value.endsWith(character)) {
-                return value.substring(1, value.length() - 1);
-            }
-            return value;
+        boolean atEnd() {
+            return pos >= length;
         }
 
-        private Util() {
-            // Prevent instantiation
+        char current() {
+            return header.charAt(pos);
         }
-    }
 
-    static final class LinkHeaderParser {
-        private static final Logger LOGGER = LoggerFactory.getLogger(LinkHeaderParser.class);
+        boolean at(final char c) {
+            return pos < length && header.charAt(pos) == c;
+        }
 
-        private final ANTLRErrorListener errorListener;
+        void skipWhitespace() {
+            while (pos < length && isWhitespace(header.charAt(pos))) {
+                pos++;
+            }
+        }
 
         /**
-         * Create a parser with a default error handler.
+         * Advance past a token, returning the start position.
          */
-        public LinkHeaderParser() {
-            this(new ConsumerErrorListener(msg -> LOGGER.debug("Header parse error: {}", msg)));
+        int token() {
+            final int start = pos;
+            while (pos < length && isTchar(header.charAt(pos))) {
+                pos++;
+            }
+            return start;
         }
 
         /**
-         * Create a parser with a custom error handler.
-         *
-         * @param errorListener the error handler
+         * Advance past a quoted string, returning the end position of its content, or -1 if it is unterminated.
          */
-        public LinkHeaderParser(final ANTLRErrorListener errorListener) {
-            this.errorListener = errorListener;
+        int quotedString() {
+            pos++;
+            while (pos < length) {
+                final char c = header.charAt(pos);
+                if (c == DQUOTE) {
+                    return pos++;
+                } else if (c == BACKSLASH && pos + 1 < length && isQuotedPair(header.charAt(pos + 1))) {
+                    pos += 2;
+                } else if (isQdtext(c)) {
+                    pos++;
+                } else {
+                    return -1;
+                }
+            }
+            return -1;
         }
 
-
         /**
-         * Parse a link header.
+         * Read a parameter of the form {@code token "=" ( token / quoted-string )}.
+         *
+         * <p>Quoted values are unwrapped, but escape sequences are retained.
          *
-         * @param header the link header string
-         * @return a list of links
+         * @param params the destination for a valid parameter
+         * @return false if the parameter is malformed
          */
-        public List<Link> parse(final String header) {
-            final LinkLexer lexer = new LinkLexer(CharStreams.fromString(header));
-            // Update lexer error listeners
-            if (errorListener != null) {
-                lexer.removeErrorListeners();
-                lexer.addErrorListener(errorListener);
+        boolean parameter(final Map<String, String> params) {
+            final int start = token();
+            if (pos == start || !at(EQUALS) || pos + 1 >= length) {
+                return false;
             }
-
-            final CommonTokenStream tokens = new CommonTokenStream(lexer);
-            final LinkParser parser = new LinkParser(tokens);
-
-            // Update parser error listeners
-            if (errorListener != null) {
-                parser.removeErrorListeners();
-                parser.addErrorListener(errorListener);
+            final String name = header.substring(start, pos);
+            pos++;
+            if (at(DQUOTE)) {
+                final int valueStart = pos + 1;
+                final int valueEnd = quotedString();
+                if (valueEnd < 0) {
+                    return false;
+                }
+                params.put(name, header.substring(valueStart, valueEnd));
+                return true;
             }
-
-            final LinkListener listener = new LinkListener();
-            final ParseTreeWalker walker = new ParseTreeWalker();
-            final LinkParser.LinkHeaderContext tree = parser.linkHeader();
-
-            try {
-                walker.walk(listener, tree);
-            } catch (final IllegalArgumentException ex) {
-                parser.notifyErrorListeners("Link parsing error: " + ex.getMessage());
+            final int valueStart = token();
+            if (pos == valueStart) {
+                return false;
             }
-
-            return listener.getLinks();
+            params.put(name, header.substring(valueStart, pos));
+            return true;
         }
 
         /**
-         * An Antlr listener for use with walking over the parsed syntax tree of a Link header.
+         * Advance to the next occurrence of one of the delimiters that is not inside a quoted string.
          */
-        static class LinkListener extends LinkBaseListener {
-
-            private final List<Link> links = new ArrayList<>();
-
-            /**
-             * Get the list of Challenge objects from the parsed header.
-             *
-             * @return the challenges
-             */
-            public List<Link> getLinks() {
-                return links;
-            }
-
-            @Override
-            public void exitLink(final LinkParser.LinkContext ctx) {
-                if (ctx.UriReference() != null && !isBlank(ctx.UriReference().getText())) {
-                    final Map<String, String> params = new HashMap<>();
-                    for (final TerminalNode p : ctx.LinkParam()) {
-                        final String[] parts = p.getText().split(Util.EQUALS, Util.PAIR);
-                        if (parts.length == Util.PAIR) {
-                            params.put(parts[0], Util.unwrap(parts[1], Util.DQUOTE));
-                        }
+        void skipTo(final char first, final char second) {
+            while (pos < length) {
+                final char c = header.charAt(pos);
+                if (c == first || c == second) {
+                    return;
+                } else if (c == DQUOTE) {
+                    if (quotedString() < 0) {
+                        pos = length;
                     }
-                    links.add(Link.of(toURI(ctx.UriReference().getText()), params));
-                }
-            }
-
-
-            static URI toURI(final String uri) {
-                if (uri.startsWith("<") && uri.endsWith(">")) {
-                    return URI.create(uri.substring(1, uri.length() - 1));
+                } else {
+                    pos++;
                 }
-                return URI.create(uri);
-            }
-
-            private boolean isBlank(final String value) {
-                return (value == null || value.isEmpty() || value.trim().isEmpty());
             }
         }
-    }
-
-    static final class WwwAuthenticateHeaderParser {
 
-        private static final Logger LOGGER = LoggerFactory.getLogger(WwwAuthenticateHeaderParser.class);
+        boolean isDelimiter() {
+            return pos >= length || isWhitespace(header.charAt(pos)) || header.charAt(pos) == COMMA;
+        }
 
-        private final ANTLRErrorListener errorListener;
+        static boolean isWhitespace(final char c) {
+            return c == ' ' || c == '\t';
+        }
 
-        /**
-         * Create a challenge parser with an error listener that records syntax exceptions to a DEBUG log.
-         */
-        public WwwAuthenticateHeaderParser() {
-            this(new ConsumerErrorListener(msg -> LOGGER.debug("WWW-Authenticate parse error: {}", msg)));
+        static boolean isAlpha(final char c) {
+            return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
         }
 
-        /**
-         * Create a challenge parser with a custom error listener.
-         *
-         * @param errorListener the error listener
-         */
-        public WwwAuthenticateHeaderParser(final ANTLRErrorListener errorListener) {
-            this.errorListener = errorListener;
+        static boolean isDigit(final char c) {
+            return c >= '0' && c <= '9';
         }
 
-        public List<Challenge> parse(final String header) {
-            final WwwAuthenticateLexer lexer = new WwwAuthenticateLexer(CharStreams.fromString(header));
-            // Update lexer error listeners
-            if (errorListener != null) {
-                lexer.removeErrorListeners();
-                lexer.addErrorListener(errorListener);
+        // tchar = "!" / "#" / "$" / "%" / "&" / "'" / "*" / "+" / "-" / "." / "^" / "_" / "`" / "|" / "~"
+        //       / DIGIT / ALPHA
+        static boolean isTchar(final char c) {
+            if (isAlpha(c) || isDigit(c)) {
+                return true;
             }
-
-            final CommonTokenStream tokens = new CommonTokenStream(lexer);
-            final WwwAuthenticateParser parser = new WwwAuthenticateParser(tokens);
-
-            // Update error listeners
-            if (errorListener != null) {
-                parser.removeErrorListeners();
-                parser.addErrorListener(errorListener);
+            switch (c) {
+                case '!': case '#': case '$': case '%': case '&': case '\'': case '*':
+                case '+': case '-': case '.': case '^': case '_': case '`': case '|': case '~':
+                    return true;
+                default:
+                    return false;
             }
+        }
 
+        // token68 = 1*( ALPHA / DIGIT / "-" / "." / "_" / "~" / "+" / "/" ) *"="
+        static boolean isToken68(final char c) {
+            return isAlpha(c) || isDigit(c) || c == '-' || c == '.' || c == '_' || c == '~' || c == '+' || c == '/';
+        }
 
-            final ChallengeListener listener = new ChallengeListener();
-            final ParseTreeWalker walker = new ParseTreeWalker();
-            final WwwAuthenticateParser.WwwAuthenticateContext tree = parser.wwwAuthenticate();
+        // qdtext = HTAB / SP / "!" / %x23-5B / %x5D-7E / obs-text
+        static boolean isQdtext(final char c) {
+            return isWhitespace(c) || c == '!' || c >= '#' && c <= '[' || c >= ']' && c <= '~'
+                || c >= '\u0080';
+        }
 
-            walker.walk(listener, tree);
+        // quoted-pair = "\" ( HTAB / SP / VCHAR / obs-text )
+        static boolean isQuotedPair(final char c) {
+            return isWhitespace(c) || c >= '!' && c <= '~' || c >= '\u0080';
+        }
 
-            return listener.getChallenges();
+        static boolean isUriChar(final char c) {
+            return c >= '!' && c <= '~' || c >= '\u0080';
         }
+    }
 
-        /**
-         * An Antlr listener for use with walking over the parsed syntax tree of a WWW-Authenticate header.
-         */
-        public static class ChallengeListener extends WwwAuthenticateBaseListener {
+    /**
+     * A scanner for {@code Link} headers.
+     *
+     * <p>Malformed link parameters are skipped. An invalid URI reference ends the parsing of the header.
+     */
+    static final class LinkScanner extends Scanner {
+
+        LinkScanner(final String header) {
+            super(header);
+        }
 
-            private final List<Challenge> challenges = new ArrayList<>();
+        void parse(final List<Link> links) {
+            while (true) {
+                while (pos < length && (isWhitespace(current()) || current() == COMMA)) {
+                    pos++;
+                }
+                if (atEnd()) {
+                    return;
+                }
+                if (!at('<')) {
+                    skipTo(COMMA, COMMA);
+                    continue;
+                }
 
-            /**
-             * Get the list of Challenge objects from the parsed header.
-             *
-             * @return the challenges
-             */
-            public List<Challenge> getChallenges() {
-                return challenges;
-            }
+                final URI uri = uriReference();
+                if (uri == null) {
+                    return;
+                }
 
-            @Override
-            public void exitChallenge(final WwwAuthenticateParser.ChallengeContext ctx) {
-                if (ctx.AuthScheme() != null) {
-                    final Map<String, String> params = new HashMap<>();
-                    for (final TerminalNode p : ctx.AuthParam()) {
-                        final String[] parts = p.getText().split(Util.EQUALS, Util.PAIR);
-                        if (parts.length == Util.PAIR) {
-                            params.put(parts[0], Util.unwrap(parts[1], Util.DQUOTE));
+                final Map<String, String> params = new HashMap<>();
+                while (true) {
+                    skipWhitespace();
+                    if (at(SEMICOLON)) {
+                        pos++;
+                        skipWhitespace();
+                        if (!parameter(params) || !(isDelimiter() || at(SEMICOLON))) {
+                            skipTo(SEMICOLON, COMMA);
                         }
+                    } else {
+                        skipTo(COMMA, COMMA);
+                        break;
                     }
-                    challenges.add(Challenge.of(ctx.AuthScheme().getText(), params));
                 }
+                links.add(Link.of(uri, params));
             }
         }
-    }
-
-    static final class WacAllowHeaderParser {
-
-        private static final Logger LOGGER = LoggerFactory.getLogger(WacAllowHeaderParser.class);
 
+        URI uriReference() {
+            final int start = ++pos;
+            while (pos < length && current() != '>' && isUriChar(current())) {
+                pos++;
+            }
+            if (pos == start || !at('>')) {
+                LOGGER.debug("Header parse error: invalid URI reference at position {}", start);
+                return null;
+            }
+            final String value = header.substring(start, pos++);
+            if (!(isDelimiter() || at(SEMICOLON))) {
+                LOGGER.debug("Header parse error: unexpected character at position {}", pos);
+                return null;
+            }
+            try {
+                return URI.create(value);
+            } catch (final IllegalArgumentException ex) {
+                LOGGER.debug("Link parsing error: {}", ex.getMessage());
+                return null;
+            }
+        }
+    }
 
-        private final ANTLRErrorListener errorListener;
+    /**
+     * A scanner for {@code WWW-Authenticate} headers.
+     *
+     * <p>A syntax error ends the parsing of the header. Challenges read up to that point are retained.
+     */
+    static final class WwwAuthenticateScanner extends Scanner {
 
-        /**
-         * Create an access parameter parser with an error listener that records syntax exceptions to a DEBUG log.
-         */
-        public WacAllowHeaderParser() {
-            this(new ConsumerErrorListener(msg -> LOGGER.debug("WAC-Allow parse error: {}", msg)));
+        WwwAuthenticateScanner(final String header) {
+            super(header);
         }
 
-        /**
-         * Create an access parameter parser with a custom error listener.
-         *
-         * @param errorListener the error listener
-         */
-        public WacAllowHeaderParser(final ANTLRErrorListener errorListener) {
-            this.errorListener = errorListener;
-        }
+        void parse(final List<Challenge> challenges) {
+            String scheme = null;
+            Map<String, String> params = null;
+            while (true) {
+                final int before = pos;
+                boolean comma = false;
+                while (pos < length && (isWhitespace(current()) || current() == COMMA)) {
+                    comma |= current() == COMMA;
+                    pos++;
+                }
+                if (atEnd()) {
+                    break;
+                }
+                if (scheme != null && pos == before) {
+                    LOGGER.debug("WWW-Authenticate parse error: unexpected character at position {}", pos);
+                    break;
+                }
 
-        /**
-         * Parse header string into a list of AccessParam objects.
-         *
-         * @param header the header string
-         * @return list of AccessParam objects
-         */
-        public Map<String, Set<String>> parse(final String header) {
-            final WacAllowLexer lexer = new WacAllowLexer(CharStreams.fromString(header));
-            // Update lexer error listeners
-            if (errorListener != null) {
-                lexer.removeErrorListeners();
-                lexer.addErrorListener(errorListener);
+                final int start = token();
+                if (at(EQUALS) && scheme != null && pos > start && pos + 1 < length
+                        && (isTchar(header.charAt(pos + 1)) || header.charAt(pos + 1) == DQUOTE)) {
+                    // auth-param
+                    pos = start;
+                    if (!parameter(params)) {
+                        LOGGER.debug("WWW-Authenticate parse error: invalid parameter at position {}", start);
+                        break;
+                    }
+                } else if (scheme == null || comma) {
+                    // auth-scheme
+                    if (pos == start || !isDelimiter()) {
+                        LOGGER.debug("WWW-Authenticate parse error: invalid scheme at position {}", start);
+                        break;
+                    }
+                    if (scheme != null) {
+                        challenges.add(Challenge.of(scheme, params));
+                    }
+                    scheme = header.substring(start, pos);
+                    params = new HashMap<>();
+                } else if (!token68()) {
+                    LOGGER.debug("WWW-Authenticate parse error: invalid token at position {}", start);
+                    break;
+                }
             }
-
-            final CommonTokenStream tokens = new CommonTokenStream(lexer);
-            final WacAllowParser parser = new WacAllowParser(tokens);
-
-            // Update error listeners
-            if (errorListener != null) {
-                parser.removeErrorListeners();
-                parser.addErrorListener(errorListener);
+            if (scheme != null) {
+                challenges.add(Challenge.of(scheme, params));
             }
+        }
 
-            final AccessParamListener listener = new AccessParamListener();
-            final ParseTreeWalker walker = new ParseTreeWalker();
-            final WacAllowParser.WacAllowContext tree = parser.wacAllow();
-
-            walker.walk(listener, tree);
-
-            return listener.getAccessParams();
+        boolean token68() {
+            // Token68 values are not retained
+            while (pos < length && isToken68(current())) {
+                pos++;
+            }
+            while (at(EQUALS)) {
+                pos++;
+            }
+            return isDelimiter();
         }
+    }
 
-        /**
-         * An Antlr listener for use with walking over the parsed syntax tree of a WWW-Authenticate header.
-         */
-        public static class AccessParamListener extends WacAllowBaseListener {
+    /**
+     * A scanner for {@code WAC-Allow} headers.
+     *
+     * <p>Any text that does not form an access parameter is ignored.
+     */
+    static final class WacAllowScanner extends Scanner {
 
-            private final Map<String, Set<String>> accessParams = new HashMap<>();
+        WacAllowScanner(final String header) {
+            super(header);
+        }
 
-            /**
-             * Get the list of AccesParam objects from the parsed header.
-             *
-             * @return list of AccessParams
-             */
-            public Map<String, Set<String>> getAccessParams() {
-                return accessParams;
+        void parse(final Map<String, Set<String>> accessParams) {
+            while (!atEnd()) {
+                final int start = pos;
+                if (!accessParam(accessParams)) {
+                    pos = start + 1;
+                }
             }
+        }
 
-            @Override
-            public void exitWacAllow(final WacAllowParser.WacAllowContext ctx) {
-                for (final TerminalNode p : ctx.AccessParam()) {
-                    final String[] parts = p.getText().split(Util.EQUALS, Util.PAIR);
-                    if (parts.length == Util.PAIR) {
-                        final String[] accessModes = Arrays.stream(Util.unwrap(parts[1], Util.DQUOTE).split(Util.WS))
-                                                            .filter(s -> !s.isEmpty())
-                                                            .toArray(String[]::new);
-                        if (accessModes.length > 0) {
-                            accessParams.computeIfAbsent(parts[0], k -> new HashSet<>())
-                                        .addAll(Arrays.asList(accessModes));
-                        }
-                    }
+        // access-param = permission-group OWS "=" OWS DQUOTE OWS *1(access-mode *(RWS access-mode)) OWS DQUOTE
+        boolean accessParam(final Map<String, Set<String>> accessParams) {
+            final int start = pos;
+            while (pos < length && isAlpha(current())) {
+                pos++;
+            }
+            if (pos == start) {
+                return false;
+            }
+            final int end = pos;
+            skipWhitespace();
+            if (!at(EQUALS)) {
+                return false;
+            }
+            pos++;
+            skipWhitespace();
+            if (!at(DQUOTE)) {
+                return false;
+            }
+            pos++;
+
+            final List<String> modes = new ArrayList<>();
+            while (true) {
+                skipWhitespace();
+                if (at(DQUOTE)) {
+                    pos++;
+                    break;
+                }
+                final int mode = pos;
+                while (pos < length && isAlpha(current())) {
+                    pos++;
                 }
+                if (pos == mode || !(at(DQUOTE) || pos < length && isWhitespace(current()))) {
+                    return false;
+                }
+                modes.add(header.substring(mode, pos));
+            }
+
+            if (!modes.isEmpty()) {
+                accessParams.computeIfAbsent(header.substring(start, end), k -> new HashSet<>()).addAll(modes);
             }
+            return true;
         }
     }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.core;
+
+import java.security.KeyPair;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.jose4j.keys.EllipticCurves;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A pool of pre-generated key pairs, refilled on a background thread.
+ *
+ * <p>Taking a key pair from the pool avoids paying the cost of key generation on the calling thread.
+ * If the pool is empty, a key pair is generated synchronously.
+ */
+final class KeyPairPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyPairPool.class);
+
+    static final int DEFAULT_SIZE = 8;
+
+    private final Supplier<KeyPair> generator;
+    private final int size;
+    private final Executor executor;
+    private final Queue<KeyPair> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger available = new AtomicInteger();
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    KeyPairPool(final Supplier<KeyPair> generator, final int size, final Executor executor) {
+        if (size < 1) {
+            throw new IllegalArgumentException("The key pair pool size must be positive");
+        }
+        this.generator = Objects.requireNonNull(generator, "Key pair generator may not be null!");
+        this.size = size;
+        this.executor = Objects.requireNonNull(executor, "Executor may not be null!");
+    }
+
+    /**
+     * Get the shared pool of ES256 key pairs.
+     *
+     * @return the shared pool
+     */
+    static KeyPairPool getDefault() {
+        return DefaultPool.INSTANCE;
+    }
+
+    /**
+     * Take a key pair from the pool, generating one synchronously if the pool is empty.
+     *
+     * @return a key pair that has not been returned by any other call
+     */
+    KeyPair take() {
+        final KeyPair keypair = pool.poll();
+        if (keypair != null) {
+            available.decrementAndGet();
+        }
+        refill();
+        return keypair != null ? keypair : generator.get();
+    }
+
+    int available() {
+        return available.get();
+    }
+
+    void refill() {
+        if (available.get() < size && refilling.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                try {
+                    while (available.get() < size) {
+                        pool.add(generator.get());
+                        available.incrementAndGet();
+                    }
+                } catch (final RuntimeException ex) {
+                    LOGGER.warn("Unable to generate key pair: {}", ex.getMessage());
+                } finally {
+                    refilling.set(false);
+                }
+            });
+        }
+    }
+
+    static final class DefaultPool {
+        static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "inrupt-key-pair-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        static final KeyPairPool INSTANCE = new KeyPairPool(() ->
+                DefaultDpopService.defaultKeyPair(EllipticCurves.P256), DEFAULT_SIZE, EXECUTOR);
+
+        static {
+            INSTANCE.refill();
+        }
+
+        private DefaultPool() {
+            // Prevent instantiation
+        }
+    }
+}
@@ -49,9 +49,33 @@
         .toCompletableFuture().join();
  * }</pre>
  * 
+ * <p>The client remembers the authentication challenges issued within each container of an origin. Later
+ * requests within that container authenticate up front, avoiding the initial {@code 401} round trip. If the
+ * server responds with a different challenge, the client falls back to the regular authorization exchange.
+ * 
+ * <p>Concurrent requests to a single origin can be limited with a {@code ConcurrencyLimiter}. The limit adapts
+ * to the observed latency as well as to {@code 429} and {@code 503} responses from the server.
+ * 
+ * <pre>{@code
+    Client client = DefaultClient.newBuilder()
+        .concurrencyLimiter(ConcurrencyLimiter.newBuilder().build())
+        .build();
+ * }</pre>
+ * 
  * <p>If we have multiple HTTP clients on the classpath we can also still access
  * the DefaultClient through the {@code DefaultClientProviderResolver}.
  * 
+ * <h2>An HTTP cache</h2>
+ * 
+ * <p>The {@code CachingClient} wraps another client and caches the responses to {@code GET} requests.
+ * Responses are revalidated with {@code ETag} and {@code Last-Modified} conditional requests, and the
+ * {@code Cache-Control} freshness directives of the server are honored. The cache is opt-in.
+ * 
+ * <pre>{@code
+    Client client = new CachingClient(ClientProvider.getClient());
+    SolidClient solid = SolidClient.getClientBuilder().client(client).build().session(session);
+ * }</pre>
+ * 
  * <h2>A service to work with DPoP</h2>
  * 
  * <p>{@code DefaultDpopService} provides, as the name implies, an already implemented
@@ -59,6 +83,9 @@
  * track of the keypairs involved in the authentication.
  * By default, the manager creates a keypair based on the ES256 algorithm for which it generates a
  * SHA-256 public JWK. One can change the defaults and make use of the out of the box service to generate proofs.
+ * Default keypairs are taken from a pool that is refilled on a background thread, and
+ * {@code DPoP.ofClient(issuer, clientId)} returns a manager whose default keypair is shared by all sessions of the
+ * same client.
  * 
  * <p>Next we exemplify how to generate a ES256 proof for the GET method.
  * 
@@ -72,7 +99,8 @@
  * <h2>Header parsing default</h2>
  * 
  * <p>The {@code DefaultHeaderParser} parses among the WWW-Authenticate header also some Solid useful headers like
- * WAC-Allow and Link headers.
+ * WAC-Allow and Link headers. The {@code CachingHeaderParser}, which is loaded by default, memoizes the parsed
+ * values of these headers and exposes hit and miss counters.
  *
  */
 package com.inrupt.client.core;
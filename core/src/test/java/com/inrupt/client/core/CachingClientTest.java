@@ -0,0 +1,333 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.core;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.Options;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.inrupt.client.Client;
+import com.inrupt.client.ClientCache;
+import com.inrupt.client.ClientProvider;
+import com.inrupt.client.Request;
+import com.inrupt.client.Response;
+import com.inrupt.client.auth.Session;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CachingClientTest {
+
+    private static final String CACHE_CONTROL = "Cache-Control";
+    private static final String ETAG = "ETag";
+    private static final String IF_NONE_MATCH = "If-None-Match";
+    private static final String VERSION = "\"v1\"";
+    private static final String BODY = "<> a <http://www.w3.org/ns/ldp#RDFSource> .";
+    private static final Instant NOW = Instant.parse("2023-01-01T00:00:00Z");
+    private static final WireMockServer server = new WireMockServer(WireMockConfiguration.options().dynamicPort()
+            .useChunkedTransferEncoding(Options.ChunkedEncodingPolicy.NEVER).gzipDisabled(true));
+    private static final Client client = ClientProvider.getClient();
+
+    private final MapCache cache = new MapCache();
+
+    @BeforeAll
+    static void setup() {
+        server.start();
+    }
+
+    @AfterAll
+    static void teardown() {
+        server.stop();
+    }
+
+    @BeforeEach
+    void reset() {
+        server.resetAll();
+    }
+
+    @Test
+    void testFreshResponse() {
+        server.stubFor(get(urlEqualTo("/fresh"))
+                .willReturn(aResponse().withStatus(200)
+                    .withHeader(CACHE_CONTROL, "max-age=60")
+                    .withBody(BODY)));
+
+        assertEquals(BODY, read(at(0), "/fresh").body());
+        final Response<String> response = read(at(30), "/fresh");
+        assertEquals(200, response.statusCode());
+        assertEquals(BODY, response.body());
+        server.verify(1, getRequestedFor(urlEqualTo("/fresh")));
+
+        assertEquals(BODY, read(at(90), "/fresh").body());
+        server.verify(2, getRequestedFor(urlEqualTo("/fresh")));
+    }
+
+    @Test
+    void testRevalidateWithETag() {
+        server.stubFor(get(urlEqualTo("/etag"))
+                .atPriority(1)
+                .withHeader(IF_NONE_MATCH, equalTo(VERSION))
+                .willReturn(aResponse().withStatus(304).withHeader(ETAG, VERSION)));
+        server.stubFor(get(urlEqualTo("/etag"))
+                .atPriority(2)
+                .willReturn(aResponse().withStatus(200)
+                    .withHeader(ETAG, VERSION)
+                    .withHeader("Content-Type", "text/turtle")
+                    .withBody(BODY)));
+
+        assertEquals(BODY, read(at(0), "/etag").body());
+        final Response<String> response = read(at(0), "/etag");
+        assertEquals(200, response.statusCode());
+        assertEquals(BODY, response.body());
+        assertEquals("text/turtle", response.headers().firstValue("Content-Type").orElse(null));
+
+        server.verify(2, getRequestedFor(urlEqualTo("/etag")));
+        server.verify(1, getRequestedFor(urlEqualTo("/etag")).withHeader(IF_NONE_MATCH, equalTo(VERSION)));
+    }
+
+    @Test
+    void testRevalidateWithLastModified() {
+        final String date = "Sun, 01 Jan 2023 00:00:00 GMT";
+        server.stubFor(get(urlEqualTo("/modified"))
+                .atPriority(1)
+                .withHeader("If-Modified-Since", equalTo(date))
+                .willReturn(aResponse().withStatus(304)));
+        server.stubFor(get(urlEqualTo("/modified"))
+                .atPriority(2)
+                .willReturn(aResponse().withStatus(200)
+                    .withHeader("Last-Modified", date)
+                    .withBody(BODY)));
+
+        assertEquals(BODY, read(at(0), "/modified").body());
+        assertEquals(BODY, read(at(0), "/modified").body());
+        server.verify(1, getRequestedFor(urlEqualTo("/modified")).withHeader("If-Modified-Since", equalTo(date)));
+    }
+
+    @Test
+    void testChangedResource() {
+        server.stubFor(get(urlEqualTo("/changed"))
+                .willReturn(aResponse().withStatus(200)
+                    .withHeader(ETAG, VERSION)
+                    .withBody(BODY)));
+
+        assertEquals(BODY, read(at(0), "/changed").body());
+
+        server.stubFor(get(urlEqualTo("/changed"))
+                .willReturn(aResponse().withStatus(200)
+                    .withHeader(ETAG, "\"v2\"")
+                    .withBody("changed")));
+
+        assertEquals("changed", read(at(0), "/changed").body());
+        assertEquals(1, cache.data.size());
+    }
+
+    @Test
+    void testStaleWhileRevalidate() {
+        server.stubFor(get(urlEqualTo("/swr"))
+                .willReturn(aResponse().withStatus(200)
+                    .withHeader(ETAG, VERSION)
+                    .withHeader(CACHE_CONTROL, "max-age=10, stale-while-revalidate=60")
+                    .withBody(BODY)));
+
+        assertEquals(BODY, read(at(0), "/swr").body());
+        assertEquals(BODY, read(at(30), "/swr").body());
+        await().atMost(5, SECONDS).untilAsserted(() ->
+                server.verify(1, getRequestedFor(urlEqualTo("/swr")).withHeader(IF_NONE_MATCH, equalTo(VERSION))));
+    }
+
+    @Test
+    void testStaleIfError() {
+        server.stubFor(get(urlEqualTo("/sie"))
+                .willReturn(aResponse().withStatus(200)
+                    .withHeader(ETAG, VERSION)
+                    .withHeader(CACHE_CONTROL, "max-age=10, stale-if-error=60")
+                    .withBody(BODY)));
+
+        assertEquals(BODY, read(at(0), "/sie").body());
+
+        server.stubFor(get(urlEqualTo("/sie")).willReturn(aResponse().withStatus(503)));
+
+        final Response<String> response = read(at(30), "/sie");
+        assertEquals(200, response.statusCode());
+        assertEquals(BODY, response.body());
+
+        assertEquals(503, read(at(120), "/sie").statusCode());
+        assertTrue(cache.data.isEmpty());
+    }
+
+    @Test
+    void testNoStore() {
+        server.stubFor(get(urlEqualTo("/nostore"))
+                .willReturn(aResponse().withStatus(200)
+                    .withHeader(ETAG, VERSION)
+                    .withHeader(CACHE_CONTROL, "no-store")
+                    .withBody(BODY)));
+
+        assertEquals(BODY, read(at(0), "/nostore").body());
+        assertEquals(BODY, read(at(0), "/nostore").body());
+        assertTrue(cache.data.isEmpty());
+        server.verify(0, getRequestedFor(urlEqualTo("/nostore")).withHeader(IF_NONE_MATCH, matching(".*")));
+    }
+
+    @Test
+    void testVary() {
+        server.stubFor(get(urlEqualTo("/vary"))
+                .willReturn(aResponse().withStatus(200)
+                    .withHeader("Vary", "Accept")
+                    .withHeader(CACHE_CONTROL, "max-age=60")
+                    .withBody(BODY)));
+
+        final CachingClient caching = at(0);
+        assertEquals(BODY, read(caching, "/vary").body());
+        assertEquals(BODY, read(caching, "/vary").body());
+        server.verify(1, getRequestedFor(urlEqualTo("/vary")));
+
+        final Request request = Request.newBuilder(URI.create(server.baseUrl() + "/vary"))
+            .header("Accept", "application/ld+json").build();
+        caching.send(request, Response.BodyHandlers.ofString()).toCompletableFuture().join();
+        server.verify(2, getRequestedFor(urlEqualTo("/vary")));
+    }
+
+    @Test
+    void testUnsafeInvalidation() {
+        server.stubFor(get(urlMatching("/container/.*"))
+                .willReturn(aResponse().withStatus(200)
+                    .withHeader(CACHE_CONTROL, "max-age=60")
+                    .withBody(BODY)));
+        server.stubFor(put(urlEqualTo("/container/resource")).willReturn(aResponse().withStatus(204)));
+
+        final CachingClient caching = at(0);
+        read(caching, "/container/");
+        read(caching, "/container/resource");
+        assertEquals(2, cache.data.size());
+
+        final Request request = Request.newBuilder(URI.create(server.baseUrl() + "/container/resource"))
+            .PUT(Request.BodyPublishers.ofString(BODY)).build();
+        assertEquals(204, caching.send(request, Response.BodyHandlers.discarding())
+                .toCompletableFuture().join().statusCode());
+        assertTrue(cache.data.isEmpty());
+
+        read(caching, "/container/resource");
+        server.verify(2, getRequestedFor(urlEqualTo("/container/resource")));
+    }
+
+    @Test
+    void testSessionPartition() {
+        server.stubFor(get(urlEqualTo("/session"))
+                .willReturn(aResponse().withStatus(200)
+                    .withHeader(CACHE_CONTROL, "max-age=60")
+                    .withBody(BODY)));
+
+        final CachingClient caching = at(0);
+        final CachingClient session = caching.session(Session.anonymous());
+        read(caching, "/session");
+        read(session, "/session");
+        read(session, "/session");
+        server.verify(2, getRequestedFor(urlEqualTo("/session")));
+    }
+
+    @Test
+    void testUserConditionalRequest() {
+        server.stubFor(get(urlEqualTo("/conditional"))
+                .willReturn(aResponse().withStatus(200)
+                    .withHeader(ETAG, VERSION)
+                    .withBody(BODY)));
+
+        final Request request = Request.newBuilder(URI.create(server.baseUrl() + "/conditional"))
+            .header(IF_NONE_MATCH, "\"v0\"").build();
+        at(0).send(request, Response.BodyHandlers.ofString()).toCompletableFuture().join();
+        assertTrue(cache.data.isEmpty());
+    }
+
+    @Test
+    void testLargeResponse() {
+        server.stubFor(get(urlEqualTo("/large"))
+                .willReturn(aResponse().withStatus(200)
+                    .withHeader(CACHE_CONTROL, "max-age=60")
+                    .withBody(BODY)));
+
+        // A response body over the size limit is passed through without being stored
+        final CachingClient caching = new CachingClient(client, cache, "", Clock.fixed(NOW, ZoneOffset.UTC),
+                BODY.length() - 1);
+        assertEquals(BODY, read(caching, "/large").body());
+        assertEquals(BODY, read(caching, "/large").body());
+        assertTrue(cache.data.isEmpty());
+        server.verify(2, getRequestedFor(urlEqualTo("/large")));
+    }
+
+    @Test
+    void testDefaultCache() {
+        server.stubFor(get(urlEqualTo("/default"))
+                .willReturn(aResponse().withStatus(200).withBody(BODY)));
+
+        final Client caching = new CachingClient(client);
+        final Request request = Request.newBuilder(URI.create(server.baseUrl() + "/default")).build();
+        assertEquals(BODY, caching.send(request, Response.BodyHandlers.ofString())
+                .toCompletableFuture().join().body());
+    }
+
+    CachingClient at(final long seconds) {
+        return new CachingClient(client, cache, "", Clock.fixed(NOW.plusSeconds(seconds), ZoneOffset.UTC),
+                BODY.length());
+    }
+
+    static Response<String> read(final Client caching, final String path) {
+        final Request request = Request.newBuilder(URI.create(server.baseUrl() + path)).build();
+        return caching.send(request, Response.BodyHandlers.ofString()).toCompletableFuture().join();
+    }
+
+    static class MapCache implements ClientCache<String, CachingClient.Entry> {
+        final Map<String, CachingClient.Entry> data = new ConcurrentHashMap<>();
+
+        @Override
+        public CachingClient.Entry get(final String key) {
+            return data.get(key);
+        }
+
+        @Override
+        public void put(final String key, final CachingClient.Entry value) {
+            data.put(key, value);
+        }
+
+        @Override
+        public void invalidate(final String key) {
+            data.remove(key);
+        }
+
+        @Override
+        public void invalidateAll() {
+            data.clear();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.inrupt.client.Headers;
+import com.inrupt.client.Headers.Link;
+import com.inrupt.client.Headers.WacAllow;
+import com.inrupt.client.Headers.WwwAuthenticate;
+import com.inrupt.client.auth.Challenge;
+import com.inrupt.client.spi.ServiceProvider;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class CachingHeaderParserTest {
+
+    static final String LINK = "<http://www.w3.org/ns/ldp#Resource>; rel=\"type\", " +
+        "<https://storage.example/alice/.acl>; rel=\"acl\"";
+    static final String STORAGE = "<http://www.w3.org/ns/pim/space#Storage>; rel=\"type\"";
+    static final String CHALLENGE = "UMA ticket=\"ticket-12345\", as_uri=\"https://uma.example\", Bearer";
+    static final String WAC_ALLOW = "user=\"read write\", public=\"read\"";
+
+    @Test
+    void testServiceLoader() {
+        assertTrue(ServiceProvider.getHeaderParser() instanceof CachingHeaderParser);
+    }
+
+    @Test
+    void testLinkMemoization() {
+        final CachingHeaderParser parser = new CachingHeaderParser();
+        final List<Link> links = parser.parseLink(Collections.singletonList(LINK));
+        assertEquals(Arrays.asList(
+                    Link.of(URI.create("http://www.w3.org/ns/ldp#Resource"), "type"),
+                    Link.of(URI.create("https://storage.example/alice/.acl"), "acl")), links);
+        assertEquals(0, parser.getHitCount());
+        assertEquals(1, parser.getMissCount());
+
+        assertSame(links, parser.parseLink(Collections.singletonList(LINK)));
+        assertEquals(1, parser.getHitCount());
+        assertEquals(1, parser.getMissCount());
+        assertThrows(UnsupportedOperationException.class, () -> links.add(Link.of(URI.create("urn:x"), "y")));
+    }
+
+    @Test
+    void testMultipleLinkHeaders() {
+        final CachingHeaderParser parser = new CachingHeaderParser();
+        final List<Link> links = parser.parseLink(Arrays.asList(LINK, STORAGE, LINK));
+        assertEquals(5, links.size());
+        assertEquals(1, parser.getHitCount());
+        assertEquals(2, parser.getMissCount());
+        assertEquals(new DefaultHeaderParser().parseLink(Arrays.asList(LINK, STORAGE, LINK)), links);
+    }
+
+    @Test
+    void testWwwAuthenticateMemoization() {
+        final CachingHeaderParser parser = new CachingHeaderParser();
+        final WwwAuthenticate header = parser.parseWwwAuthenticate(Collections.singletonList(CHALLENGE));
+        final Map<String, String> params = new HashMap<>();
+        params.put("ticket", "ticket-12345");
+        params.put("as_uri", "https://uma.example");
+        assertEquals(Arrays.asList(Challenge.of("UMA", params), Challenge.of("Bearer")), header.getChallenges());
+
+        assertSame(header, parser.parseWwwAuthenticate(Collections.singletonList(CHALLENGE)));
+        assertEquals(3, parser.parseWwwAuthenticate(Arrays.asList(CHALLENGE, "DPoP algs=\"ES256\""))
+                .getChallenges().size());
+        assertEquals(2, parser.getHitCount());
+        assertEquals(2, parser.getMissCount());
+    }
+
+    @Test
+    void testWacAllowMemoization() {
+        final CachingHeaderParser parser = new CachingHeaderParser();
+        final WacAllow wacAllow = parser.parseWacAllow(Collections.singletonList(WAC_ALLOW));
+        assertEquals(new HashSet<>(Arrays.asList("read", "write")), wacAllow.getAccessParams().get("user"));
+        assertThrows(UnsupportedOperationException.class, () -> wacAllow.getAccessParams().get("user").clear());
+
+        assertSame(wacAllow, parser.parseWacAllow(Collections.singletonList(WAC_ALLOW)));
+        final WacAllow merged = parser.parseWacAllow(Arrays.asList(WAC_ALLOW, "user=\"append\""));
+        assertEquals(new HashSet<>(Arrays.asList("read", "write", "append")), merged.getAccessParams().get("user"));
+        assertEquals(new HashSet<>(Arrays.asList("read", "write")), wacAllow.getAccessParams().get("user"));
+        assertEquals(2, parser.getHitCount());
+        assertEquals(2, parser.getMissCount());
+    }
+
+    @Test
+    void testStaticParsers() {
+        final CachingHeaderParser parser = (CachingHeaderParser) ServiceProvider.getHeaderParser();
+        final long hits = parser.getHitCount();
+        Headers.Link.parse(LINK);
+        Headers.Link.parse(LINK);
+        assertTrue(parser.getHitCount() > hits);
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.core;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.inrupt.client.Client;
+import com.inrupt.client.Headers;
+import com.inrupt.client.Request;
+import com.inrupt.client.Response;
+import com.inrupt.client.auth.Session;
+import com.inrupt.client.spi.HttpService;
+
+import java.net.URI;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ConcurrencyLimiterTest {
+
+    private static final URI RESOURCE = URI.create("https://storage.example/resource");
+    private static final URI OTHER = URI.create("https://other.example/resource");
+    private static final WireMockServer server = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+
+    @BeforeAll
+    static void setup() {
+        server.start();
+    }
+
+    @AfterAll
+    static void teardown() {
+        server.stop();
+    }
+
+    @Test
+    void testQueueing() {
+        final ConcurrencyLimiter limiter = ConcurrencyLimiter.newBuilder().initialLimit(2).maxLimit(2).build();
+        final CompletableFuture<ConcurrencyLimiter.Permit> first = limiter.acquire(RESOURCE).toCompletableFuture();
+        final CompletableFuture<ConcurrencyLimiter.Permit> second = limiter.acquire(RESOURCE).toCompletableFuture();
+        final CompletableFuture<ConcurrencyLimiter.Permit> third = limiter.acquire(RESOURCE).toCompletableFuture();
+        final CompletableFuture<ConcurrencyLimiter.Permit> other = limiter.acquire(OTHER).toCompletableFuture();
+
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+        assertFalse(third.isDone());
+        assertTrue(other.isDone());
+
+        first.join().release(response(200));
+        assertTrue(third.isDone());
+        assertEquals(2, limiter.getLimit(RESOURCE));
+    }
+
+    @Test
+    void testBackoff() {
+        final ConcurrencyLimiter limiter = ConcurrencyLimiter.newBuilder().initialLimit(8).build();
+        final ConcurrencyLimiter.Permit first = limiter.acquire(RESOURCE).toCompletableFuture().join();
+        final ConcurrencyLimiter.Permit second = limiter.acquire(RESOURCE).toCompletableFuture().join();
+
+        first.release(response(503));
+        assertEquals(4, limiter.getLimit(RESOURCE));
+
+        // Requests sent before the limit was reduced do not reduce it further
+        second.release(response(429));
+        assertEquals(4, limiter.getLimit(RESOURCE));
+
+        limiter.acquire(RESOURCE).toCompletableFuture().join().release(response(429));
+        assertEquals(2, limiter.getLimit(RESOURCE));
+        assertEquals(8, limiter.getLimit(OTHER));
+    }
+
+    @Test
+    void testRetryAfter() {
+        final ConcurrencyLimiter limiter = ConcurrencyLimiter.newBuilder().build();
+        final ConcurrencyLimiter.Permit permit = limiter.acquire(RESOURCE).toCompletableFuture().join();
+        permit.release(response(429, "1"));
+
+        final CompletableFuture<ConcurrencyLimiter.Permit> next = limiter.acquire(RESOURCE).toCompletableFuture();
+        assertFalse(next.isDone());
+        await().atMost(5, SECONDS).until(next::isDone);
+    }
+
+    @Test
+    void testRetryAfterHeader() {
+        final long now = Instant.parse("2023-01-01T00:00:00Z").toEpochMilli();
+        final String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                Instant.parse("2023-01-01T00:00:30Z").atOffset(ZoneOffset.UTC));
+
+        assertEquals(Long.valueOf(120000), ConcurrencyLimiter.retryAfter(response(429, "120"), now).orElse(null));
+        assertEquals(Long.valueOf(30000), ConcurrencyLimiter.retryAfter(response(429, date), now).orElse(null));
+        assertFalse(ConcurrencyLimiter.retryAfter(response(429, "soon"), now).isPresent());
+        assertFalse(ConcurrencyLimiter.retryAfter(response(429, "-5"), now).isPresent());
+        assertFalse(ConcurrencyLimiter.retryAfter(response(429), now).isPresent());
+    }
+
+    @Test
+    void testBaselineWindow() {
+        final ConcurrencyLimiter limiter = ConcurrencyLimiter.newBuilder().build();
+        final ConcurrencyLimiter.Origin origin = limiter.new Origin("https://storage.example");
+        final long now = System.nanoTime();
+        final long window = TimeUnit.SECONDS.toNanos(31);
+
+        assertEquals(100, origin.baseline(100, now));
+        assertEquals(100, origin.baseline(500, now));
+        // The previous window is still taken into account
+        assertEquals(100, origin.baseline(500, now + window));
+        // Older latencies are forgotten
+        assertEquals(500, origin.baseline(600, now + 2 * window));
+    }
+
+    @Test
+    void testWrappedService() {
+        final List<CompletableFuture<Response<String>>> pending = new ArrayList<>();
+        final HttpService service = new HttpService() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> CompletionStage<Response<T>> send(final Request request,
+                    final Response.BodyHandler<T> responseBodyHandler) {
+                final CompletableFuture<Response<String>> future = new CompletableFuture<>();
+                pending.add(future);
+                return future.thenApply(res -> (Response<T>) res);
+            }
+        };
+
+        final ConcurrencyLimiter limiter = ConcurrencyLimiter.newBuilder().initialLimit(1).maxLimit(1).build();
+        final HttpService limited = limiter.wrap(service);
+        final CompletableFuture<Response<String>> first = limited.send(Request.newBuilder(RESOURCE).build(),
+                Response.BodyHandlers.ofString()).toCompletableFuture();
+        final CompletableFuture<Response<String>> second = limited.send(Request.newBuilder(RESOURCE).build(),
+                Response.BodyHandlers.ofString()).toCompletableFuture();
+
+        // The second request waits for the first one to complete
+        assertEquals(1, pending.size());
+        pending.get(0).complete(new ClientResponse<>(RESOURCE, 200, Headers.empty(), "first"));
+        assertEquals("first", first.join().body());
+        assertEquals(2, pending.size());
+        pending.get(1).complete(new ClientResponse<>(RESOURCE, 200, Headers.empty(), "second"));
+        assertEquals("second", second.join().body());
+    }
+
+    @Test
+    void testInvalidConfiguration() {
+        final ConcurrencyLimiter.Builder builder = ConcurrencyLimiter.newBuilder();
+        assertThrows(IllegalArgumentException.class, () -> builder.minLimit(0).build());
+        assertThrows(IllegalArgumentException.class, () -> builder.minLimit(1).initialLimit(500).build());
+        assertThrows(IllegalArgumentException.class, () -> builder.initialLimit(10).backoffRatio(1.5).build());
+        assertThrows(IllegalArgumentException.class, () -> builder.backoffRatio(0.5).latencyTolerance(0.5).build());
+    }
+
+    @Test
+    void testDefaultClient() {
+        server.stubFor(get(urlEqualTo("/limited"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(100)));
+        server.stubFor(get(urlEqualTo("/overloaded"))
+                .willReturn(aResponse().withStatus(429)));
+
+        final ConcurrencyLimiter limiter = ConcurrencyLimiter.newBuilder().initialLimit(2).maxLimit(2)
+            .latencyTolerance(10).build();
+        final Client client = DefaultClient.newBuilder().concurrencyLimiter(limiter).build();
+        final URI uri = URI.create(server.baseUrl() + "/limited");
+
+        final List<CompletableFuture<Response<Void>>> responses = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            // Use distinct headers so that the requests are not coalesced
+            responses.add(client.send(Request.newBuilder(uri).header("X-Request", Integer.toString(i)).build(),
+                        Response.BodyHandlers.discarding()).toCompletableFuture());
+        }
+        responses.forEach(response -> assertEquals(200, response.join().statusCode()));
+
+        final Response<Void> res = client.session(Session.anonymous())
+            .send(Request.newBuilder(URI.create(server.baseUrl() + "/overloaded")).build(),
+                    Response.BodyHandlers.discarding()).toCompletableFuture().join();
+        assertEquals(429, res.statusCode());
+        assertEquals(1, limiter.getLimit(uri));
+    }
+
+    static Response<Void> response(final int status, final String... retryAfter) {
+        final Headers headers = retryAfter.length > 0
+            ? Headers.of(Collections.singletonMap("Retry-After", Arrays.asList(retryAfter)))
+            : Headers.empty();
+        return new ClientResponse<>(RESOURCE, status, headers, null);
+    }
+}
@@ -21,18 +21,36 @@
 package com.inrupt.client.core;
 
 import static org.jose4j.jwa.AlgorithmConstraints.ConstraintType.PERMIT;
+import static org.jose4j.jwx.HeaderParameterNames.TYPE;
+import static org.jose4j.lang.HashUtil.SHA_256;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.inrupt.client.auth.DPoP;
 
 import java.net.URI;
+import java.security.KeyPair;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import org.jose4j.base64url.Base64Url;
+import org.jose4j.json.JsonUtil;
+import org.jose4j.jwk.PublicJsonWebKey;
+import org.jose4j.jws.JsonWebSignature;
 import org.jose4j.jwt.JwtClaims;
 import org.jose4j.jwt.consumer.InvalidJwtException;
 import org.jose4j.jwt.consumer.JwtConsumerBuilder;
 import org.jose4j.jwt.consumer.Validator;
+import org.jose4j.keys.EllipticCurves;
+import org.jose4j.keys.RsaKeyUtil;
 import org.jose4j.keys.resolvers.EmbeddedJwkVerificationKeyResolver;
+import org.jose4j.lang.JoseException;
 import org.junit.jupiter.api.Test;
 
 class DPoPManagerTest {
@@ -73,6 +91,77 @@ class DPoPManagerTest {
         assertFalse(dpop.lookupAlgorithm(null).isPresent());
     }
 
+    @Test
+    void testSharedKeyPair() {
+        final URI issuer = URI.create("https://issuer.example");
+        final DPoP first = DPoP.ofClient(issuer, "https://app.example/id");
+        final DPoP second = DPoP.ofClient(issuer, "https://app.example/id");
+        final DPoP other = DPoP.ofClient(issuer, "https://other.example/id");
+        final DPoP otherIssuer = DPoP.ofClient(URI.create("https://other-issuer.example"), "https://app.example/id");
+        assertEquals(first.lookupThumbprint("ES256"), second.lookupThumbprint("ES256"));
+        assertNotEquals(first.lookupThumbprint("ES256"), other.lookupThumbprint("ES256"));
+        assertNotEquals(first.lookupThumbprint("ES256"), otherIssuer.lookupThumbprint("ES256"));
+        assertNotEquals(DPoP.of().lookupThumbprint("ES256"), DPoP.of().lookupThumbprint("ES256"));
+    }
+
+    @Test
+    void testGenerateRsaProof() throws JoseException {
+        final KeyPair keypair = new RsaKeyUtil().generateKeyPair(2048);
+        final DPoP dpop = DPoP.of(Collections.singletonMap("RS256", keypair));
+        final String method = "PUT";
+        final URI uri = URI.create("https://storage.example/container/resource?query=value");
+        final String proof = dpop.generateProof("RS256", uri, method);
+
+        assertDoesNotThrow(() -> verifyDpop(proof, uri, method));
+    }
+
+    @Test
+    void testProofStructure() throws JoseException {
+        final KeyPair keypair = DefaultDpopService.defaultKeyPair(EllipticCurves.P256);
+        final DPoPSigner signer = new DPoPSigner("ES256", keypair);
+        final URI uri = URI.create("https://storage.example/resource");
+        final String[] parts = signer.sign("GET", uri).split("\\.");
+        assertEquals(3, parts.length);
+
+        // The pre-computed header matches one produced by jose4j
+        final PublicJsonWebKey jwk = PublicJsonWebKey.Factory.newPublicJwk(keypair.getPublic());
+        final JsonWebSignature jws = new JsonWebSignature();
+        jws.setAlgorithmHeaderValue("ES256");
+        jws.setHeader(TYPE, "dpop+jwt");
+        jws.setJwkHeader(jwk);
+        assertEquals(JsonUtil.parseJson(jws.getHeaders().getFullHeaderAsJsonString()),
+                JsonUtil.parseJson(Base64Url.decodeToUtf8String(parts[0])));
+        assertEquals(jwk.calculateBase64urlEncodedThumbprint(SHA_256), signer.getThumbprint());
+
+        final Map<String, Object> claims = JsonUtil.parseJson(Base64Url.decodeToUtf8String(parts[1]));
+        assertEquals(new HashSet<>(Arrays.asList("jti", "htm", "htu", "iat")), claims.keySet());
+        assertEquals("GET", claims.get("htm"));
+        assertEquals(uri.toString(), claims.get("htu"));
+    }
+
+    @Test
+    void testConcurrentProofs() throws JoseException {
+        final DPoP dpop = DPoP.of();
+        final URI uri = URI.create("https://storage.example/resource");
+        final List<String> proofs = IntStream.range(0, 200).parallel()
+            .mapToObj(i -> dpop.generateProof("ES256", uri, "GET"))
+            .collect(Collectors.toList());
+
+        final Set<Object> identifiers = new HashSet<>();
+        for (final String proof : proofs) {
+            assertDoesNotThrow(() -> verifyDpop(proof, uri, "GET"));
+            identifiers.add(JsonUtil.parseJson(Base64Url.decodeToUtf8String(proof.split("\\.")[1])).get("jti"));
+        }
+        assertEquals(proofs.size(), identifiers.size());
+    }
+
+    @Test
+    void testJsonString() {
+        final StringBuilder builder = new StringBuilder();
+        DPoPSigner.appendJsonString(builder, "a\"b\\c\n");
+        assertEquals("\"a\\\"b\\\\c\\u000a\"", builder.toString());
+    }
+
     static void verifyDpop(final String proof, final URI uri, final String method) {
         try {
             new JwtConsumerBuilder()
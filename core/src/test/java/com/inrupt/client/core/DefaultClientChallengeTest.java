@@ -0,0 +1,225 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.core;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.inrupt.client.core.DefaultClientTokenCacheTest.idToken;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.inrupt.client.Client;
+import com.inrupt.client.ClientProvider;
+import com.inrupt.client.InruptClientException;
+import com.inrupt.client.Request;
+import com.inrupt.client.Response;
+import com.inrupt.client.auth.Challenge;
+import com.inrupt.client.openid.OpenIdSession;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DefaultClientChallengeTest {
+
+    private static final WireMockServer server = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+    private static final Client client = ClientProvider.getClient();
+
+    @BeforeAll
+    static void setup() {
+        server.start();
+    }
+
+    @AfterAll
+    static void teardown() {
+        server.stop();
+    }
+
+    @BeforeEach
+    void reset() {
+        server.resetAll();
+        server.stubFor(any(urlPathMatching("/.*"))
+                .atPriority(3)
+                .willReturn(aResponse().withStatus(401).withHeader("WWW-Authenticate", "Bearer")));
+        server.stubFor(any(urlPathMatching("/.*"))
+                .atPriority(2)
+                .withHeader("Authorization", matching("Bearer .+"))
+                .willReturn(aResponse().withStatus(200)));
+    }
+
+    @Test
+    void testLearnedChallenge() {
+        final Client session = client.session(OpenIdSession.ofIdToken(idToken()));
+        assertEquals(200, send(session, "/learned/a/1"));
+
+        // Fresh sessions also authenticate up front, including within nested containers
+        final Client other = client.session(OpenIdSession.ofIdToken(idToken()));
+        assertEquals(200, send(other, "/learned/a/2"));
+        assertEquals(200, send(other, "/learned/a/b/3"));
+
+        server.verify(1, getRequestedFor(urlPathMatching("/learned/.*")).withoutHeader("Authorization"));
+        server.verify(3, getRequestedFor(urlPathMatching("/learned/.*")).withHeader("Authorization", matching(".+")));
+    }
+
+    @Test
+    void testWrongPrediction() {
+        final Client session = client.session(OpenIdSession.ofIdToken(idToken()));
+        assertEquals(200, send(session, "/changed/a"));
+
+        // The learned Bearer challenge is superseded by the current challenge
+        server.stubFor(any(urlPathMatching("/changed/.*"))
+                .atPriority(1)
+                .willReturn(aResponse().withStatus(401)
+                    .withHeader("WWW-Authenticate", umaChallenge())));
+        final Client other = client.session(OpenIdSession.ofIdToken(idToken()));
+        assertEquals(401, send(other, "/changed/b"));
+        assertEquals(401, send(other, "/changed/c"));
+
+        server.verify(1, getRequestedFor(urlEqualTo("/changed/b")).withHeader("Authorization", matching("Bearer .+")));
+        server.verify(0, getRequestedFor(urlEqualTo("/changed/b")).withoutHeader("Authorization"));
+        server.verify(1, getRequestedFor(urlEqualTo("/changed/c")).withoutHeader("Authorization"));
+        server.verify(0, getRequestedFor(urlEqualTo("/changed/c")).withHeader("Authorization", matching(".+")));
+    }
+
+    @Test
+    void testAnonymousSession() {
+        assertEquals(401, send(client, "/anonymous/a"));
+        assertEquals(401, send(client, "/anonymous/b"));
+
+        // Without any credentials, requests are sent as usual
+        server.verify(2, getRequestedFor(urlPathMatching("/anonymous/.*")).withoutHeader("Authorization"));
+    }
+
+    @Test
+    void testSingleUseChallenge() {
+        server.stubFor(any(urlPathMatching("/tickets/.*"))
+                .atPriority(1)
+                .willReturn(aResponse().withStatus(401)
+                    .withHeader("WWW-Authenticate", umaChallenge())));
+        final Client session = client.session(OpenIdSession.ofIdToken(idToken()));
+        assertEquals(401, send(session, "/tickets/a"));
+
+        // A single-use challenge is scoped to the method of the request, so it is not fetched with a probe
+        server.stubFor(any(urlPathMatching("/tickets/.*"))
+                .atPriority(1)
+                .willReturn(aResponse().withStatus(201)));
+        final Request request = Request.newBuilder(URI.create(server.baseUrl() + "/tickets/b"))
+            .PUT(Request.BodyPublishers.ofString("data")).build();
+        assertEquals(201, session.send(request, Response.BodyHandlers.discarding())
+                .toCompletableFuture().join().statusCode());
+        server.verify(0, headRequestedFor(urlPathMatching("/tickets/.*")));
+        server.verify(1, putRequestedFor(urlEqualTo("/tickets/b")).withoutHeader("Authorization"));
+    }
+
+    @Test
+    void testUnsupportedPrediction() {
+        final Client session = client.session(OpenIdSession.ofIdToken(idToken()));
+        assertEquals(200, send(session, "/unsupported/a"));
+
+        // A session that supports none of the learned schemes sends the request unchanged
+        assertEquals(401, send(client, "/unsupported/b"));
+        final Request request = Request.newBuilder(URI.create(server.baseUrl() + "/unsupported/c"))
+            .PUT(Request.BodyPublishers.ofString("data")).build();
+        assertEquals(401, client.send(request, Response.BodyHandlers.discarding())
+                .toCompletableFuture().join().statusCode());
+        server.verify(1, getRequestedFor(urlEqualTo("/unsupported/b")));
+        server.verify(1, putRequestedFor(urlEqualTo("/unsupported/c")));
+        server.verify(0, headRequestedFor(urlPathMatching("/unsupported/.*")));
+    }
+
+    @Test
+    void testMixedChallenges() {
+        server.stubFor(any(urlPathMatching("/mixed/.*"))
+                .atPriority(1)
+                .withHeader("Authorization", absent())
+                .willReturn(aResponse().withStatus(401)
+                    .withHeader("WWW-Authenticate", "Bearer, DPoP algs=\"ES256\", " + umaChallenge())));
+        final Client session = client.session(OpenIdSession.ofIdToken(idToken()));
+        send(session, "/mixed/a");
+
+        // The reusable challenges within a learned set are answered up front
+        assertEquals(200, send(session, "/mixed/b"));
+        final Request request = Request.newBuilder(URI.create(server.baseUrl() + "/mixed/c"))
+            .PUT(Request.BodyPublishers.ofString("data")).build();
+        assertEquals(200, session.send(request, Response.BodyHandlers.discarding())
+                .toCompletableFuture().join().statusCode());
+        server.verify(0, getRequestedFor(urlEqualTo("/mixed/b")).withoutHeader("Authorization"));
+        server.verify(1, getRequestedFor(urlEqualTo("/mixed/b")).withHeader("Authorization", matching("Bearer .+")));
+        server.verify(0, putRequestedFor(urlEqualTo("/mixed/c")).withoutHeader("Authorization"));
+    }
+
+    @Test
+    void testSingleUseBodyAfterWrongPrediction() {
+        final Client session = client.session(OpenIdSession.ofIdToken(idToken()));
+        assertEquals(200, send(session, "/streamed/a"));
+
+        // An up-front request streams its body, which exceeds the replay buffer and cannot be resent
+        server.stubFor(put(urlEqualTo("/streamed/b"))
+                .atPriority(1)
+                .willReturn(aResponse().withStatus(401).withHeader("WWW-Authenticate", "Bearer")));
+        final byte[] data = new byte[3 * 1024 * 1024];
+        final Request request = Request.newBuilder(URI.create(server.baseUrl() + "/streamed/b"))
+            .PUT(Request.BodyPublishers.ofInputStream(new BufferedInputStream(new ByteArrayInputStream(data)))).build();
+        final CompletionException err = assertThrows(CompletionException.class, () ->
+                session.send(request, Response.BodyHandlers.discarding()).toCompletableFuture().join());
+        assertInstanceOf(InruptClientException.class, err.getCause());
+        server.verify(1, putRequestedFor(urlEqualTo("/streamed/b")).withHeader("Authorization", matching(".+")));
+    }
+
+    @Test
+    void testContainers() {
+        assertEquals(Arrays.asList(URI.create("https://example.com/a/b/"), URI.create("https://example.com/a/"),
+                    URI.create("https://example.com/")),
+                ChallengeCache.containers(URI.create("https://example.com/a/b/c")));
+        assertEquals(Arrays.asList(URI.create("https://example.com/a/"), URI.create("https://example.com/")),
+                ChallengeCache.containers(URI.create("https://example.com/a/b/")));
+        assertEquals(Collections.singletonList(URI.create("https://example.com/")),
+                ChallengeCache.containers(URI.create("https://example.com")));
+        assertTrue(ChallengeCache.containers(URI.create("urn:uuid:1234")).isEmpty());
+    }
+
+    @Test
+    void testPrediction() {
+        final ChallengeCache cache = new ChallengeCache();
+        cache.learn(URI.create("https://example.com/a/b"), Collections.singletonList(Challenge.of("Bearer")));
+        assertEquals(Collections.singletonList(Challenge.of("Bearer")),
+                cache.predict(URI.create("https://example.com/a/c/d")));
+        assertTrue(cache.predict(URI.create("https://example.com/other")).isEmpty());
+        assertTrue(cache.predict(URI.create("https://other.example/a/b")).isEmpty());
+    }
+
+    static String umaChallenge() {
+        return "UMA as_uri=\"" + server.baseUrl() + "/uma\", ticket=\"ticket-1\"";
+    }
+
+    static int send(final Client session, final String path) {
+        final Request request = Request.newBuilder(URI.create(server.baseUrl() + path)).build();
+        return session.send(request, Response.BodyHandlers.discarding()).toCompletableFuture().join().statusCode();
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.core;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.Options;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.inrupt.client.Client;
+import com.inrupt.client.ClientProvider;
+import com.inrupt.client.Headers;
+import com.inrupt.client.Request;
+import com.inrupt.client.Response;
+import com.inrupt.client.auth.Session;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DefaultClientCoalescingTest {
+
+    private static final String BODY = "Coalesced response body";
+    private static final int DELAY = 500;
+    private static final int COUNT = 5;
+    private static final WireMockServer server = new WireMockServer(WireMockConfiguration.options().dynamicPort()
+            .useChunkedTransferEncoding(Options.ChunkedEncodingPolicy.NEVER));
+    private static final Client client = ClientProvider.getClient();
+
+    @BeforeAll
+    static void setup() {
+        server.start();
+    }
+
+    @AfterAll
+    static void teardown() {
+        server.stop();
+    }
+
+    @BeforeEach
+    void reset() {
+        server.resetAll();
+        server.stubFor(get(urlEqualTo("/slow"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(DELAY).withBody(BODY)));
+    }
+
+    @Test
+    void testConcurrentRequests() {
+        final List<CompletableFuture<Response<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++) {
+            responses.add(client.send(request("/slow").build(), Response.BodyHandlers.ofString())
+                    .toCompletableFuture());
+        }
+
+        for (final CompletableFuture<Response<String>> response : responses) {
+            assertEquals(200, response.join().statusCode());
+            assertEquals(BODY, response.join().body());
+        }
+        server.verify(1, getRequestedFor(urlEqualTo("/slow")));
+    }
+
+    @Test
+    void testConcurrentBodyHandlers() {
+        final CompletableFuture<Response<byte[]>> bytes = client.send(request("/slow").build(),
+                Response.BodyHandlers.ofByteArray()).toCompletableFuture();
+        final CompletableFuture<Response<String>> string = client.send(request("/slow").build(),
+                Response.BodyHandlers.ofString()).toCompletableFuture();
+        final CompletableFuture<Response<byte[]>> other = client.send(request("/slow").build(),
+                Response.BodyHandlers.ofByteArray()).toCompletableFuture();
+
+        // Each waiter has an independent copy of the data
+        bytes.join().body()[0] = 'X';
+        assertEquals(BODY, new String(other.join().body(), UTF_8));
+        assertEquals(BODY, string.join().body());
+        server.verify(1, getRequestedFor(urlEqualTo("/slow")));
+    }
+
+    @Test
+    void testStreamingBodyHandlers() throws IOException {
+        // Small responses are shared, even with streaming body handlers
+        final List<CompletableFuture<Response<InputStream>>> responses = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++) {
+            responses.add(client.send(request("/slow").build(), Response.BodyHandlers.ofInputStream())
+                    .toCompletableFuture());
+        }
+
+        for (final CompletableFuture<Response<InputStream>> response : responses) {
+            try (final InputStream input = response.join().body()) {
+                assertEquals(BODY, IOUtils.toString(input, UTF_8));
+            }
+        }
+        server.verify(1, getRequestedFor(urlEqualTo("/slow")));
+    }
+
+    @Test
+    void testLargeResponses() {
+        final byte[] data = new byte[3 * 1024 * 1024];
+        Arrays.fill(data, (byte) 'a');
+        server.stubFor(get(urlEqualTo("/large"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(DELAY).withBody(data)));
+
+        final List<CompletableFuture<Response<byte[]>>> responses = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++) {
+            responses.add(client.send(request("/large").build(), Response.BodyHandlers.ofByteArray())
+                    .toCompletableFuture());
+        }
+
+        // Large responses are not buffered for sharing, so each waiter makes its own request
+        for (final CompletableFuture<Response<byte[]>> response : responses) {
+            assertEquals(200, response.join().statusCode());
+            assertArrayEquals(data, response.join().body());
+        }
+        server.verify(COUNT, getRequestedFor(urlEqualTo("/large")));
+    }
+
+    @Test
+    void testUnshareableResponses() throws Exception {
+        final byte[] data = new byte[3 * 1024 * 1024];
+        Arrays.fill(data, (byte) 'a');
+        server.stubFor(get(urlEqualTo("/large"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(DELAY).withBody(data)));
+
+        // The leading request handles its body slowly
+        final CountDownLatch latch = new CountDownLatch(1);
+        final CompletableFuture<Response<byte[]>> leader = client.send(request("/large").build(), responseInfo -> {
+            try {
+                latch.await(10, SECONDS);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return responseInfo.body().array();
+        }).toCompletableFuture();
+
+        final List<CompletableFuture<Response<byte[]>>> responses = new ArrayList<>();
+        for (int i = 1; i < COUNT; i++) {
+            responses.add(client.send(request("/large").build(), Response.BodyHandlers.ofByteArray())
+                    .toCompletableFuture());
+        }
+
+        // Waiting requests are released as soon as the response headers show it cannot be shared
+        for (final CompletableFuture<Response<byte[]>> response : responses) {
+            assertArrayEquals(data, response.join().body());
+        }
+        assertFalse(leader.isDone());
+        latch.countDown();
+        assertArrayEquals(data, leader.join().body());
+        server.verify(COUNT, getRequestedFor(urlEqualTo("/large")));
+    }
+
+    @Test
+    void testShareable() {
+        final URI uri = URI.create("https://example.com/resource");
+        assertTrue(DefaultClient.shareable(info(uri, "1024")));
+        assertFalse(DefaultClient.shareable(info(uri, Integer.toString(2 * 1024 * 1024))));
+        assertFalse(DefaultClient.shareable(info(uri, "invalid")));
+        assertFalse(DefaultClient.shareable(new BufferedResponseInfo(uri, 200,
+                        Headers.of(Collections.emptyMap()), new byte[0])));
+    }
+
+    @Test
+    void testDifferentHeaders() {
+        final CompletableFuture<Response<String>> turtle = client.send(request("/slow")
+                .header("Accept", "text/turtle").build(), Response.BodyHandlers.ofString()).toCompletableFuture();
+        final CompletableFuture<Response<String>> jsonld = client.send(request("/slow")
+                .header("Accept", "application/ld+json").build(), Response.BodyHandlers.ofString())
+            .toCompletableFuture();
+
+        assertEquals(BODY, turtle.join().body());
+        assertEquals(BODY, jsonld.join().body());
+        server.verify(2, getRequestedFor(urlEqualTo("/slow")));
+    }
+
+    @Test
+    void testDifferentSessions() {
+        final Client session = client.session(Session.anonymous());
+        final CompletableFuture<Response<String>> first = client.send(request("/slow").build(),
+                Response.BodyHandlers.ofString()).toCompletableFuture();
+        final CompletableFuture<Response<String>> second = session.send(request("/slow").build(),
+                Response.BodyHandlers.ofString()).toCompletableFuture();
+
+        assertEquals(BODY, first.join().body());
+        assertEquals(BODY, second.join().body());
+        server.verify(2, getRequestedFor(urlEqualTo("/slow")));
+    }
+
+    @Test
+    void testSequentialRequests() {
+        assertEquals(BODY, client.send(request("/slow").build(), Response.BodyHandlers.ofString())
+                .toCompletableFuture().join().body());
+        assertEquals(BODY, client.send(request("/slow").build(), Response.BodyHandlers.ofString())
+                .toCompletableFuture().join().body());
+        server.verify(2, getRequestedFor(urlEqualTo("/slow")));
+    }
+
+    @Test
+    void testUnsafeRequests() {
+        server.stubFor(post(urlEqualTo("/slow"))
+                .willReturn(aResponse().withStatus(204).withFixedDelay(DELAY)));
+
+        final List<CompletableFuture<Response<Void>>> responses = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++) {
+            responses.add(client.send(request("/slow").POST(Request.BodyPublishers.ofString(BODY)).build(),
+                        Response.BodyHandlers.discarding()).toCompletableFuture());
+        }
+        responses.forEach(response -> assertEquals(204, response.join().statusCode()));
+        server.verify(COUNT, postRequestedFor(urlEqualTo("/slow")));
+    }
+
+    @Test
+    void testConcurrentErrors() {
+        server.stubFor(get(urlEqualTo("/unauthorized"))
+                .willReturn(aResponse().withStatus(401).withFixedDelay(DELAY)
+                    .withHeader("WWW-Authenticate", "Unknown realm=\"test\"")));
+
+        final List<CompletableFuture<Response<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++) {
+            responses.add(client.send(request("/unauthorized").build(), Response.BodyHandlers.ofString())
+                    .toCompletableFuture());
+        }
+        responses.forEach(response -> assertEquals(401, response.join().statusCode()));
+        server.verify(1, getRequestedFor(urlEqualTo("/unauthorized")));
+    }
+
+    static BufferedResponseInfo info(final URI uri, final String length) {
+        return new BufferedResponseInfo(uri, 200,
+                Headers.of(Collections.singletonMap("Content-Length", Collections.singletonList(length))),
+                new byte[0]);
+    }
+
+    static Request.Builder request(final String path) {
+        return Request.newBuilder(URI.create(server.baseUrl() + path));
+    }
+}
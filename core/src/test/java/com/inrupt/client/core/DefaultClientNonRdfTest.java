@@ -34,10 +34,13 @@ import com.inrupt.client.auth.Session;
 import com.inrupt.client.openid.OpenIdConfig;
 import com.inrupt.client.openid.OpenIdSession;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.security.KeyPair;
 import java.time.Instant;
 import java.util.*;
@@ -120,6 +123,117 @@ class DefaultClientNonRdfTest {
         assertEquals(201, response.statusCode());
     }
 
+    @Test
+    void testOfStreamPublisherOpenidSession() {
+        final Map<String, Object> claims = new HashMap<>();
+        claims.put("webid", WEBID);
+        claims.put("sub", SUB);
+        claims.put("iss", ISS);
+        claims.put("azp", AZP);
+        final String token = generateIdToken(claims);
+
+        final Request request = Request.newBuilder()
+                .uri(URI.create(baseUri.get() + "/postStringContainer/"))
+                .header("Content-Type", "text/plain")
+                .POST(com.inrupt.client.util.IOUtils.stream(out -> {
+                    try {
+                        out.write("Test String 1".getBytes(UTF_8));
+                    } catch (final IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                }))
+                .build();
+
+        final PublicJsonWebKey jwk = getDpopKey("/rsa-key.json");
+        final OpenIdConfig config = new OpenIdConfig();
+        config.setProofKeyPairs(Collections.singletonMap("RS256",
+                    new KeyPair(jwk.getPublicKey(), jwk.getPrivateKey())));
+
+        final Response<Void> response = client.session(OpenIdSession.ofIdToken(token, config))
+            .send(request, Response.BodyHandlers.discarding())
+            .toCompletableFuture().join();
+
+        assertEquals(201, response.statusCode());
+    }
+
+    @Test
+    void testLargeStreamPublisherAfterChallenge() {
+        final Map<String, Object> claims = new HashMap<>();
+        claims.put("webid", WEBID);
+        claims.put("sub", SUB);
+        claims.put("iss", ISS);
+        claims.put("azp", AZP);
+        final String token = generateIdToken(claims);
+
+        // A single-use body that exceeds the replay buffer
+        final byte[] data = new byte[3 * 1024 * 1024];
+        Arrays.fill(data, (byte) 'a');
+        final byte[] end = "END OF BODY".getBytes(UTF_8);
+        System.arraycopy(end, 0, data, data.length - end.length, end.length);
+
+        final Request request = Request.newBuilder()
+                .uri(URI.create(baseUri.get() + "/postLargeContainer/"))
+                .header("Content-Type", "application/octet-stream")
+                .POST(Request.BodyPublishers.ofInputStream(new BufferedInputStream(new ByteArrayInputStream(data))))
+                .build();
+
+        final Response<Void> response = client.session(OpenIdSession.ofIdToken(token))
+            .send(request, Response.BodyHandlers.discarding())
+            .toCompletableFuture().join();
+
+        assertEquals(201, response.statusCode());
+    }
+
+    @Test
+    void testLargeStreamPublisherAnonSession() {
+        final byte[] data = new byte[3 * 1024 * 1024];
+        Arrays.fill(data, (byte) 'a');
+        final byte[] end = "END OF BODY".getBytes(UTF_8);
+        System.arraycopy(end, 0, data, data.length - end.length, end.length);
+
+        // Without credentials, no authorized retry is possible, so the body is never read into memory
+        final Request.BodyPublisher stream = Request.BodyPublishers.ofInputStream(
+                new BufferedInputStream(new ByteArrayInputStream(data)));
+        final Request.BodyPublisher publisher = new Request.BodyPublisher() {
+            @Override
+            public ByteBuffer getBytes() {
+                return fail("The request body should be streamed");
+            }
+
+            @Override
+            public long contentLength() {
+                return stream.contentLength();
+            }
+
+            @Override
+            public InputStream getInputStream() {
+                return stream.getInputStream();
+            }
+
+            @Override
+            public boolean isStreaming() {
+                return stream.isStreaming();
+            }
+
+            @Override
+            public boolean isRepeatable() {
+                return stream.isRepeatable();
+            }
+        };
+
+        final Request request = Request.newBuilder()
+                .uri(URI.create(baseUri.get() + "/postPublicContainer/"))
+                .header("Content-Type", "application/octet-stream")
+                .POST(publisher)
+                .build();
+
+        final Response<Void> response = client.session(Session.anonymous())
+            .send(request, Response.BodyHandlers.discarding())
+            .toCompletableFuture().join();
+
+        assertEquals(201, response.statusCode());
+    }
+
     @Test
     void testOfStringPublisherUmaAnonSession() {
         final Request request = Request.newBuilder()
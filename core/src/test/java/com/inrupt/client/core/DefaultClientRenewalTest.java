@@ -0,0 +1,172 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.core;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.inrupt.client.core.DefaultClientNonRdfTest.generateIdToken;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.inrupt.client.Client;
+import com.inrupt.client.ClientProvider;
+import com.inrupt.client.Request;
+import com.inrupt.client.Response;
+import com.inrupt.client.auth.Authenticator;
+import com.inrupt.client.auth.Challenge;
+import com.inrupt.client.auth.Credential;
+import com.inrupt.client.auth.ReactiveAuthorization;
+import com.inrupt.client.auth.Session;
+import com.inrupt.client.openid.OpenIdConfig;
+import com.inrupt.client.openid.OpenIdSession;
+import com.inrupt.client.spi.AuthenticationProvider;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class DefaultClientRenewalTest {
+
+    private static final WireMockServer server = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+    private static final Client client = ClientProvider.getClient();
+
+    @BeforeAll
+    static void setup() {
+        server.start();
+        server.stubFor(any(urlEqualTo("/renew"))
+                .atPriority(2)
+                .willReturn(aResponse().withStatus(401).withHeader("WWW-Authenticate", "Bearer")));
+        server.stubFor(get(urlEqualTo("/renew"))
+                .atPriority(1)
+                .withHeader("Authorization", matching("Bearer .+"))
+                .willReturn(aResponse().withStatus(200)));
+        server.stubFor(any(urlEqualTo("/ticket"))
+                .atPriority(2)
+                .willReturn(aResponse().withStatus(401).withHeader("WWW-Authenticate", "UMA ticket=\"ticket\"")));
+        server.stubFor(any(urlEqualTo("/ticket"))
+                .atPriority(1)
+                .withHeader("Authorization", matching("Bearer .+"))
+                .willReturn(aResponse().withStatus(200)));
+    }
+
+    @AfterAll
+    static void teardown() {
+        server.stop();
+    }
+
+    @Test
+    void testRenewAhead() {
+        final Map<String, Object> claims = new HashMap<>();
+        claims.put("webid", "https://id.example/username");
+        claims.put("sub", "username");
+        claims.put("iss", "https://iss.example");
+        claims.put("azp", "https://app.example");
+        claims.put("exp", Instant.now().plusSeconds(6).getEpochSecond());
+
+        final OpenIdConfig config = new OpenIdConfig();
+        config.setRefreshAheadRatio(0.25);
+        final Client session = client.session(OpenIdSession.ofIdToken(generateIdToken(claims), config));
+        final Request request = Request.newBuilder(URI.create(server.baseUrl() + "/renew")).build();
+
+        // The first request negotiates a token
+        assertEquals(200, session.send(request, Response.BodyHandlers.discarding())
+                .toCompletableFuture().join().statusCode());
+        server.verify(1, getRequestedFor(urlEqualTo("/renew")).withoutHeader("Authorization"));
+        server.verify(0, headRequestedFor(urlEqualTo("/renew")));
+
+        // Once due, the cached token is still used while a replacement is negotiated in the background
+        await().atMost(5, SECONDS).pollInterval(100, MILLISECONDS).until(() -> {
+            assertEquals(200, session.send(request, Response.BodyHandlers.discarding())
+                    .toCompletableFuture().join().statusCode());
+            return !server.findAll(headRequestedFor(urlEqualTo("/renew"))).isEmpty();
+        });
+        server.verify(1, getRequestedFor(urlEqualTo("/renew")).withoutHeader("Authorization"));
+        server.verify(1, headRequestedFor(urlEqualTo("/renew")));
+    }
+
+    @Test
+    void testNoRenewalOfUnsafeTokens() {
+        final Map<String, Object> claims = new HashMap<>();
+        claims.put("webid", "https://id.example/username");
+        claims.put("sub", "username");
+        claims.put("iss", "https://iss.example");
+        claims.put("azp", "https://app.example");
+        claims.put("exp", Instant.now().plusSeconds(60).getEpochSecond());
+
+        final OpenIdConfig config = new OpenIdConfig();
+        config.setRefreshAheadRatio(0.25);
+        final Client session = DefaultClient.newBuilder()
+            .authorization(new ReactiveAuthorization(Collections.singletonList(new TicketProvider())))
+            .build().session(OpenIdSession.ofIdToken(generateIdToken(claims), config));
+        final URI uri = URI.create(server.baseUrl() + "/ticket");
+
+        // A token negotiated for a write is scoped to that method
+        assertEquals(200, session.send(Request.newBuilder(uri).PUT(Request.BodyPublishers.ofString("data")).build(),
+                    Response.BodyHandlers.discarding()).toCompletableFuture().join().statusCode());
+
+        // A read-only probe would replace the token with one for reading only, so it is not renewed
+        await().during(3, SECONDS).atMost(5, SECONDS).pollInterval(100, MILLISECONDS).until(() ->
+                session.send(Request.newBuilder(uri).build(), Response.BodyHandlers.discarding())
+                    .toCompletableFuture().join().statusCode() == 200
+                && server.findAll(headRequestedFor(urlEqualTo("/ticket"))).isEmpty());
+    }
+
+    static class TicketProvider implements AuthenticationProvider {
+        @Override
+        public Set<String> getSchemes() {
+            return Collections.singleton("UMA");
+        }
+
+        @Override
+        public Authenticator getAuthenticator(final Challenge challenge) {
+            return new Authenticator() {
+                @Override
+                public String getName() {
+                    return "Ticket";
+                }
+
+                @Override
+                public int getPriority() {
+                    return 1;
+                }
+
+                @Override
+                public CompletionStage<Credential> authenticate(final Session session, final Request request,
+                        final Set<String> algorithms) {
+                    return CompletableFuture.completedFuture(new Credential("Bearer", URI.create("https://as.example"),
+                                "token-" + request.method(), Instant.now().plusSeconds(6), null, null));
+                }
+            };
+        }
+    }
+}
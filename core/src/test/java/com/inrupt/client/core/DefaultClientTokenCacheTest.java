@@ -0,0 +1,116 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.core;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.inrupt.client.core.DefaultClientNonRdfTest.generateIdToken;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.inrupt.client.Client;
+import com.inrupt.client.ClientProvider;
+import com.inrupt.client.Request;
+import com.inrupt.client.Response;
+import com.inrupt.client.openid.OpenIdSession;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DefaultClientTokenCacheTest {
+
+    private static final WireMockServer server = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+    private static final Client client = ClientProvider.getClient();
+
+    @BeforeAll
+    static void setup() {
+        server.start();
+    }
+
+    @AfterAll
+    static void teardown() {
+        server.stop();
+    }
+
+    @BeforeEach
+    void reset() {
+        server.resetAll();
+        server.stubFor(any(urlPathMatching("/.*"))
+                .atPriority(3)
+                .willReturn(aResponse().withStatus(401).withHeader("WWW-Authenticate", "Bearer")));
+        server.stubFor(get(urlPathMatching("/shared/.*"))
+                .atPriority(2)
+                .withHeader("Authorization", matching("Bearer .+"))
+                .willReturn(aResponse().withStatus(200)));
+        server.stubFor(get(urlEqualTo("/strict/first"))
+                .atPriority(1)
+                .withHeader("Authorization", matching("Bearer .+"))
+                .willReturn(aResponse().withStatus(200)));
+    }
+
+    @Test
+    void testSiblingTokens() {
+        final Client session = client.session(OpenIdSession.ofIdToken(idToken()));
+        for (final String path : new String[] {"/shared/a", "/shared/b", "/shared/c/d"}) {
+            assertEquals(200, send(session, path));
+        }
+
+        // Only the first resource required a negotiation
+        server.verify(1, getRequestedFor(urlPathMatching("/shared/.*")).withoutHeader("Authorization"));
+        server.verify(3, getRequestedFor(urlPathMatching("/shared/.*")).withHeader("Authorization", matching(".+")));
+    }
+
+    @Test
+    void testRejectedTokens() {
+        final Client session = client.session(OpenIdSession.ofIdToken(idToken()));
+        assertEquals(200, send(session, "/strict/first"));
+
+        // The shared token is rejected, after which it is no longer offered within the container
+        assertEquals(401, send(session, "/strict/second"));
+        assertEquals(401, send(session, "/strict/third"));
+        server.verify(0, getRequestedFor(urlEqualTo("/strict/second")).withoutHeader("Authorization"));
+        server.verify(2, getRequestedFor(urlEqualTo("/strict/second")).withHeader("Authorization", matching(".+")));
+
+        // Instead, a new token is negotiated up front from the learned challenge
+        server.verify(0, getRequestedFor(urlEqualTo("/strict/third")).withoutHeader("Authorization"));
+        server.verify(2, getRequestedFor(urlEqualTo("/strict/third")).withHeader("Authorization", matching(".+")));
+    }
+
+    static int send(final Client session, final String path) {
+        final Request request = Request.newBuilder(URI.create(server.baseUrl() + path)).build();
+        return session.send(request, Response.BodyHandlers.discarding()).toCompletableFuture().join().statusCode();
+    }
+
+    static String idToken() {
+        final Map<String, Object> claims = new HashMap<>();
+        claims.put("webid", "https://id.example/username");
+        claims.put("sub", "username");
+        claims.put("iss", "https://iss.example");
+        claims.put("azp", "https://app.example");
+        return generateIdToken(claims);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.inrupt.client.Headers.Link;
+import com.inrupt.client.auth.Challenge;
+import com.inrupt.client.spi.HeaderParser;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class HeaderParserConformanceTest {
+
+    static final HeaderParser reference = new AntlrHeaderParser();
+    static final HeaderParser parser = new DefaultHeaderParser();
+
+    @ParameterizedTest
+    @MethodSource
+    void testLinkConformance(final String header) {
+        final List<String> headers = Collections.singletonList(header);
+        assertEquals(reference.parseLink(headers), parser.parseLink(headers));
+    }
+
+    static Stream<String> testLinkConformance() {
+        return Stream.of(
+                "<http://www.w3.org/ns/ldp#Resource>; rel=\"type\", <http://www.w3.org/ns/ldp#RDFSource>; rel=\"type\"",
+                "<http://www.w3.org/ns/ldp#BasicContainer>; rel=\"type\", " +
+                    "<http://www.w3.org/ns/ldp#Container>; rel=\"type\", " +
+                    "<http://www.w3.org/ns/ldp#Resource>; rel=\"type\", " +
+                    "<https://storage.example/alice/.meta>; rel=\"describedby\"",
+                "<https://storage.example/alice/.acl>; rel=\"acl\"",
+                "<https://storage.example/alice/resource?ext=acr>; rel=\"acl\"",
+                "<http://www.w3.org/ns/pim/space#Storage>; rel=\"type\", " +
+                    "<https://storage.example/.well-known/solid>; " +
+                    "rel=\"http://www.w3.org/ns/solid/terms#storageDescription\"",
+                "<https://id.example/alice/profile/card#me>; rel=\"http://www.w3.org/ns/solid/terms#owner\"",
+                "<https://example.com/%E8%8B%97%E6%9D%A1>; rel=\"param1\" ; type=\"param2\"",
+                "<https://example.com/%E8%8B%97%E6%9D%A1>; rel=\"param1\";type=\"param2\"",
+                "<https://one.example.com>, <https://two.example.com>, <https://three.example.com>",
+                "<https://one.example.com>; rel=\"preconnect\" , <https://two.example.com>; rel=\"meta\"",
+                "<../../team/>",
+                "</about/team/>",
+                "<https://example.com/苗条>",
+                "<urn:example:6e8bc430-9c3a-11d9>",
+                "<did:web:resource.example/path>",
+                "<https://example.com>; rel=token",
+                "<https://example.com>; title=\"with \\\"escaped\\\" quotes\"",
+                "<https://example.com>; rel==\"previous\"",
+                "<http://example.com>; type==text; rel=\"previous\";title=\"previous chapter\"",
+                "<http://example.com>; \"type\"=\"text\"; rel=\"previous\";title=\"previous chapter\"",
+                "",
+                "https://bad.example",
+                "rel=\"missingUri\"; type=\"text\"",
+                "<https://example.com/{}>",
+                "<https://example.com/|>",
+                "<https://example.com/\t>",
+                "<https://example.com />",
+                "<https://example.com/<>/test>",
+                "<https://example.com/>/test>",
+                "<https://example.com/>/test/>/test");
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    void testWwwAuthenticateConformance(final String header) {
+        final List<String> headers = Collections.singletonList(header);
+        assertEquals(reference.parseWwwAuthenticate(headers).getChallenges(),
+                parser.parseWwwAuthenticate(headers).getChallenges());
+    }
+
+    static Stream<String> testWwwAuthenticateConformance() {
+        return Stream.of(
+                "UMA ticket=\"eyJhbGciOiJFUzI1NiJ9\", as_uri=\"https://uma.inrupt.com\"",
+                "UMA ticket=\"eyJhbGciOiJFUzI1NiJ9\", as_uri=\"https://uma.inrupt.com\", Bearer, " +
+                    "DPoP algs=\"ES256 PS256\"",
+                "Bearer realm=\"Solid\", DPoP realm=\"Solid\", algs=\"ES256 PS256\"",
+                "Bearer error=\"invalid_token\", error_description=\"The access token expired\"",
+                "Bearer scope=\"openid webid\", error=\"insufficient_scope\"",
+                "Bearer",
+                "Bearer,DPoP algs=\"ES256\"",
+                "Unknown, Bearer, DPoP algs=\"ES256\", UMA ticket=\"ticket-12345\", as_uri=\"https://example.test\"",
+                "uma as_uri=\"https://example.test\", ticket=value, dpop algs=\"ES256 RS256\"",
+                "UMA as_uri=\"https://example.test\", ticket=value, basic realm=\"protected\"",
+                "Bearer, UMA as_uri=\"https://example.test\", GNAP ticket=1234567890",
+                "Basic abcdef== realm=basic key=\"a value\"",
+                "Newauth realm=\"apps\", type=1, title=\"Login to \\\"apps\\\"\", Basic realm=\"simple\"",
+                "Basic realm==basic, UMA =not =valid",
+                "In=Valid realm=\"basic\"");
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    void testWacAllowConformance(final String header) {
+        final List<String> headers = Collections.singletonList(header);
+        assertEquals(reference.parseWacAllow(headers).getAccessParams(),
+                parser.parseWacAllow(headers).getAccessParams());
+    }
+
+    static Stream<String> testWacAllowConformance() {
+        return Stream.of(
+                "user=\"read write append control\",public=\"read\"",
+                "user=\"read write\", public=\"\"",
+                "user=\"read\"",
+                "WAC-Allow: user=\"read\"",
+                "WAC-Allow:",
+                "WAC-Allow: user=\"\"",
+                "WAC-Allow: user=\" \"",
+                "WAC-Allow: user=\"    read   \"",
+                "WAC-Allow: user=\"read    write      append\"",
+                "WAC-Allow: user=\"read\", public=\"read\", other=\"read\"",
+                "WAC-Allow: user=\"read\" , public=\"read\"",
+                "WAC-Allow: user=\"read\",, public=\"read\"",
+                "WAC-Allow: ,,user=\"read\", public=\"read\"",
+                "user=\"read-write\", public=\"read\"",
+                "user=read, public=\"read\"");
+    }
+
+    @Test
+    void testCompactLinks() {
+        // Unlike the reference grammar, the scanner does not require whitespace between links
+        final List<Link> links = parser.parseLink(Collections.singletonList(
+                    "<https://one.example>;rel=\"type\",<https://two.example>;rel=\"acl\""));
+        assertEquals(Arrays.asList(
+                    Link.of(URI.create("https://one.example"), "type"),
+                    Link.of(URI.create("https://two.example"), "acl")), links);
+    }
+
+    @Test
+    void testDeviations() {
+        // The reference implementation reports a missing scheme and retains whitespace in permission groups
+        assertTrue(parser.parseWwwAuthenticate(Collections.singletonList("")).getChallenges().isEmpty());
+        assertEquals(Collections.singletonMap("user", Collections.singleton("read")),
+                parser.parseWacAllow(Collections.singletonList("user = \"read\"")).getAccessParams());
+    }
+
+    @Test
+    void testMultipleHeaders() {
+        assertEquals(Arrays.asList(Challenge.of("Bearer"), Challenge.of("DPoP")),
+                parser.parseWwwAuthenticate(Arrays.asList("Bearer", "DPoP")).getChallenges());
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.core;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.jose4j.keys.EllipticCurves;
+import org.junit.jupiter.api.Test;
+
+class KeyPairPoolTest {
+
+    @Test
+    void testPrefilledPool() {
+        final AtomicInteger count = new AtomicInteger();
+        final List<Runnable> tasks = new ArrayList<>();
+        final KeyPairPool pool = new KeyPairPool(generator(count), 3, tasks::add);
+
+        pool.refill();
+        assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        assertEquals(3, pool.available());
+        assertEquals(3, count.get());
+
+        // Taking from the pool schedules a refill, rather than generating on the calling thread
+        final Set<KeyPair> keypairs = new HashSet<>();
+        keypairs.add(pool.take());
+        keypairs.add(pool.take());
+        assertEquals(1, pool.available());
+        assertEquals(3, count.get());
+        assertEquals(1, tasks.size());
+
+        tasks.remove(0).run();
+        assertEquals(3, pool.available());
+        assertEquals(5, count.get());
+        keypairs.add(pool.take());
+        assertEquals(3, keypairs.size());
+    }
+
+    @Test
+    void testEmptyPool() {
+        final AtomicInteger count = new AtomicInteger();
+        final KeyPairPool pool = new KeyPairPool(generator(count), 2, task -> { });
+        assertNotNull(pool.take());
+        assertNotEquals(pool.take(), pool.take());
+        assertEquals(3, count.get());
+        assertEquals(0, pool.available());
+    }
+
+    @Test
+    void testGeneratorFailure() {
+        final AtomicInteger count = new AtomicInteger();
+        final Supplier<KeyPair> generator = generator(count);
+        final KeyPairPool pool = new KeyPairPool(() -> {
+            if (count.get() == 1) {
+                throw new AuthenticationException("Unable to generate keypair");
+            }
+            return generator.get();
+        }, 2, Runnable::run);
+
+        pool.refill();
+        assertEquals(1, pool.available());
+
+        // A later refill resumes
+        count.incrementAndGet();
+        assertNotNull(pool.take());
+        assertEquals(2, pool.available());
+    }
+
+    @Test
+    void testDefaultPool() {
+        final KeyPairPool pool = KeyPairPool.getDefault();
+        assertNotNull(pool.take());
+        await().atMost(10, SECONDS).until(() -> pool.available() == KeyPairPool.DEFAULT_SIZE);
+    }
+
+    @Test
+    void testInvalidSize() {
+        final AtomicInteger count = new AtomicInteger();
+        assertThrows(IllegalArgumentException.class, () -> new KeyPairPool(generator(count), 0, Runnable::run));
+    }
+
+    static Supplier<KeyPair> generator(final AtomicInteger count) {
+        return () -> {
+            count.incrementAndGet();
+            return DefaultDpopService.defaultKeyPair(EllipticCurves.P256);
+        };
+    }
+}
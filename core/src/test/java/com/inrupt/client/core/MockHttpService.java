@@ -146,6 +146,27 @@ class MockHttpService {
                         .withHeader("WWW-Authenticate", "Bearer, DPoP algs=\"ES256\", " +
                             "UMA ticket=\"ticket-67890\", as_uri=\"" + wireMockServer.baseUrl() + "\"")));
 
+        wireMockServer.stubFor(post(urlEqualTo("/postLargeContainer/"))
+                    .atPriority(1)
+                    .withHeader("User-Agent", equalTo(USER_AGENT))
+                    .withRequestBody(matching("(?s).*END OF BODY$"))
+                    .withHeader("Authorization", containing("Bearer"))
+                    .willReturn(aResponse()
+                        .withStatus(201)));
+
+        wireMockServer.stubFor(post(urlEqualTo("/postLargeContainer/"))
+                    .atPriority(2)
+                    .withHeader("User-Agent", equalTo(USER_AGENT))
+                    .willReturn(aResponse()
+                        .withStatus(401)
+                        .withHeader("WWW-Authenticate", "Bearer")));
+
+        wireMockServer.stubFor(post(urlEqualTo("/postPublicContainer/"))
+                    .withHeader("User-Agent", equalTo(USER_AGENT))
+                    .withRequestBody(matching("(?s).*END OF BODY$"))
+                    .willReturn(aResponse()
+                        .withStatus(201)));
+
         wireMockServer.stubFor(get(urlEqualTo("/solid.png"))
                     .withHeader("User-Agent", equalTo(USER_AGENT))
                     .willReturn(aResponse()
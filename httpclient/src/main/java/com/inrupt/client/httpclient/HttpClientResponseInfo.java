@@ -23,18 +23,22 @@ package com.inrupt.client.httpclient;
 import com.inrupt.client.Headers;
 import com.inrupt.client.Response.ResponseInfo;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpResponse;
 import java.nio.ByteBuffer;
 
 class HttpClientResponseInfo implements ResponseInfo {
 
-    private final HttpResponse<byte[]> response;
-    private final ByteBuffer responseBody;
+    private final HttpResponse<InputStream> response;
+    private ByteBuffer responseBody;
+    private boolean consumed;
 
-    public HttpClientResponseInfo(final HttpResponse<byte[]> response, final ByteBuffer body) {
+    public HttpClientResponseInfo(final HttpResponse<InputStream> response) {
         this.response = response;
-        this.responseBody = body;
     }
 
     @Override
@@ -54,6 +58,45 @@ class HttpClientResponseInfo implements ResponseInfo {
 
     @Override
     public ByteBuffer body() {
+        if (responseBody == null) {
+            if (consumed) {
+                throw new IllegalStateException("The response body has already been consumed as a stream");
+            }
+            consumed = true;
+            try (final InputStream input = response.body()) {
+                responseBody = ByteBuffer.wrap(input.readAllBytes());
+            } catch (final IOException ex) {
+                throw new UncheckedIOException("Unable to handle response data", ex);
+            }
+        }
         return responseBody;
     }
+
+    @Override
+    public InputStream bodyAsInputStream() {
+        if (responseBody != null) {
+            return new ByteArrayInputStream(responseBody.array());
+        }
+        if (consumed) {
+            throw new IllegalStateException("The response body has already been consumed as a stream");
+        }
+        consumed = true;
+        return response.body();
+    }
+
+    /**
+     * Release the response body if it was not consumed by the body handler.
+     *
+     * <p>The stream is closed without reading any remaining data, which may be arbitrarily large.
+     */
+    void release() {
+        if (!consumed) {
+            consumed = true;
+            try {
+                response.body().close();
+            } catch (final IOException ex) {
+                HttpClientService.LOGGER.debug("Unable to release response data: {}", ex.getMessage());
+            }
+        }
+    }
 }
@@ -30,7 +30,6 @@ import com.inrupt.client.spi.HttpService;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletionStage;
@@ -43,7 +42,7 @@ import org.slf4j.LoggerFactory;
  */
 public class HttpClientService implements HttpService {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientService.class);
+    static final Logger LOGGER = LoggerFactory.getLogger(HttpClientService.class);
 
     private final HttpClient client;
 
@@ -63,8 +62,7 @@ public class HttpClientService implements HttpService {
     public <T> CompletionStage<Response<T>> send(final Request request, final Response.BodyHandler<T> handler) {
         final var builder = HttpRequest.newBuilder(request.uri());
 
-        final var publisher = request.bodyPublisher().map(Request.BodyPublisher::getBytes)
-            .map(buf -> HttpRequest.BodyPublishers.ofByteArray(buf.array()))
+        final var publisher = request.bodyPublisher().map(HttpClientService::prepareBody)
             .orElseGet(HttpRequest.BodyPublishers::noBody);
 
         builder.method(request.method(), publisher);
@@ -83,19 +81,36 @@ public class HttpClientService implements HttpService {
             }
         }
 
-        return client.sendAsync(req, HttpResponse.BodyHandlers.ofByteArray())
-            .thenApply(res -> {
+        // The body handler blocks while it reads from the network stream, which is supplied by the client
+        // executor. The handler therefore runs on a separate thread, so that a bounded executor is not exhausted.
+        return client.sendAsync(req, HttpResponse.BodyHandlers.ofInputStream())
+            .thenApplyAsync(res -> {
                 if (LOGGER.isDebugEnabled()) {
                     LOGGER.debug("Response Status Code: {}", res.statusCode());
                     if (LOGGER.isTraceEnabled()) {
                         LOGGER.trace("Response Headers: {}", res.headers());
                     }
                 }
-                final var info = new HttpClientResponseInfo(res, ByteBuffer.wrap(res.body()));
-                return new HttpClientResponse<>(res.uri(), info, handler.apply(info));
+                final var info = new HttpClientResponseInfo(res);
+                try {
+                    return new HttpClientResponse<>(res.uri(), info, handler.apply(info));
+                } finally {
+                    info.release();
+                }
             });
     }
 
+    static HttpRequest.BodyPublisher prepareBody(final Request.BodyPublisher publisher) {
+        if (publisher.isStreaming()) {
+            final var stream = HttpRequest.BodyPublishers.ofInputStream(publisher::getInputStream);
+            if (publisher.contentLength() > 0) {
+                return HttpRequest.BodyPublishers.fromPublisher(stream, publisher.contentLength());
+            }
+            return stream;
+        }
+        return HttpRequest.BodyPublishers.ofByteArray(publisher.getBytes().array());
+    }
+
     /**
      * Create an HTTP client service with a pre-configured {@link HttpClient}.
      *
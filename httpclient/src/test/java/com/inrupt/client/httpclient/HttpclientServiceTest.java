@@ -20,8 +20,70 @@
  */
 package com.inrupt.client.httpclient;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.inrupt.client.Request;
+import com.inrupt.client.Response;
 import com.inrupt.client.test.HttpServices;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
 class HttpclientServiceTest extends HttpServices {
 
+    private static final String EXECUTOR = "client-executor";
+    private static final byte[] DATA = new byte[4 * 1024 * 1024];
+    private static final WireMockServer server = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+
+    @BeforeAll
+    static void startServer() {
+        server.start();
+        server.stubFor(get(urlEqualTo("/large"))
+                .willReturn(aResponse().withStatus(200).withBody(DATA)));
+        server.stubFor(get(urlEqualTo("/slow"))
+                .willReturn(aResponse().withStatus(200).withBody(DATA).withChunkedDribbleDelay(50, 10000)));
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    @Test
+    void testHandlerExecutor() throws Exception {
+        // Body handlers block while reading from the network, so they do not run on the client executor
+        final ExecutorService executor = Executors.newSingleThreadExecutor(task -> new Thread(task, EXECUTOR));
+        try {
+            final HttpClientService service = HttpClientService.ofHttpClient(HttpClient.newBuilder()
+                    .executor(executor).build());
+            final Request request = Request.newBuilder(URI.create(server.baseUrl() + "/large")).build();
+            final Response<String> response = service.send(request, responseInfo -> {
+                assertArrayEquals(DATA, responseInfo.body().array());
+                return Thread.currentThread().getName();
+            }).toCompletableFuture().get(10, SECONDS);
+            assertEquals(200, response.statusCode());
+            assertNotEquals(EXECUTOR, response.body());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testUnconsumedBody() throws Exception {
+        // An unread body is closed rather than downloaded in full
+        final HttpClientService service = new HttpClientService();
+        final Response<Void> response = service.send(Request.newBuilder(URI.create(server.baseUrl() + "/slow"))
+                .build(), Response.BodyHandlers.discarding()).toCompletableFuture().get(5, SECONDS);
+        assertEquals(200, response.statusCode());
+    }
 }
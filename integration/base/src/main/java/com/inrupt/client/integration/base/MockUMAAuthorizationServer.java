@@ -61,6 +61,17 @@ class MockUMAAuthorizationServer {
         wireMockServer.stubFor(post(urlPathMatching("/" + Utils.UMA_TOKEN_ENDPOINT))
                 .withRequestBody(WireMock.containing("claim_token"))
                 .withHeader(USER_AGENT_HEADER, equalTo(USER_AGENT))
+                .willReturn(aResponse()
+                        .withStatus(Utils.SUCCESS)
+                        .withHeader(Utils.CONTENT_TYPE, Utils.APPLICATION_JSON)
+                        .withBody(
+                                "{\"access_token\":\"token-67890\",\"token_type\":\"Bearer\",\"expires_in\":\"3600\","
+                                + "\"pct\":\"pct-12345\"}"
+                        )));
+        wireMockServer.stubFor(post(urlPathMatching("/" + Utils.UMA_TOKEN_ENDPOINT))
+                .withRequestBody(WireMock.containing("pct=pct-12345"))
+                .withRequestBody(WireMock.notContaining("claim_token"))
+                .withHeader(USER_AGENT_HEADER, equalTo(USER_AGENT))
                 .willReturn(aResponse()
                         .withStatus(Utils.SUCCESS)
                         .withHeader(Utils.CONTENT_TYPE, Utils.APPLICATION_JSON)
@@ -82,6 +93,11 @@ class MockUMAAuthorizationServer {
         wireMockServer.stop();
     }
 
+    public int countTokenRequests(final String content) {
+        return wireMockServer.findAll(postRequestedFor(urlPathMatching("/" + Utils.UMA_TOKEN_ENDPOINT))
+                .withRequestBody(WireMock.containing(content))).size();
+    }
+
     private String getResource(final String path, final String baseUrl) {
         return getResource(path)
                 .replace("{{baseUrl}}", baseUrl)
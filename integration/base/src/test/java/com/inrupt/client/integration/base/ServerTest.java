@@ -224,6 +224,33 @@ class ServerTest {
         assertTrue(Utils.isSuccessful(resDelete.statusCode()));
     }
 
+    @Test
+    void testPersistedClaimsToken() {
+        final var session = OpenIdSession.ofIdToken(setupIdToken(webidUrl, MOCK_USERNAME, issuer));
+        final SolidSyncClient client = SolidSyncClient.getClient().session(session);
+        final var resourceUri =
+                URI.create(podUrl + "/" + State.PRIVATE_RESOURCE_PATH + "/persisted");
+        final var reqGet = Request.newBuilder().uri(resourceUri)
+                .header(Utils.ACCEPT, Utils.TEXT_TURTLE).GET().build();
+        final int claims = authServer.countTokenRequests("claim_token=");
+        final int persisted = authServer.countTokenRequests("pct=pct-12345");
+        final int upgraded = authServer.countTokenRequests("rpt=token-67890");
+
+        final var res = client.send(reqGet, Response.BodyHandlers.discarding());
+        assertEquals(Utils.NOT_FOUND, res.statusCode());
+        assertEquals(claims + 1, authServer.countTokenRequests("claim_token="));
+
+        //drop the cached access token so that the next request redeems a new ticket
+        session.reset();
+        final var res2 = client.send(reqGet, Response.BodyHandlers.discarding());
+        assertEquals(Utils.NOT_FOUND, res2.statusCode());
+
+        //the persisted claims token and the RPT stand in for the ID token claims
+        assertEquals(claims + 1, authServer.countTokenRequests("claim_token="));
+        assertEquals(persisted + 1, authServer.countTokenRequests("pct=pct-12345"));
+        assertEquals(upgraded + 1, authServer.countTokenRequests("rpt=token-67890"));
+    }
+
     private Request.BodyPublisher cast(final Resource resource) {
         try {
             return Request.BodyPublishers.ofInputStream(resource.getEntity());
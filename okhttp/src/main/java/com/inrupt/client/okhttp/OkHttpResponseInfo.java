@@ -23,7 +23,9 @@ package com.inrupt.client.okhttp;
 import com.inrupt.client.Headers;
 import com.inrupt.client.Response.ResponseInfo;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.net.URI;
 import java.nio.ByteBuffer;
@@ -33,6 +35,8 @@ import okhttp3.Response;
 class OkHttpResponseInfo implements ResponseInfo {
 
     private final Response response;
+    private ByteBuffer responseBody;
+    private boolean streaming;
 
     public OkHttpResponseInfo(final Response response) {
         this.response = response;
@@ -55,10 +59,37 @@ class OkHttpResponseInfo implements ResponseInfo {
 
     @Override
     public ByteBuffer body() {
-        try {
-            return ByteBuffer.wrap(response.body().bytes());
-        } catch (final IOException ex) {
-            throw new UncheckedIOException("Unable to handle response data", ex);
+        if (responseBody == null) {
+            if (streaming) {
+                throw new IllegalStateException("The response body has already been consumed as a stream");
+            }
+            try {
+                responseBody = ByteBuffer.wrap(response.body().bytes());
+            } catch (final IOException ex) {
+                throw new UncheckedIOException("Unable to handle response data", ex);
+            }
+        }
+        return responseBody;
+    }
+
+    @Override
+    public InputStream bodyAsInputStream() {
+        if (responseBody != null) {
+            return new ByteArrayInputStream(responseBody.array());
+        }
+        if (streaming) {
+            throw new IllegalStateException("The response body has already been consumed as a stream");
+        }
+        streaming = true;
+        return response.body().byteStream();
+    }
+
+    /**
+     * Close the response unless the body handler has taken ownership of the response stream.
+     */
+    void release() {
+        if (!streaming) {
+            response.close();
         }
     }
 }
@@ -85,10 +85,13 @@ public class OkHttpService implements HttpService {
                         LOGGER.trace("Response Headers: {}", res.headers());
                     }
                 }
-                try (final okhttp3.Response r = res) {
-                    final Response.ResponseInfo info = new OkHttpResponseInfo(r);
-                    future.complete(new OkHttpResponse<>(res.request().url().uri(), info, handler.apply(info)));
+                final OkHttpResponseInfo info = new OkHttpResponseInfo(res);
+                try {
+                    final T body = handler.apply(info);
+                    info.release();
+                    future.complete(new OkHttpResponse<>(res.request().url().uri(), info, body));
                 } catch (final RuntimeException ex) {
+                    res.close();
                     future.completeExceptionally(ex);
                 }
             }
@@ -116,8 +119,11 @@ public class OkHttpService implements HttpService {
         if (NO_BODY_METHODS.contains(request.method())) {
             return null;
         }
-        return RequestBody.Companion.create(request.bodyPublisher()
-                .orElseGet(Request.BodyPublishers::noBody).getBytes().array(), mediaType);
+        final Request.BodyPublisher publisher = request.bodyPublisher().orElseGet(Request.BodyPublishers::noBody);
+        if (publisher.isStreaming()) {
+            return new OkHttpRequestBody(publisher, mediaType);
+        }
+        return RequestBody.Companion.create(publisher.getBytes().array(), mediaType);
     }
 
     static okhttp3.Request prepareRequest(final Request request) {
@@ -0,0 +1,151 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.openid;
+
+import com.inrupt.client.ClientCache;
+import com.inrupt.client.spi.ServiceProvider;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jose4j.jwk.HttpsJwks;
+import org.jose4j.jwt.consumer.JwtConsumer;
+import org.jose4j.jwt.consumer.JwtConsumerBuilder;
+import org.jose4j.keys.resolvers.HttpsJwksVerificationKeyResolver;
+import org.jose4j.lang.JoseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Process-wide caches of ID token consumers and the JSON Web Key Sets they use.
+ *
+ * <p>A key set is fetched once per location and then refreshed on a background thread. A token signed with
+ * an unknown key identifier triggers an immediate refetch of the key set. Consumers are thread-safe and are
+ * shared by all configurations with the same validation settings.
+ */
+final class IdTokenConsumers {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdTokenConsumers.class);
+
+    static final Duration REFRESH_INTERVAL = Duration.ofMinutes(5);
+
+    private static final Map<URI, HttpsJwks> keySets = new ConcurrentHashMap<>();
+    private static final ClientCache<String, JwtConsumer> consumers = ServiceProvider.getCacheBuilder()
+        .build(100, Duration.ofHours(1));
+
+    /**
+     * Get an ID token consumer for the validation settings of a configuration.
+     *
+     * @param config the ID token validation configuration
+     * @return the consumer
+     */
+    static JwtConsumer getConsumer(final OpenIdConfig config) {
+        final String key = config.getExpGracePeriodSecs() + "\n" + config.getExpectedAudience() + "\n"
+            + config.getPublicKeyLocation();
+        final JwtConsumer cached = consumers.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        final JwtConsumer consumer = buildConsumer(config);
+        consumers.put(key, consumer);
+        return consumer;
+    }
+
+    /**
+     * Get the shared key set for a location.
+     *
+     * @param location the key set location
+     * @return the key set
+     */
+    static HttpsJwks getKeySet(final URI location) {
+        return keySets.computeIfAbsent(location, uri -> {
+            final HttpsJwks jwks = new HttpsJwks(uri.toString());
+            final long interval = REFRESH_INTERVAL.getSeconds();
+            Scheduler.INSTANCE.scheduleWithFixedDelay(() -> refresh(jwks), interval, interval, TimeUnit.SECONDS);
+            return jwks;
+        });
+    }
+
+    static void refresh(final HttpsJwks jwks) {
+        try {
+            jwks.refresh();
+        } catch (final JoseException | IOException | RuntimeException ex) {
+            // The previously fetched keys remain in use
+            LOGGER.warn("Unable to refresh JSON Web Key Set from {}: {}", jwks.getLocation(), ex.getMessage());
+        }
+    }
+
+    static JwtConsumer buildConsumer(final OpenIdConfig config) {
+        final JwtConsumerBuilder builder = new JwtConsumerBuilder();
+
+        // Required by OpenID Connect
+        builder.setRequireExpirationTime();
+        builder.setExpectedIssuers(true, (String[]) null);
+        builder.setRequireSubject();
+        builder.setRequireIssuedAt();
+
+        // If a grace period is set, allow for some clock skew. The consumer is reused,
+        // so the evaluation time is always the time at which a token is processed.
+        if (config.getExpGracePeriodSecs() > 0) {
+            builder.setAllowedClockSkewInSeconds(config.getExpGracePeriodSecs());
+        }
+
+        // If an expected audience is set, verify that we have the correct value
+        if (config.getExpectedAudience() != null) {
+            builder.setExpectedAudience(true, config.getExpectedAudience());
+        } else {
+            builder.setSkipDefaultAudienceValidation();
+        }
+
+        // If a JWKS location is set, perform signature validation
+        if (config.getPublicKeyLocation() != null) {
+            builder.setVerificationKeyResolver(
+                    new HttpsJwksVerificationKeyResolver(getKeySet(config.getPublicKeyLocation())));
+        } else {
+            builder.setSkipSignatureVerification();
+        }
+
+        return builder.build();
+    }
+
+    static final class Scheduler {
+        static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "inrupt-jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        private Scheduler() {
+            // Prevent instantiation
+        }
+    }
+
+    private IdTokenConsumers() {
+        // Prevent instantiation
+    }
+}
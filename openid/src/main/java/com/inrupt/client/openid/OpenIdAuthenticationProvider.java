@@ -29,7 +29,6 @@ import com.inrupt.client.spi.AuthenticationProvider;
 
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
 /**
@@ -105,8 +104,8 @@ public class OpenIdAuthenticationProvider implements AuthenticationProvider {
         @Override
         public CompletionStage<Credential> authenticate(final Session session, final Request request,
                 final Set<String> algorithms) {
-            return CompletableFuture.completedFuture(session
-                    .getCredential(OpenIdSession.ID_TOKEN, request.uri()).orElse(null));
+            return session.getCredentialAsync(OpenIdSession.ID_TOKEN, request.uri())
+                .thenApply(credential -> credential.orElse(null));
         }
     }
 }
@@ -20,6 +20,8 @@
  */
 package com.inrupt.client.openid;
 
+import com.inrupt.client.auth.CredentialRenewal;
+
 import java.net.URI;
 import java.security.KeyPair;
 import java.util.ArrayList;
@@ -39,6 +41,8 @@ public class OpenIdConfig {
     private int graceSecs = 60; /* default: one minute */
     private URI publicKeyLocation; /* default: null */
     private String audience; /* default: null */
+    private double refreshRatio = CredentialRenewal.DEFAULT_RATIO;
+    private boolean sharedProofKeyPair; /* default: false */
     private Map<String, KeyPair> keypairs = new HashMap<>();
     private List<String> scopes = new ArrayList<>(Arrays.asList("openid", "webid"));
 
@@ -60,6 +64,30 @@ public class OpenIdConfig {
         this.graceSecs = graceSecs;
     }
 
+    /**
+     * Get the fraction of a token's lifetime after which it is refreshed ahead of its expiration.
+     *
+     * @return the refresh-ahead ratio, default is 0.8.
+     */
+    public double getRefreshAheadRatio() {
+        return refreshRatio;
+    }
+
+    /**
+     * Set the fraction of a token's lifetime after which it is refreshed ahead of its expiration.
+     *
+     * <p>The current token continues to be used while it is refreshed in the background. A value
+     * of {@code 1} disables refresh-ahead.
+     *
+     * @param refreshRatio the refresh-ahead ratio, greater than zero and at most one
+     */
+    public void setRefreshAheadRatio(final double refreshRatio) {
+        if (!(refreshRatio > 0 && refreshRatio <= 1)) {
+            throw new IllegalArgumentException("The refresh-ahead ratio must be greater than zero and at most one");
+        }
+        this.refreshRatio = refreshRatio;
+    }
+
     /**
      * Get the expected audience of an ID token.
      *
@@ -131,6 +159,27 @@ public class OpenIdConfig {
         return keypairs;
     }
 
+    /**
+     * Indicate whether sessions for the same client share a default DPoP proof keypair.
+     *
+     * @return true if the default proof keypair is shared; false otherwise, which is the default
+     */
+    public boolean isSharedProofKeyPair() {
+        return sharedProofKeyPair;
+    }
+
+    /**
+     * Share the default DPoP proof keypair among client credentials sessions with the same issuer and client
+     * identifier.
+     *
+     * <p>This only applies when no proof keypairs are configured explicitly.
+     *
+     * @param sharedProofKeyPair whether to share the default proof keypair
+     */
+    public void setSharedProofKeyPair(final boolean sharedProofKeyPair) {
+        this.sharedProofKeyPair = sharedProofKeyPair;
+    }
+
     /**
      * Set any OAuth 2.0 scope values.
      *
@@ -27,6 +27,7 @@ import com.inrupt.client.auth.DPoP;
 import com.inrupt.client.spi.HttpService;
 import com.inrupt.client.spi.JsonService;
 import com.inrupt.client.spi.ServiceProvider;
+import com.inrupt.client.util.DiscoveryCache;
 import com.inrupt.client.util.URIBuilder;
 
 import java.io.IOException;
@@ -35,6 +36,7 @@ import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
@@ -58,11 +60,12 @@ public class OpenIdProvider {
     private static final String REDIRECT_URI = "redirect_uri";
     private static final String EQUALS = "=";
     private static final String ETC = "&";
+    private static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(60);
 
     private final URI issuer;
     private final HttpService httpClient;
     private final JsonService jsonService;
-    private final ClientCache<URI, Metadata> metadataCache;
+    private final DiscoveryCache<Metadata> metadataCache;
     private final DPoP dpop;
 
     /**
@@ -78,17 +81,22 @@ public class OpenIdProvider {
     /**
      * Create an OpenID Provider client.
      *
+     * <p>The provider metadata is cached in a process-wide cache, which is shared with other clients.
+     *
      * @param issuer the OpenID provider issuer
      * @param dpop the DPoP manager
      * @param httpClient an HTTP client
      */
     public OpenIdProvider(final URI issuer, final DPoP dpop, final HttpService httpClient) {
-        this(issuer, dpop, httpClient, ServiceProvider.getCacheBuilder().build(100, Duration.ofMinutes(60)));
+        this(issuer, dpop, httpClient, SharedMetadata.INSTANCE);
     }
 
     /**
      * Create an OpenID Provider client.
      *
+     * <p>Metadata is retained for the duration of its {@code Cache-Control: max-age}, or 60 minutes
+     * if there is no such directive, unless the cache itself expires the metadata earlier.
+     *
      * @param issuer the OpenID provider issuer
      * @param dpop the DPoP manager
      * @param httpClient an HTTP client
@@ -96,44 +104,64 @@ public class OpenIdProvider {
      */
     public OpenIdProvider(final URI issuer, final DPoP dpop, final HttpService httpClient,
             final ClientCache<URI, Metadata> metadataCache) {
+        this(issuer, dpop, httpClient, new DiscoveryCache<>(
+                Objects.requireNonNull(metadataCache, "metadataCache may not be null!"), DEFAULT_MAX_AGE));
+    }
+
+    private OpenIdProvider(final URI issuer, final DPoP dpop, final HttpService httpClient,
+            final DiscoveryCache<Metadata> metadataCache) {
         this.issuer = Objects.requireNonNull(issuer, "issuer may not be null!");
         this.httpClient = Objects.requireNonNull(httpClient, "httpClient may not be null!");
-        this.metadataCache = Objects.requireNonNull(metadataCache, "metadataCache may not be null!");
+        this.metadataCache = metadataCache;
         this.jsonService = ServiceProvider.getJsonService();
         this.dpop = dpop;
     }
 
+    /**
+     * Fetch the metadata resources of several OpenID providers ahead of their use.
+     *
+     * <p>The metadata is stored in the process-wide cache used by OpenID Provider clients that are
+     * created without an explicit cache.
+     *
+     * @param issuers the OpenID provider issuers
+     * @return the next stage of completion, which completes once all of the metadata resources are cached
+     */
+    public static CompletionStage<Void> warmUp(final URI... issuers) {
+        final HttpService httpClient = ServiceProvider.getHttpService();
+        return CompletableFuture.allOf(Arrays.stream(issuers)
+                .map(issuer -> new OpenIdProvider(issuer, null, httpClient).metadata().toCompletableFuture())
+                .toArray(CompletableFuture[]::new));
+    }
+
     /**
      * Fetch the OpenID metadata resource.
      *
      * @return the next stage of completion, containing the OpenID Provider's metadata resource
      */
     public CompletionStage<Metadata> metadata() {
-        final URI uri = getMetadataUrl();
-        final Metadata m = metadataCache.get(uri);
-        if (m != null) {
-            return CompletableFuture.completedFuture(m);
-        }
-
-        final Request req = Request.newBuilder(getMetadataUrl()).header("Accept", "application/json").build();
-        return httpClient.send(req, Response.BodyHandlers.ofInputStream())
-            .thenApply(res -> {
-                try {
-                    final int httpStatus = res.statusCode();
-                    if (httpStatus >= 200 && httpStatus < 300) {
-                        final Metadata discovery = jsonService.fromJson(res.body(), Metadata.class);
-                        metadataCache.put(uri, discovery);
-                        return discovery;
+        // Concurrent requests for the same metadata share a single fetch
+        return metadataCache.get(getMetadataUrl(),
+                uri -> httpClient.send(Request.newBuilder(uri).header("Accept", "application/json").build(),
+                    Response.BodyHandlers.ofInputStream()),
+                res -> {
+                    try (final InputStream input = res.body()) {
+                        final int httpStatus = res.statusCode();
+                        if (httpStatus >= 200 && httpStatus < 300) {
+                            return jsonService.fromJson(input, Metadata.class);
+                        }
+                        throw new OpenIdException(
+                            "Unexpected error while fetching the OpenID metadata resource.",
+                            httpStatus);
+                    } catch (final IOException ex) {
+                        throw new OpenIdException(
+                            "Unexpected I/O exception while fetching the OpenID metadata resource.",
+                            ex);
                     }
-                    throw new OpenIdException(
-                        "Unexpected error while fetching the OpenID metadata resource.",
-                        httpStatus);
-                } catch (final IOException ex) {
-                    throw new OpenIdException(
-                        "Unexpected I/O exception while fetching the OpenID metadata resource.",
-                        ex);
-                }
-            });
+                });
+    }
+
+    URI getIssuer() {
+        return issuer;
     }
 
     private URI getMetadataUrl() {
@@ -318,4 +346,13 @@ public class OpenIdProvider {
         }
         return Optional.empty();
     }
+
+    static final class SharedMetadata {
+        static final DiscoveryCache<Metadata> INSTANCE = new DiscoveryCache<>(
+                ServiceProvider.getCacheBuilder().build(100, Duration.ofHours(24)), DEFAULT_MAX_AGE);
+
+        private SharedMetadata() {
+            // Prevent instantiation
+        }
+    }
 }
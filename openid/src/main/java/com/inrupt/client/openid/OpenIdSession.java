@@ -22,11 +22,12 @@ package com.inrupt.client.openid;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
-import com.inrupt.client.ClientCache;
 import com.inrupt.client.Request;
 import com.inrupt.client.auth.Authenticator;
 import com.inrupt.client.auth.Credential;
+import com.inrupt.client.auth.CredentialRenewal;
 import com.inrupt.client.auth.DPoP;
+import com.inrupt.client.auth.ResourceTokenCache;
 import com.inrupt.client.auth.Session;
 import com.inrupt.client.spi.ServiceProvider;
 
@@ -44,22 +45,14 @@ import java.util.TreeSet;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.codec.digest.DigestUtils;
-import org.jose4j.jwk.HttpsJwks;
 import org.jose4j.jwt.JwtClaims;
 import org.jose4j.jwt.MalformedClaimException;
-import org.jose4j.jwt.NumericDate;
 import org.jose4j.jwt.consumer.InvalidJwtException;
-import org.jose4j.jwt.consumer.JwtConsumer;
-import org.jose4j.jwt.consumer.JwtConsumerBuilder;
-import org.jose4j.keys.resolvers.HttpsJwksVerificationKeyResolver;
-import org.jose4j.keys.resolvers.VerificationKeyResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -77,16 +70,35 @@ public final class OpenIdSession implements Session {
     private final Set<String> schemes;
     private final Supplier<CompletionStage<Credential>> authenticator;
     private final AtomicReference<Credential> credential = new AtomicReference<>();
-    private final ForkJoinPool executor = new ForkJoinPool(1);
+    private final AtomicReference<CompletableFuture<Credential>> refresh = new AtomicReference<>();
     private final DPoP dpop;
-    private final ClientCache<URI, Credential> requestCache;
+    private final ResourceTokenCache requestCache;
+    private final CredentialRenewal renewals;
+    private final double refreshRatio;
+    private final boolean renewable;
+    private volatile Instant refreshAfter;
 
-    private OpenIdSession(final String id, final DPoP dpop,
+    OpenIdSession(final String id, final DPoP dpop,
             final Supplier<CompletionStage<Credential>> authenticator) {
+        this(id, dpop, authenticator, CredentialRenewal.DEFAULT_RATIO);
+    }
+
+    OpenIdSession(final String id, final DPoP dpop,
+            final Supplier<CompletionStage<Credential>> authenticator, final double refreshRatio) {
+        this(id, dpop, authenticator, refreshRatio, true);
+    }
+
+    OpenIdSession(final String id, final DPoP dpop,
+            final Supplier<CompletionStage<Credential>> authenticator, final double refreshRatio,
+            final boolean renewable) {
         this.id = Objects.requireNonNull(id, "Session id may not be null!");
         this.authenticator = Objects.requireNonNull(authenticator, "OpenID authenticator may not be null!");
         this.dpop = Objects.requireNonNull(dpop);
-        this.requestCache = ServiceProvider.getCacheBuilder().build(1000, Duration.ofMinutes(5));
+        this.refreshRatio = refreshRatio;
+        this.renewable = renewable;
+        this.requestCache = new ResourceTokenCache(ServiceProvider.getCacheBuilder()
+                .build(1000, Duration.ofMinutes(5)));
+        this.renewals = new CredentialRenewal(refreshRatio, 1000, Duration.ofMinutes(5));
 
         // Support case-insensitive lookups
         final Set<String> schemeNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
@@ -120,7 +132,9 @@ public final class OpenIdSession implements Session {
         final String jkt = getProofThumbprint(claims);
         final Credential credential = new Credential(jkt == null ? "Bearer" : "DPoP",
                 getIssuer(claims), idToken, getExpiration(claims), getPrincipal(claims), jkt);
-        return new OpenIdSession(id, dpop, () -> CompletableFuture.completedFuture(credential));
+        // A session based on a fixed ID token cannot obtain a new credential, so it is never refreshed ahead
+        return new OpenIdSession(id, dpop, () -> CompletableFuture.completedFuture(credential),
+                config.getRefreshAheadRatio(), false);
     }
 
     /**
@@ -134,11 +148,25 @@ public final class OpenIdSession implements Session {
      */
     public static Session ofClientCredentials(final URI issuer, final String clientId, final String clientSecret,
             final String authMethod) {
+        return ofClientCredentials(issuer, clientId, clientSecret, authMethod, new OpenIdConfig());
+    }
+
+    /**
+     * Create a session using OAuth2 client credentials, using a specific configuration.
+     *
+     * @param issuer the OpenID Provider URL
+     * @param clientId the client id value
+     * @param clientSecret the client secret value
+     * @param authMethod the authentication mechanism (e.g. {@code client_secret_post} or {@code client_secret_basic})
+     * @param config the ID token verification and proof key configuration
+     * @return the session
+     */
+    public static Session ofClientCredentials(final URI issuer, final String clientId, final String clientSecret,
+            final String authMethod, final OpenIdConfig config) {
 
         final String id = UUID.randomUUID().toString();
-        final DPoP dpop = DPoP.of();
+        final DPoP dpop = proofKeys(config, issuer, clientId);
         final OpenIdProvider provider = new OpenIdProvider(issuer, dpop);
-        final OpenIdConfig config = new OpenIdConfig();
         return new OpenIdSession(id, dpop, () -> provider.token(TokenRequest.newBuilder()
                 .clientSecret(clientSecret)
                 .authMethod(authMethod)
@@ -148,7 +176,7 @@ public final class OpenIdSession implements Session {
                 final JwtClaims claims = parseIdToken(response.idToken, config);
                 return new Credential(response.tokenType, getIssuer(claims), response.idToken,
                         toInstant(response.expiresIn), getPrincipal(claims), getProofThumbprint(claims));
-            }));
+            }), config.getRefreshAheadRatio());
     }
 
     /**
@@ -165,7 +193,7 @@ public final class OpenIdSession implements Session {
             final String clientId, final String clientSecret, final String authMethod,
             final OpenIdConfig config) {
         final String id = UUID.randomUUID().toString();
-        final DPoP dpop = DPoP.of(config.getProofKeyPairs());
+        final DPoP dpop = proofKeys(config, provider.getIssuer(), clientId);
         return new OpenIdSession(id, dpop, () -> provider.token(TokenRequest.newBuilder()
                 .clientSecret(clientSecret)
                 .authMethod(authMethod)
@@ -175,7 +203,7 @@ public final class OpenIdSession implements Session {
                 final JwtClaims claims = parseIdToken(response.idToken, config);
                 return new Credential(response.tokenType, getIssuer(claims), response.idToken,
                         toInstant(response.expiresIn), getPrincipal(claims), getProofThumbprint(claims));
-            }));
+            }), config.getRefreshAheadRatio());
     }
 
     @Override
@@ -198,13 +226,27 @@ public final class OpenIdSession implements Session {
         if (ID_TOKEN.equals(name)) {
             final Credential cred = credential.get();
             if (!hasExpired(cred)) {
+                refreshAhead();
                 return Optional.of(cred);
             }
-            return Optional.ofNullable(executor.invoke(ForkJoinTask.adapt(this::synchronizedFetch)));
+            return Optional.ofNullable(fetch().join());
         }
         return Optional.empty();
     }
 
+    @Override
+    public CompletionStage<Optional<Credential>> getCredentialAsync(final URI name, final URI uri) {
+        if (ID_TOKEN.equals(name)) {
+            final Credential cred = credential.get();
+            if (!hasExpired(cred)) {
+                refreshAhead();
+                return CompletableFuture.completedFuture(Optional.of(cred));
+            }
+            return fetch().thenApply(Optional::ofNullable);
+        }
+        return CompletableFuture.completedFuture(Optional.empty());
+    }
+
     @Override
     public Optional<String> selectThumbprint(final Collection<String> algorithms) {
         for (final String alg : algorithms) {
@@ -223,32 +265,56 @@ public final class OpenIdSession implements Session {
     @Override
     public Optional<Credential> fromCache(final Request request) {
         if (request != null) {
-            final Credential cachedToken = requestCache.get(cacheKey(request.uri()));
-            if (!hasExpired(cachedToken)) {
+            final Optional<Credential> cachedToken = requestCache.get(cacheKey(request.uri()));
+            if (cachedToken.isPresent()) {
                 LOGGER.debug("Using cached token for request: {}", request.uri());
-                return Optional.of(cachedToken);
             }
+            return cachedToken;
         }
         return Optional.empty();
     }
 
+    @Override
+    public void rejectCredential(final Request request, final Credential credential) {
+        if (request != null) {
+            LOGGER.debug("Cached token rejected for request: {}", request.uri());
+            requestCache.reject(cacheKey(request.uri()), credential);
+        }
+    }
+
+    @Override
+    public boolean requiresRenewal(final Request request) {
+        if (request != null) {
+            final URI key = cacheKey(request.uri());
+            final Credential cachedToken = requestCache.getExact(key);
+            return !hasExpired(cachedToken) && renewals.claim(key, cachedToken);
+        }
+        return false;
+    }
+
     @Override
     public void reset() {
+        refresh.set(null);
+        refreshAfter = null;
         credential.set(null);
         requestCache.invalidateAll();
+        renewals.clear();
     }
 
     @Override
     public CompletionStage<Optional<Credential>> authenticate(final Authenticator auth,
             final Request request, final Set<String> algorithms) {
-        return auth.authenticate(this, request, algorithms)
+        // Concurrent callers share a single negotiation, whose result is cached once
+        final URI key = cacheKey(request.uri());
+        return requestCache.negotiate(key, auth, algorithms, () -> auth.authenticate(this, request, algorithms)
                 .thenApply(cred -> {
                     if (cred != null) {
                         LOGGER.debug("Setting cache entry for request: {}", request.uri());
-                        requestCache.put(cacheKey(request.uri()), cred);
+                        renewals.track(key, cred);
                     }
-                    return Optional.ofNullable(cred);
-                });
+                    return cred;
+                }))
+            .thenApply(Optional::ofNullable);
     }
 
     boolean hasExpired(final Credential credential) {
@@ -258,20 +324,74 @@ public final class OpenIdSession implements Session {
         return true;
     }
 
-    private synchronized Credential synchronizedFetch() {
-        // Check again inside the synchronized method
-        final Credential cred = credential.get();
-        if (!hasExpired(cred)) {
-            return cred;
+    /*
+     * Refresh the credential, sharing a single in-flight refresh among all concurrent callers.
+     * No thread is held while the refresh is pending: it completes on whichever thread completes
+     * the underlying authentication stage.
+     */
+    CompletableFuture<Credential> fetch() {
+        while (true) {
+            final CompletableFuture<Credential> pending = refresh.get();
+            if (pending != null) {
+                return pending;
+            }
+
+            // Check again, in case a refresh completed in the meantime
+            final Credential cred = credential.get();
+            if (!hasExpired(cred) && !refreshDue()) {
+                return CompletableFuture.completedFuture(cred);
+            }
+
+            final CompletableFuture<Credential> future = new CompletableFuture<>();
+            if (refresh.compareAndSet(null, future)) {
+                try {
+                    authenticator.get().whenComplete((refreshed, err) -> {
+                        final boolean current = refresh.compareAndSet(future, null);
+                        if (err != null) {
+                            future.completeExceptionally(err);
+                        } else if (!hasExpired(refreshed)) {
+                            // A session reset during the refresh discards the result
+                            if (current) {
+                                refreshAfter = CredentialRenewal.renewAfter(Instant.now(),
+                                        refreshed.getExpiration(), refreshRatio);
+                                credential.set(refreshed);
+                            }
+                            future.complete(refreshed);
+                        } else {
+                            future.complete(null);
+                        }
+                    });
+                } catch (final RuntimeException ex) {
+                    refresh.compareAndSet(future, null);
+                    future.completeExceptionally(ex);
+                }
+                return future;
+            }
         }
+    }
 
-        // Fetch the refreshed credentials
-        final Credential refreshed = authenticator.get().toCompletableFuture().join();
-        if (!hasExpired(refreshed)) {
-            credential.set(refreshed);
-            return refreshed;
+    /* Start a background refresh of a valid credential once it is due, without waiting for the result */
+    void refreshAhead() {
+        if (refreshDue() && refresh.get() == null) {
+            LOGGER.debug("Refreshing session credential ahead of its expiration");
+            fetch().whenComplete((cred, err) -> {
+                if (err != null) {
+                    LOGGER.debug("Unable to refresh session credential: {}", err.getMessage());
+                }
+            });
         }
-        return null;
+    }
+
+    boolean refreshDue() {
+        final Instant after = refreshAfter;
+        return renewable && after != null && Instant.now().isAfter(after);
+    }
+
+    static DPoP proofKeys(final OpenIdConfig config, final URI issuer, final String clientId) {
+        if (config.isSharedProofKeyPair() && config.getProofKeyPairs().isEmpty()) {
+            return DPoP.ofClient(issuer, clientId);
+        }
+        return DPoP.of(config.getProofKeyPairs());
     }
 
     static String getSessionIdentifier(final JwtClaims claims) {
@@ -345,39 +465,7 @@ public final class OpenIdSession implements Session {
 
     static JwtClaims parseIdToken(final String idToken, final OpenIdConfig config) {
         try {
-            final JwtConsumerBuilder builder = new JwtConsumerBuilder();
-
-            // Required by OpenID Connect
-            builder.setRequireExpirationTime();
-            builder.setExpectedIssuers(true, (String[]) null);
-            builder.setRequireSubject();
-            builder.setRequireIssuedAt();
-
-            // If a grace period is set, allow for some clock skew
-            if (config.getExpGracePeriodSecs() > 0) {
-                builder.setAllowedClockSkewInSeconds(config.getExpGracePeriodSecs());
-            } else {
-                builder.setEvaluationTime(NumericDate.fromSeconds(Instant.now().getEpochSecond()));
-            }
-
-            // If an expected audience is set, verify that we have the correct value
-            if (config.getExpectedAudience() != null) {
-                builder.setExpectedAudience(true, config.getExpectedAudience());
-            } else {
-                builder.setSkipDefaultAudienceValidation();
-            }
-
-            // If a JWKS location is set, perform signature validation
-            if (config.getPublicKeyLocation() != null) {
-                final HttpsJwks jwks = new HttpsJwks(config.getPublicKeyLocation().toString());
-                final VerificationKeyResolver resolver = new HttpsJwksVerificationKeyResolver(jwks);
-                builder.setVerificationKeyResolver(resolver);
-            } else {
-                builder.setSkipSignatureVerification();
-            }
-
-            final JwtConsumer consumer = builder.build();
-            return consumer.processToClaims(idToken);
+            return IdTokenConsumers.getConsumer(config).processToClaims(idToken);
         } catch (final InvalidJwtException ex) {
             throw new OpenIdException("Unable to parse ID token", ex);
         }
@@ -70,6 +70,13 @@ class OpenIdMockHttpService {
                 .willReturn(aResponse()
                     .withStatus(404)));
 
+        wireMockServer.stubFor(get(urlEqualTo("/shared/.well-known/openid-configuration"))
+                    .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withHeader("Cache-Control", "max-age=600")
+                        .withBody(getMetadataJSON())));
+
         wireMockServer.stubFor(get(urlEqualTo("/.well-known/openid-configuration"))
                     .atPriority(1)
                     .willReturn(aResponse()
@@ -144,4 +151,8 @@ class OpenIdMockHttpService {
     public void stop() {
         wireMockServer.stop();
     }
+
+    public int countRequests(final String path) {
+        return wireMockServer.findAll(getRequestedFor(urlEqualTo(path))).size();
+    }
 }
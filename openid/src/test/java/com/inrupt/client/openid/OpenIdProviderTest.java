@@ -72,6 +72,17 @@ class OpenIdProviderTest {
                 openIdProvider.metadata().toCompletableFuture().join().jwksUri.toString());
     }
 
+    @Test
+    void sharedMetadataTest() {
+        final URI issuer = URI.create(config.get("openid_uri") + "/shared");
+        OpenIdProvider.warmUp(issuer).toCompletableFuture().join();
+
+        // Providers without an explicit cache reuse the preloaded metadata
+        final OpenIdProvider provider = new OpenIdProvider(issuer, dpop);
+        assertEquals("http://example.test", provider.metadata().toCompletableFuture().join().issuer.toString());
+        assertEquals(1, mockHttpService.countRequests("/shared/.well-known/openid-configuration"));
+    }
+
     @Test
     void unknownMetadata() {
         final OpenIdProvider provider = new OpenIdProvider(URI.create(config.get("openid_uri") + "/not-found"), dpop);
@@ -47,7 +47,9 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.IOUtils;
@@ -104,6 +106,37 @@ class OpenIdSessionTest {
         assertDoesNotThrow(() -> OpenIdSession.ofIdToken(token, config));
     }
 
+    @Test
+    void testSharedKeySet() {
+        final Map<String, Object> claims = new HashMap<>();
+        claims.put("webid", WEBID);
+        claims.put("sub", SUB);
+        claims.put("iss", ISS);
+        claims.put("azp", AZP);
+
+        for (int i = 0; i < 5; i++) {
+            final OpenIdConfig config = new OpenIdConfig();
+            config.setPublicKeyLocation(URI.create(baseUrl + "/jwks"));
+            assertDoesNotThrow(() -> OpenIdSession.ofIdToken(OpenIdTestUtils.generateIdToken(claims), config));
+        }
+        assertEquals(1, mockHttpService.countRequests("/jwks"));
+    }
+
+    @Test
+    void testSharedConsumers() {
+        final OpenIdConfig config1 = new OpenIdConfig();
+        config1.setExpectedAudience("https://app.example");
+        final OpenIdConfig config2 = new OpenIdConfig();
+        config2.setExpectedAudience("https://app.example");
+        final OpenIdConfig config3 = new OpenIdConfig();
+        config3.setExpectedAudience("https://other.example");
+
+        assertSame(IdTokenConsumers.getConsumer(config1), IdTokenConsumers.getConsumer(config2));
+        assertNotSame(IdTokenConsumers.getConsumer(config1), IdTokenConsumers.getConsumer(config3));
+        assertSame(IdTokenConsumers.getKeySet(URI.create(baseUrl + "/jwks")),
+                IdTokenConsumers.getKeySet(URI.create(baseUrl + "/jwks")));
+    }
+
     @Test
     void testSessionIncorrectTokenSignatureValidation() {
         final Map<String, Object> claims = new HashMap<>();
@@ -216,6 +249,23 @@ class OpenIdSessionTest {
         assertEquals(Optional.of(URI.create(WEBID)), credential.flatMap(Credential::getPrincipal));
     }
 
+    @Test
+    void testClientCredentialsSharedProofKeyPair() {
+        final URI issuer = URI.create(baseUrl);
+        final OpenIdConfig config = new OpenIdConfig();
+        config.setSharedProofKeyPair(true);
+        final List<String> algorithms = Collections.singletonList("ES256");
+
+        final Session first = OpenIdSession.ofClientCredentials(issuer, "app1", "secret", "client_secret_basic",
+                config);
+        final Session second = OpenIdSession.ofClientCredentials(issuer, "app1", "secret", "client_secret_basic",
+                config);
+        final Session other = OpenIdSession.ofClientCredentials(issuer, "app1", "secret", "client_secret_basic");
+        assertTrue(first.selectThumbprint(algorithms).isPresent());
+        assertEquals(first.selectThumbprint(algorithms), second.selectThumbprint(algorithms));
+        assertNotEquals(first.selectThumbprint(algorithms), other.selectThumbprint(algorithms));
+    }
+
     @Test
     void testSessionExpiry() {
         assertEquals(Instant.MAX, OpenIdSession.toInstant(0));
@@ -299,6 +349,42 @@ class OpenIdSessionTest {
         assertFalse(session.fromCache(req).isPresent());
     }
 
+    @Test
+    void testConcurrentNegotiation() {
+        final Map<String, Object> claims = new HashMap<>();
+        claims.put("webid", WEBID);
+        claims.put("sub", SUB);
+        claims.put("iss", ISS);
+        claims.put("azp", AZP);
+
+        final Session session = OpenIdSession.ofIdToken(OpenIdTestUtils.generateIdToken(claims));
+        final Request req = Request.newBuilder(URI.create("https://storage.example/resource")).build();
+        final AtomicInteger negotiations = new AtomicInteger();
+        final CompletableFuture<Credential> pending = new CompletableFuture<>();
+        final Authenticator auth = new TestAuthenticator("token") {
+            @Override
+            public CompletionStage<Credential> authenticate(final Session session, final Request request,
+                    final Set<String> algorithms) {
+                negotiations.incrementAndGet();
+                return pending;
+            }
+        };
+
+        final List<CompletableFuture<Optional<Credential>>> results = Arrays.asList(
+                session.authenticate(auth, req, Collections.emptySet()).toCompletableFuture(),
+                session.authenticate(auth, req, Collections.emptySet()).toCompletableFuture(),
+                session.authenticate(auth, req, Collections.emptySet()).toCompletableFuture());
+
+        final Credential token = new Credential("Bearer", URI.create(ISS), "token",
+                Instant.now().plusSeconds(3600), URI.create(WEBID), null);
+        pending.complete(token);
+        for (final CompletableFuture<Optional<Credential>> result : results) {
+            assertEquals(Optional.of(token), result.join());
+        }
+        assertEquals(1, negotiations.get());
+        assertEquals(Optional.of(token), session.fromCache(req));
+    }
+
     @Test
     void testExpiredToken() {
         final Map<String, Object> claims = new HashMap<>();
@@ -376,11 +462,147 @@ class OpenIdSessionTest {
         assertDoesNotThrow(() -> OpenIdSession.ofIdToken(token, config));
     }
 
+    @Test
+    void testConcurrentRefresh() {
+        final AtomicInteger count = new AtomicInteger();
+        final CompletableFuture<Credential> pending = new CompletableFuture<>();
+        final OpenIdSession session = new OpenIdSession("refresh", DPoP.of(), () -> {
+            count.incrementAndGet();
+            return pending;
+        });
+
+        final CompletableFuture<Optional<Credential>> first = session
+            .getCredentialAsync(OpenIdSession.ID_TOKEN, null).toCompletableFuture();
+        final CompletableFuture<Optional<Credential>> second = session
+            .getCredentialAsync(OpenIdSession.ID_TOKEN, null).toCompletableFuture();
+        assertFalse(first.isDone());
+        assertFalse(second.isDone());
+        assertEquals(1, count.get());
+
+        final Credential credential = new Credential("Bearer", URI.create(ISS), "token",
+                Instant.now().plusSeconds(3600), URI.create(WEBID), null);
+        pending.complete(credential);
+        assertEquals(Optional.of(credential), first.join());
+        assertEquals(Optional.of(credential), second.join());
+        assertEquals(Optional.of(credential), session.getCredential(OpenIdSession.ID_TOKEN, null));
+        assertEquals(1, count.get());
+    }
+
+    @Test
+    void testFailedRefresh() {
+        final AtomicInteger count = new AtomicInteger();
+        final Credential credential = new Credential("Bearer", URI.create(ISS), "token",
+                Instant.now().plusSeconds(3600), URI.create(WEBID), null);
+        final OpenIdSession session = new OpenIdSession("failure", DPoP.of(), () -> {
+            if (count.incrementAndGet() == 1) {
+                final CompletableFuture<Credential> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new OpenIdException("Refresh failure"));
+                return failed;
+            }
+            return CompletableFuture.completedFuture(credential);
+        });
+
+        final CompletableFuture<Optional<Credential>> failure = session
+            .getCredentialAsync(OpenIdSession.ID_TOKEN, null).toCompletableFuture();
+        final CompletionException err = assertThrows(CompletionException.class, failure::join);
+        assertTrue(err.getCause() instanceof OpenIdException);
+
+        assertEquals(Optional.of(credential), session.getCredentialAsync(OpenIdSession.ID_TOKEN, null)
+                .toCompletableFuture().join());
+        assertEquals(2, count.get());
+    }
+
+    @Test
+    void testResetDuringRefresh() {
+        final AtomicInteger count = new AtomicInteger();
+        final CompletableFuture<Credential> pending = new CompletableFuture<>();
+        final OpenIdSession session = new OpenIdSession("reset", DPoP.of(), () -> {
+            count.incrementAndGet();
+            return pending;
+        });
+        final CompletableFuture<Optional<Credential>> result = session
+            .getCredentialAsync(OpenIdSession.ID_TOKEN, null).toCompletableFuture();
+        session.reset();
+
+        final Credential credential = new Credential("Bearer", URI.create(ISS), "token",
+                Instant.now().plusSeconds(3600), URI.create(WEBID), null);
+        pending.complete(credential);
+        assertEquals(Optional.of(credential), result.join());
+
+        // The result of a refresh started before the reset is not retained
+        assertEquals(Optional.of(credential), session.getCredential(OpenIdSession.ID_TOKEN, null));
+        assertEquals(2, count.get());
+    }
+
+    @Test
+    void testRefreshAhead() {
+        final AtomicInteger count = new AtomicInteger();
+        final Credential first = new Credential("Bearer", URI.create(ISS), "first",
+                Instant.now().plusSeconds(2), URI.create(WEBID), null);
+        final Credential second = new Credential("Bearer", URI.create(ISS), "second",
+                Instant.now().plusSeconds(3600), URI.create(WEBID), null);
+        final OpenIdSession session = new OpenIdSession("ahead", DPoP.of(), () ->
+                CompletableFuture.completedFuture(count.incrementAndGet() == 1 ? first : second), 0.5);
+
+        assertEquals(Optional.of(first), session.getCredential(OpenIdSession.ID_TOKEN, null));
+        assertEquals(1, count.get());
+
+        // The current credential is served until the refreshed credential is available
+        await().atMost(5, SECONDS).until(() -> {
+            final Optional<Credential> credential = session.getCredential(OpenIdSession.ID_TOKEN, null);
+            assertTrue(credential.isPresent());
+            return credential.get() == second;
+        });
+        assertEquals(2, count.get());
+    }
+
+    @Test
+    void testNoRefreshAheadWithoutRenewal() {
+        final AtomicInteger count = new AtomicInteger();
+        final Credential credential = new Credential("Bearer", URI.create(ISS), "fixed",
+                Instant.now().plusSeconds(3), URI.create(WEBID), null);
+        final OpenIdSession session = new OpenIdSession("fixed", DPoP.of(), () -> {
+            count.incrementAndGet();
+            return CompletableFuture.completedFuture(credential);
+        }, 0.25, false);
+
+        // A session that cannot renew its credential does not repeatedly attempt a refresh
+        await().during(2, SECONDS).atMost(3, SECONDS).until(() ->
+                session.getCredential(OpenIdSession.ID_TOKEN, null).isPresent() && count.get() == 1);
+    }
+
+    @Test
+    void testRequestRenewal() {
+        final OpenIdSession session = new OpenIdSession("renewal", DPoP.of(), () ->
+                CompletableFuture.completedFuture(null), 0.5);
+        final Request req = Request.newBuilder(URI.create("https://storage.example/resource")).build();
+        assertFalse(session.requiresRenewal(req));
+
+        session.authenticate(new TestAuthenticator("token", 2), req, Collections.emptySet())
+            .toCompletableFuture().join();
+        assertTrue(session.fromCache(req).isPresent());
+        assertFalse(session.requiresRenewal(req));
+
+        // Renewal is claimed only once, while the cached token remains available
+        await().atMost(5, SECONDS).until(() -> session.requiresRenewal(req));
+        assertFalse(session.requiresRenewal(req));
+        assertTrue(session.fromCache(req).isPresent());
+
+        session.reset();
+        assertFalse(session.requiresRenewal(req));
+    }
+
     static class TestAuthenticator implements Authenticator {
         private final String token;
+        private final long lifetime;
 
         public TestAuthenticator(final String token) {
+            this(token, 3600);
+        }
+
+        public TestAuthenticator(final String token, final long lifetime) {
             this.token = token;
+            this.lifetime = lifetime;
         }
 
         @Override
@@ -397,7 +619,7 @@ class OpenIdSessionTest {
         public CompletionStage<Credential> authenticate(final Session session,
                 final Request request, final Set<String> algorithms) {
             final Credential token = new Credential("Bearer", URI.create(ISS), this.token,
-                    Instant.now().plusSeconds(3600), URI.create(WEBID), null);
+                    Instant.now().plusSeconds(lifetime), URI.create(WEBID), null);
             return CompletableFuture.completedFuture(token);
         }
     }
@@ -29,6 +29,7 @@ import com.inrupt.client.spi.DpopService;
 import java.net.URI;
 import java.security.KeyPair;
 import java.security.spec.ECParameterSpec;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -36,6 +37,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jose4j.jwk.PublicJsonWebKey;
 import org.jose4j.jws.JsonWebSignature;
@@ -51,11 +53,18 @@ import org.jose4j.lang.JoseException;
  */
 public class TestDpopService implements DpopService {
 
+    private final Map<String, DPoP> shared = new ConcurrentHashMap<>();
+
     @Override
     public DPoP ofKeyPairs(final Map<String, KeyPair> keypairs) {
         return new DPoPManager(keypairs);
     }
 
+    @Override
+    public DPoP ofClient(final URI issuer, final String clientId) {
+        return shared.computeIfAbsent(issuer + " " + clientId, k -> new DPoPManager(Collections.emptyMap()));
+    }
+
     public class DPoPManager implements DPoP {
         private final Map<String, KeyPair> keypairs = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
         private final Map<String, String> thumbprints = new HashMap<>();
@@ -22,7 +22,6 @@ package com.inrupt.client.rdf4j;
 
 import com.inrupt.client.Response;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
@@ -49,7 +48,7 @@ public final class RDF4JBodyHandlers {
     public static Response.BodyHandler<Model> ofModel() {
         return responseInfo -> responseInfo.headers().firstValue("Content-Type")
             .map(RDF4JBodyHandlers::toRDF4JFormat).map(format -> {
-                try (final InputStream stream = new ByteArrayInputStream(responseInfo.body().array())) {
+                try (final InputStream stream = responseInfo.bodyAsInputStream()) {
                     return Rio.parse(stream, responseInfo.uri().toString(), format);
                 } catch (final IOException ex) {
                     throw new UncheckedIOException(
@@ -68,7 +67,7 @@ public final class RDF4JBodyHandlers {
         return responseInfo -> responseInfo.headers().firstValue("Content-Type")
             .map(RDF4JBodyHandlers::toRDF4JFormat).map(format -> {
                 final Repository repository = new SailRepository(new MemoryStore());
-                try (final InputStream stream = new ByteArrayInputStream(responseInfo.body().array());
+                try (final InputStream stream = responseInfo.bodyAsInputStream();
                         final RepositoryConnection conn = repository.getConnection()) {
                     conn.add(stream, responseInfo.uri().toString(), format);
                 } catch (final IOException ex) {
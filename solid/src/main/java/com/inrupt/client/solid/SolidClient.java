@@ -32,10 +32,12 @@ import com.inrupt.client.Response;
 import com.inrupt.client.ValidationResult;
 import com.inrupt.client.auth.Session;
 
-import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -60,6 +62,7 @@ public class SolidClient {
     private static final String TEXT_TURTLE = "text/turtle";
     private static final String WILDCARD = "*";
     private static final int ERROR_STATUS = 400;
+    private static final int BUFFER_SIZE = 8192;
 
     private final Client client;
     private final Headers defaultHeaders;
@@ -131,11 +134,11 @@ public class SolidClient {
         headers.firstValue(USER_AGENT).ifPresent(agent -> builder.setHeader(USER_AGENT, agent));
 
         final Request request = builder.build();
-        return client.send(request, Response.BodyHandlers.ofByteArray())
+        return client.send(request, Response.BodyHandlers.ofInputStream())
             .thenApply(response -> {
                 if (response.statusCode() >= ERROR_STATUS) {
                     throw SolidClientException.handle("Unable to read resource at " + request.uri(), request.uri(),
-                            response.statusCode(), response.headers(), new String(response.body()));
+                            response.statusCode(), response.headers(), readBody(response.body()));
                 } else {
                     final String contentType = response.headers().firstValue(CONTENT_TYPE)
                         .orElse("application/octet-stream");
@@ -154,17 +157,151 @@ public class SolidClient {
                             return obj;
                         // Otherwise, create a non-RDF-bearing resource
                         } else {
-                            return construct(request.uri(), clazz, contentType,
-                                    new ByteArrayInputStream(response.body()), response.headers());
+                            return construct(request.uri(), clazz, contentType, response.body(),
+                                    response.headers());
                         }
                     } catch (final ReflectiveOperationException ex) {
-                        throw new SolidResourceException("Unable to read resource into type " + clazz.getName(),
-                                ex);
+                        final SolidResourceException err = new SolidResourceException(
+                                "Unable to read resource into type " + clazz.getName(), ex);
+                        try {
+                            response.body().close();
+                        } catch (final IOException ioe) {
+                            err.addSuppressed(ioe);
+                        }
+                        throw err;
                     }
                 }
             });
     }
 
+    /**
+     * Read a non-RDF Solid Resource into a local file.
+     *
+     * <p>The resource entity is read from the local file, which the caller is responsible for closing.
+     *
+     * @param identifier the identifier
+     * @param file the file into which the resource is written
+     * @return the next stage of completion, including the resource
+     */
+    public CompletionStage<SolidNonRDFSource> readToFile(final URI identifier, final Path file) {
+        return readToFile(identifier, EMPTY_HEADERS, file);
+    }
+
+    /**
+     * Read a non-RDF Solid Resource into a local file.
+     *
+     * <p>The resource entity is read from the local file, which the caller is responsible for closing.
+     *
+     * @param identifier the identifier
+     * @param headers headers to add to this request
+     * @param file the file into which the resource is written
+     * @return the next stage of completion, including the resource
+     */
+    public CompletionStage<SolidNonRDFSource> readToFile(final URI identifier, final Headers headers,
+            final Path file) {
+        final Request.Builder builder = Request.newBuilder(identifier).GET();
+
+        decorateHeaders(builder, defaultHeaders);
+        decorateHeaders(builder, headers);
+
+        defaultHeaders.firstValue(USER_AGENT).ifPresent(agent -> builder.setHeader(USER_AGENT, agent));
+        headers.firstValue(USER_AGENT).ifPresent(agent -> builder.setHeader(USER_AGENT, agent));
+
+        final Request request = builder.build();
+        final Response.BodyHandler<Path> fileHandler = Response.BodyHandlers.ofFile(file);
+        // A successful response is written to the file; any other response is retained for reporting
+        final Response.BodyHandler<String> handler = responseInfo -> {
+            if (!isSuccess(responseInfo.statusCode())) {
+                return new String(responseInfo.body().array(), UTF_8);
+            }
+            fileHandler.apply(responseInfo);
+            return null;
+        };
+        return client.send(request, handler)
+            .thenApply(response -> {
+                // A redirect or Not Modified response leaves the file untouched, so it cannot supply the entity
+                if (!isSuccess(response.statusCode())) {
+                    throw SolidClientException.handle("Unable to read resource at " + request.uri(), request.uri(),
+                            response.statusCode(), response.headers(), response.body());
+                }
+                final String contentType = response.headers().firstValue(CONTENT_TYPE)
+                    .orElse("application/octet-stream");
+                try {
+                    return new SolidNonRDFSource(request.uri(), contentType, Files.newInputStream(file),
+                            response.headers());
+                } catch (final IOException ex) {
+                    throw new SolidResourceException("Unable to read resource from " + file, ex);
+                }
+            });
+    }
+
+    /**
+     * Create a new non-RDF Solid Resource from a local file.
+     *
+     * <p>The file is streamed to the server and may be retransmitted, for example after an
+     * authorization challenge. The resource is not fetched after it has been written.
+     *
+     * @param identifier the identifier
+     * @param contentType the content type of the resource
+     * @param file the file containing the resource entity
+     * @return the next stage of completion
+     */
+    public CompletionStage<Void> createFromFile(final URI identifier, final String contentType, final Path file) {
+        return createFromFile(identifier, contentType, file, EMPTY_HEADERS);
+    }
+
+    /**
+     * Create a new non-RDF Solid Resource from a local file.
+     *
+     * <p>The file is streamed to the server and may be retransmitted, for example after an
+     * authorization challenge. The resource is not fetched after it has been written.
+     *
+     * @param identifier the identifier
+     * @param contentType the content type of the resource
+     * @param file the file containing the resource entity
+     * @param headers headers to add to this request
+     * @return the next stage of completion
+     */
+    public CompletionStage<Void> createFromFile(final URI identifier, final String contentType, final Path file,
+            final Headers headers) {
+        final Request.Builder builder = Request.newBuilder(identifier).PUT(Request.BodyPublishers.ofFile(file));
+        builder.setHeader(IF_NONE_MATCH, WILDCARD);
+        return writeFromFile(builder, identifier, contentType, headers, "Unable to create resource");
+    }
+
+    /**
+     * Update an existing non-RDF Solid Resource from a local file.
+     *
+     * <p>The file is streamed to the server and may be retransmitted, for example after an
+     * authorization challenge. The resource is not fetched after it has been written.
+     *
+     * @param identifier the identifier
+     * @param contentType the content type of the resource
+     * @param file the file containing the resource entity
+     * @return the next stage of completion
+     */
+    public CompletionStage<Void> updateFromFile(final URI identifier, final String contentType, final Path file) {
+        return updateFromFile(identifier, contentType, file, EMPTY_HEADERS);
+    }
+
+    /**
+     * Update an existing non-RDF Solid Resource from a local file.
+     *
+     * <p>The file is streamed to the server and may be retransmitted, for example after an
+     * authorization challenge. The resource is not fetched after it has been written.
+     *
+     * @param identifier the identifier
+     * @param contentType the content type of the resource
+     * @param file the file containing the resource entity
+     * @param headers headers to add to this request
+     * @return the next stage of completion
+     */
+    public CompletionStage<Void> updateFromFile(final URI identifier, final String contentType, final Path file,
+            final Headers headers) {
+        final Request.Builder builder = Request.newBuilder(identifier).PUT(Request.BodyPublishers.ofFile(file));
+        return writeFromFile(builder, identifier, contentType, headers, "Unable to update resource");
+    }
+
     /**
      * Create a new Solid Resource.
      *
@@ -386,6 +523,25 @@ public class SolidClient {
         };
     }
 
+    CompletionStage<Void> writeFromFile(final Request.Builder builder, final URI identifier,
+            final String contentType, final Headers headers, final String message) {
+        decorateHeaders(builder, defaultHeaders);
+        decorateHeaders(builder, headers);
+
+        builder.setHeader(CONTENT_TYPE, contentType);
+        defaultHeaders.firstValue(USER_AGENT).ifPresent(agent -> builder.setHeader(USER_AGENT, agent));
+        headers.firstValue(USER_AGENT).ifPresent(agent -> builder.setHeader(USER_AGENT, agent));
+
+        return client.send(builder.build(), Response.BodyHandlers.ofByteArray()).thenApply(res -> {
+            if (isSuccess(res.statusCode())) {
+                return null;
+            } else {
+                throw SolidClientException.handle(message, identifier, res.statusCode(), res.headers(),
+                        new String(res.body(), UTF_8));
+            }
+        });
+    }
+
     static <T extends Resource> T construct(final URI identifier, final Class<T> clazz,
             final Dataset dataset, final Headers headers) throws ReflectiveOperationException {
         // First try an arity-3 ctor with headers
@@ -445,6 +601,20 @@ public class SolidClient {
         }
     }
 
+    static String readBody(final InputStream body) {
+        try (final InputStream input = body;
+                final ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int count;
+            while ((count = input.read(buffer)) != -1) {
+                output.write(buffer, 0, count);
+            }
+            return new String(output.toByteArray(), UTF_8);
+        } catch (final IOException ex) {
+            throw new SolidResourceException("Unable to read response body", ex);
+        }
+    }
+
     static boolean isSuccess(final int statusCode) {
         return statusCode >= 200 && statusCode < 300;
     }
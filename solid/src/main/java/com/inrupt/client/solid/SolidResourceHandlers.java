@@ -51,7 +51,7 @@ public final class SolidResourceHandlers {
 
             return responseInfo.headers().firstValue(CONTENT_TYPE)
                 .flatMap(contentType ->
-                        buildDataset(contentType, responseInfo.body().array(), responseInfo.uri().toString()))
+                        buildDataset(contentType, responseInfo.bodyAsInputStream(), responseInfo.uri().toString()))
                 .map(dataset -> new SolidRDFSource(responseInfo.uri(), dataset, metadata))
                 .orElseGet(() -> new SolidRDFSource(responseInfo.uri(), null, metadata));
         };
@@ -68,21 +68,26 @@ public final class SolidResourceHandlers {
 
             return responseInfo.headers().firstValue(CONTENT_TYPE)
                 .flatMap(contentType ->
-                        buildDataset(contentType, responseInfo.body().array(), responseInfo.uri().toString()))
+                        buildDataset(contentType, responseInfo.bodyAsInputStream(), responseInfo.uri().toString()))
                 .map(dataset -> new SolidContainer(responseInfo.uri(), dataset, metadata))
                 .orElseGet(() -> new SolidContainer(responseInfo.uri(), null, metadata));
         };
     }
 
     static Optional<Dataset> buildDataset(final String contentType, final byte[] data, final String baseUri) {
-        return RDFSyntax.byMediaType(contentType)
-            .map(syntax -> {
-                try (final InputStream input = new ByteArrayInputStream(data)) {
-                    return service.toDataset(syntax, input, baseUri);
-                } catch (final IOException ex) {
-                    throw new SolidResourceException("Error parsing Solid Container as RDF", ex);
-                }
-            });
+        return buildDataset(contentType, new ByteArrayInputStream(data), baseUri);
+    }
+
+    static Optional<Dataset> buildDataset(final String contentType, final InputStream data, final String baseUri) {
+        try (final InputStream input = data) {
+            final Optional<RDFSyntax> syntax = RDFSyntax.byMediaType(contentType);
+            if (syntax.isPresent()) {
+                return Optional.of(service.toDataset(syntax.get(), input, baseUri));
+            }
+            return Optional.empty();
+        } catch (final IOException ex) {
+            throw new SolidResourceException("Error parsing Solid Container as RDF", ex);
+        }
     }
 
     private SolidResourceHandlers() {
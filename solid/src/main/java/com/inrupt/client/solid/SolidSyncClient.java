@@ -30,6 +30,7 @@ import com.inrupt.client.Response;
 import com.inrupt.client.auth.Session;
 
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.Objects;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
@@ -85,6 +86,41 @@ public class SolidSyncClient {
         return awaitAsync(client.read(identifier, clazz));
     }
 
+    /**
+     * Read a non-RDF Solid Resource into a local file.
+     *
+     * <p>The resource entity is read from the local file, which the caller is responsible for closing.
+     *
+     * @param identifier the identifier
+     * @param file the file into which the resource is written
+     * @return the resource
+     */
+    public SolidNonRDFSource readToFile(final URI identifier, final Path file) {
+        return awaitAsync(client.readToFile(identifier, file));
+    }
+
+    /**
+     * Create a new non-RDF Solid Resource from a local file.
+     *
+     * @param identifier the identifier
+     * @param contentType the content type of the resource
+     * @param file the file containing the resource entity
+     */
+    public void createFromFile(final URI identifier, final String contentType, final Path file) {
+        awaitAsync(client.createFromFile(identifier, contentType, file));
+    }
+
+    /**
+     * Update an existing non-RDF Solid Resource from a local file.
+     *
+     * @param identifier the identifier
+     * @param contentType the content type of the resource
+     * @param file the file containing the resource entity
+     */
+    public void updateFromFile(final URI identifier, final String contentType, final Path file) {
+        awaitAsync(client.updateFromFile(identifier, contentType, file));
+    }
+
     /**
      * Create a new Solid Resource.
      *
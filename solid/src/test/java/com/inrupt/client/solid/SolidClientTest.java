@@ -36,6 +36,8 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
@@ -46,6 +48,7 @@ import org.apache.commons.rdf.api.RDF;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -300,6 +303,67 @@ class SolidClientTest {
         assertDoesNotThrow(client.create(binary).toCompletableFuture()::join);
     }
 
+    @Test
+    void testBinaryReadToFile(@TempDir final Path dir) throws IOException {
+        final URI uri = URI.create(config.get("solid_resource_uri") + "/binary");
+        final Path file = dir.resolve("binary.txt");
+
+        try (final SolidNonRDFSource binary = client.readToFile(uri, file).toCompletableFuture().join()) {
+            assertEquals(uri, binary.getIdentifier());
+            assertEquals(TEXT_PLAIN, binary.getContentType());
+            assertEquals("This is a plain text document.", new String(binary.getEntity().readAllBytes(), UTF_8));
+        }
+        assertEquals("This is a plain text document.", Files.readString(file));
+    }
+
+    @Test
+    void testBinaryReadToFileError(@TempDir final Path dir) {
+        final URI uri = URI.create(config.get("solid_resource_uri") + "/missing");
+        final Path file = dir.resolve("missing.txt");
+
+        final CompletionException err = assertThrows(CompletionException.class,
+                client.readToFile(uri, file).toCompletableFuture()::join);
+        assertInstanceOf(NotFoundException.class, err.getCause());
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void testBinaryReadToFileNotModified(@TempDir final Path dir) throws IOException {
+        final URI uri = URI.create(config.get("solid_resource_uri") + "/binary");
+        final Path file = Files.writeString(dir.resolve("binary.txt"), "Existing content");
+        final Headers headers = Headers.of(Collections.singletonMap("If-None-Match",
+                    Collections.singletonList("\"binary\"")));
+
+        final CompletionException err = assertThrows(CompletionException.class,
+                client.readToFile(uri, headers, file).toCompletableFuture()::join);
+        assertInstanceOf(SolidClientException.class, err.getCause());
+        assertEquals(304, ((SolidClientException) err.getCause()).getStatusCode());
+        assertEquals("Existing content", Files.readString(file));
+    }
+
+    @Test
+    void testFileHandlerIgnoresErrorResponse(@TempDir final Path dir) throws IOException {
+        final URI uri = URI.create(config.get("solid_resource_uri") + "/unauthorized");
+        final Path file = Files.writeString(dir.resolve("existing.txt"), "Existing content");
+
+        final Response<Path> response = ClientProvider.getClient()
+            .send(Request.newBuilder(uri).header("User-Agent", "InruptJavaClient/" + Request.class
+                        .getPackage().getImplementationVersion()).build(), Response.BodyHandlers.ofFile(file))
+            .toCompletableFuture().join();
+        assertEquals(401, response.statusCode());
+        assertNull(response.body());
+        assertEquals("Existing content", Files.readString(file));
+    }
+
+    @Test
+    void testBinaryCreateFromFile(@TempDir final Path dir) throws IOException {
+        final URI uri = URI.create(config.get("solid_resource_uri") + "/binary");
+        final Path file = Files.writeString(dir.resolve("binary.txt"), "This is a plain text document.");
+
+        assertDoesNotThrow(client.createFromFile(uri, TEXT_PLAIN, file).toCompletableFuture()::join);
+        assertDoesNotThrow(client.updateFromFile(uri, TEXT_PLAIN, file).toCompletableFuture()::join);
+    }
+
     @Test
     void testGetInvalidType() {
         final URI uri = URI.create(config.get("solid_resource_uri") + "/playlist");
@@ -216,6 +216,14 @@ public class SolidMockHttpService {
             .willReturn(aResponse()
                 .withStatus(204)));
 
+        wireMockServer.stubFor(get(urlEqualTo("/binary"))
+            .atPriority(1)
+            .withHeader("User-Agent", equalTo(USER_AGENT))
+            .withHeader("If-None-Match", equalTo("\"binary\""))
+            .willReturn(aResponse()
+                .withStatus(304)
+                .withHeader("ETag", "\"binary\"")));
+
         wireMockServer.stubFor(get(urlEqualTo("/binary"))
             .atPriority(1)
             .withHeader("User-Agent", equalTo(USER_AGENT))
@@ -20,14 +20,19 @@
  */
 package com.inrupt.client.test;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.inrupt.client.Request;
 import com.inrupt.client.Response;
 import com.inrupt.client.spi.HttpService;
 import com.inrupt.client.spi.ServiceProvider;
+import com.inrupt.client.util.IOUtils;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -82,6 +87,46 @@ public class HttpServices {
         assertTrue(response.body().contains("Julie C. Sparks and David Widger"));
     }
 
+    @Test
+    void testSendOfInputStream() throws IOException {
+        final URI uri = URI.create(config.get(HTTP_URI) + "/file");
+        final Request request = Request.newBuilder()
+            .uri(uri)
+            .GET()
+            .build();
+
+        final Response<InputStream> response = httpService.send(request,
+                Response.BodyHandlers.ofInputStream()).toCompletableFuture().join();
+
+        assertEquals(200, response.statusCode());
+        assertEquals(uri, response.uri());
+        assertEquals(Optional.of(TEXT_PLAIN), response.headers().firstValue(CONTENT_TYPE));
+        try (final InputStream body = response.body()) {
+            assertTrue(new String(body.readAllBytes(), UTF_8).contains("Julie C. Sparks and David Widger"));
+        }
+    }
+
+    @Test
+    void testSendStreamAndBuffer() throws IOException {
+        final URI uri = URI.create(config.get(HTTP_URI) + "/file");
+        final Request request = Request.newBuilder()
+            .uri(uri)
+            .GET()
+            .build();
+
+        final Response<String> response = httpService.send(request, responseInfo -> {
+            try (final InputStream body = responseInfo.bodyAsInputStream()) {
+                assertThrows(IllegalStateException.class, responseInfo::body);
+                return new String(body.readAllBytes(), UTF_8);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }).toCompletableFuture().join();
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("Julie C. Sparks and David Widger"));
+    }
+
     @Test
     void testSendRequestImage() throws IOException {
         final URI uri = URI.create(config.get(HTTP_URI) + "/solid.png");
@@ -119,6 +164,46 @@ public class HttpServices {
         assertFalse(response.headers().firstValue(CONTENT_TYPE).isPresent());
     }
 
+    @Test
+    void testPostTripleStream() throws IOException {
+        final URI uri = URI.create(config.get(HTTP_URI) + "/rdf/");
+        final String triple = "<http://example.test/s> <http://example.test/p> \"object\" .";
+        final Request request = Request.newBuilder()
+                .uri(uri)
+                .header(CONTENT_TYPE, "text/turtle")
+                .POST(IOUtils.stream(out -> {
+                    try {
+                        out.write(triple.getBytes(UTF_8));
+                    } catch (final IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                }))
+                .build();
+
+        final Response<Void> response = httpService.send(request, Response.BodyHandlers.discarding())
+            .toCompletableFuture().join();
+
+        assertEquals(201, response.statusCode());
+        assertEquals(uri, response.uri());
+    }
+
+    @Test
+    void testPostTripleStreamKnownLength() throws IOException {
+        final URI uri = URI.create(config.get(HTTP_URI) + "/rdf/");
+        final byte[] triple = "<http://example.test/s> <http://example.test/p> \"object\" .".getBytes(UTF_8);
+        final Request request = Request.newBuilder()
+                .uri(uri)
+                .header(CONTENT_TYPE, "text/turtle")
+                .POST(Request.BodyPublishers.ofInputStream(() -> new ByteArrayInputStream(triple), triple.length))
+                .build();
+
+        final Response<Void> response = httpService.send(request, Response.BodyHandlers.discarding())
+            .toCompletableFuture().join();
+
+        assertEquals(201, response.statusCode());
+        assertEquals(uri, response.uri());
+    }
+
     @Test
     void testPatchTriple() throws IOException {
         final URI uri = URI.create(config.get(HTTP_URI) + "/rdf");
@@ -28,4 +28,5 @@ public class TokenResponse {
     public String tokenType;
     public int expiresIn;
     public String scope;
+    public String pct;
 }
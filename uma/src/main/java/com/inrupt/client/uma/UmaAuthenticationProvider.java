@@ -20,14 +20,17 @@
  */
 package com.inrupt.client.uma;
 
+import com.inrupt.client.ClientCache;
 import com.inrupt.client.Request;
 import com.inrupt.client.auth.Authenticator;
 import com.inrupt.client.auth.Challenge;
 import com.inrupt.client.auth.Credential;
 import com.inrupt.client.auth.Session;
 import com.inrupt.client.spi.AuthenticationProvider;
+import com.inrupt.client.spi.ServiceProvider;
 
 import java.net.URI;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -38,7 +41,9 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -67,6 +72,12 @@ public class UmaAuthenticationProvider implements AuthenticationProvider {
     private final UmaClient umaClient;
     private final NeedInfoHandler claimHandler;
     private final Set<String> supportedSchemes = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    // Authorization servers that have required an access grant within a session, mapped to whether
+    // pushing the access grant alone in the first token request has succeeded
+    private final ClientCache<String, Boolean> grantRequired = ServiceProvider.getCacheBuilder()
+        .build(1000, Duration.ofHours(1));
+    private final ClientCache<String, PersistedTokens> persistedTokens = ServiceProvider.getCacheBuilder()
+        .build(1000, Duration.ofHours(1));
 
     public UmaAuthenticationProvider() {
         this(100);
@@ -159,6 +170,11 @@ public class UmaAuthenticationProvider implements AuthenticationProvider {
             return priorityLevel;
         }
 
+        @Override
+        public Optional<URI> getIssuer() {
+            return Optional.of(URI.create(challenge.getParameter(AS_URI)));
+        }
+
         @Override
         public CompletionStage<Credential> authenticate(final Session session, final Request request,
                 final Set<String> algorithms) {
@@ -169,44 +185,163 @@ public class UmaAuthenticationProvider implements AuthenticationProvider {
                 .thenCompose(metadata -> {
                     if (supportsProfile(metadata, ID_TOKEN)) {
                         // Pre-emptively push ID Token claims if supported
-                        final Optional<Credential> credential = session.getCredential(ID_TOKEN, request.uri());
-
-                        final ClaimToken claimToken = credential.map(cred ->
-                                ClaimToken.of(cred.getToken(), ID_TOKEN)).orElse(null);
-
-                        final TokenRequest req = new TokenRequest(ticket, null, null, claimToken,
-                                Collections.emptyList());
-                        LOGGER.debug("Pushing ID Token claims to token endpoint: {}", metadata.tokenEndpoint);
-                        return umaClient.token(metadata.tokenEndpoint, req, claimHandler::getToken)
-                            .thenCompose(token -> {
-                                // TODO this logic should be replaced with proper token negotiation
-                                final URI principal = credential.flatMap(Credential::getPrincipal).orElse(null);
-                                final String jkt = credential.flatMap(Credential::getProofThumbprint).orElse(null);
-                                if (insufficientScope(token) && supportsProfile(metadata, VERIFIABLE_CREDENTIAL)) {
-                                    // Push an Access Grant as a verifiable credential
-                                    final Optional<Credential> cred2 = session.getCredential(VERIFIABLE_CREDENTIAL,
-                                            request.uri());
-                                    if (cred2.isPresent()) {
-                                        final ClaimToken claimToken2 = ClaimToken.of(cred2.get().getToken(),
-                                                VERIFIABLE_CREDENTIAL);
-                                        final TokenRequest req2 = new TokenRequest(ticket, null, token.accessToken,
-                                                claimToken2, Collections.emptyList());
-                                        LOGGER.debug("Pushing Access Grant claims to token endpoint: {}",
-                                                metadata.tokenEndpoint);
-                                        return umaClient.token(metadata.tokenEndpoint, req2, claimHandler::getToken)
-                                            .thenApply(token2 -> new Credential(token2.tokenType, as,
-                                                        token2.accessToken, Instant.now().plusSeconds(token2.expiresIn),
-                                                        principal, jkt));
-                                    }
-                                }
-                                return CompletableFuture.completedFuture(new Credential(token.tokenType, as,
-                                            token.accessToken, Instant.now().plusSeconds(token.expiresIn),
-                                            principal, jkt));
-                            });
+                        return session.getCredentialAsync(ID_TOKEN, request.uri())
+                            .thenCompose(credential -> negotiate(session, request, metadata, as, ticket, credential));
                     }
                     return CompletableFuture.completedFuture(null);
                 });
         }
+
+        private CompletionStage<Credential> negotiate(final Session session, final Request request,
+                final Metadata metadata, final URI as, final String ticket, final Optional<Credential> credential) {
+            final String key = persistenceKey(session, as, credential);
+
+            // If this authorization server previously required an access grant, push it straight away
+            if (Boolean.TRUE.equals(grantRequired.get(key)) && supportsProfile(metadata, VERIFIABLE_CREDENTIAL)) {
+                final Optional<Credential> grant = session.getCredential(VERIFIABLE_CREDENTIAL, request.uri());
+                if (grant.isPresent()) {
+                    final TokenRequest req = new TokenRequest(ticket, null, null,
+                            ClaimToken.of(grant.get().getToken(), VERIFIABLE_CREDENTIAL), Collections.emptyList());
+                    LOGGER.debug("Pushing Access Grant claims to token endpoint: {}", metadata.tokenEndpoint);
+                    return umaClient.token(metadata.tokenEndpoint, req, claimHandler::getToken)
+                        .handle((token, err) -> {
+                            if (err == null && !insufficientScope(token)) {
+                                grantRequired.put(key, Boolean.TRUE);
+                                return CompletableFuture.completedFuture(toCredential(key, as, token, credential));
+                            }
+                            // The access grant alone is not sufficient, so use the regular sequence
+                            LOGGER.debug("Unable to negotiate a token with Access Grant claims alone: {}", as);
+                            if (err == null || isRejection(err)) {
+                                // Only a definitive answer from the authorization server changes the policy;
+                                // a transient failure leaves it in place for the next negotiation
+                                return redeem(session, request, metadata, as, ticket, credential)
+                                    .whenComplete((c, e) -> grantRequired.put(key, Boolean.FALSE));
+                            }
+                            return redeem(session, request, metadata, as, ticket, credential);
+                        })
+                        .thenCompose(Function.identity());
+                }
+            }
+            return redeem(session, request, metadata, as, ticket, credential);
+        }
+
+        private CompletionStage<Credential> redeem(final Session session, final Request request,
+                final Metadata metadata, final URI as, final String ticket, final Optional<Credential> credential) {
+            final String key = persistenceKey(session, as, credential);
+            final PersistedTokens persisted = persistedTokens.get(key);
+            if (persisted != null && persisted.pct != null) {
+                // A persisted claims token stands in for the claims pushed in an earlier negotiation
+                final TokenRequest req = new TokenRequest(ticket, persisted.pct, persisted.getRpt(), null,
+                        Collections.emptyList());
+                LOGGER.debug("Sending persisted claims token to token endpoint: {}", metadata.tokenEndpoint);
+                return umaClient.token(metadata.tokenEndpoint, req, claimHandler::getToken)
+                    .handle((token, err) -> {
+                        if (err == null && !insufficientScope(token)) {
+                            return CompletableFuture.completedFuture(toCredential(key, as, token, credential));
+                        }
+                        if (err != null) {
+                            // The authorization server no longer accepts the persisted claims token
+                            LOGGER.debug("Persisted claims token rejected by {}: {}", as, err.getMessage());
+                            persistedTokens.invalidate(key);
+                        }
+                        return pushClaims(session, request, metadata, as, ticket, credential);
+                    })
+                    .thenCompose(Function.identity());
+            }
+            return pushClaims(session, request, metadata, as, ticket, credential);
+        }
+
+        private CompletionStage<Credential> pushClaims(final Session session, final Request request,
+                final Metadata metadata, final URI as, final String ticket, final Optional<Credential> credential) {
+            final String key = persistenceKey(session, as, credential);
+            final PersistedTokens persisted = persistedTokens.get(key);
+            final String rpt = persisted != null ? persisted.getRpt() : null;
+            final ClaimToken claimToken = credential.map(cred ->
+                    ClaimToken.of(cred.getToken(), ID_TOKEN)).orElse(null);
+
+            // An unexpired RPT from an earlier negotiation is upgraded rather than replaced
+            final TokenRequest req = new TokenRequest(ticket, null, rpt, claimToken,
+                    Collections.emptyList());
+            LOGGER.debug("Pushing ID Token claims to token endpoint: {}", metadata.tokenEndpoint);
+            return umaClient.token(metadata.tokenEndpoint, req, claimHandler::getToken)
+                .thenCompose(token -> {
+                    // TODO this logic should be replaced with proper token negotiation
+                    if (insufficientScope(token) && supportsProfile(metadata, VERIFIABLE_CREDENTIAL)) {
+                        // Push an Access Grant as a verifiable credential
+                        final Optional<Credential> cred2 = session.getCredential(VERIFIABLE_CREDENTIAL,
+                                request.uri());
+                        if (cred2.isPresent()) {
+                            final ClaimToken claimToken2 = ClaimToken.of(cred2.get().getToken(),
+                                    VERIFIABLE_CREDENTIAL);
+                            final TokenRequest req2 = new TokenRequest(ticket, token.pct, token.accessToken,
+                                    claimToken2, Collections.emptyList());
+                            LOGGER.debug("Pushing Access Grant claims to token endpoint: {}",
+                                    metadata.tokenEndpoint);
+                            return umaClient.token(metadata.tokenEndpoint, req2, claimHandler::getToken)
+                                .thenApply(token2 -> {
+                                    // Remember that this authorization server requires an access grant
+                                    grantRequired.put(key, Boolean.TRUE);
+                                    return toCredential(key, as, token2, credential);
+                                });
+                        }
+                    }
+                    return CompletableFuture.completedFuture(toCredential(key, as, token, credential));
+                });
+        }
+
+        private Credential toCredential(final String key, final URI as, final TokenResponse token,
+                final Optional<Credential> credential) {
+            // Retain the persisted claims token and RPT for later negotiations within this session
+            persistedTokens.put(key, PersistedTokens.of(persistedTokens.get(key), token));
+            final URI principal = credential.flatMap(Credential::getPrincipal).orElse(null);
+            final String jkt = credential.flatMap(Credential::getProofThumbprint).orElse(null);
+            return new Credential(token.tokenType, as, token.accessToken,
+                    Instant.now().plusSeconds(token.expiresIn), principal, jkt);
+        }
+    }
+
+    static boolean isRejection(final Throwable err) {
+        final Throwable cause = err instanceof CompletionException && err.getCause() != null ? err.getCause() : err;
+        // A need_info response that cannot be satisfied is reported as a denied request
+        return cause instanceof InvalidGrantException || cause instanceof RequestDeniedException;
+    }
+
+    static String persistenceKey(final Session session, final URI as, final Optional<Credential> credential) {
+        // Tokens are bound to the requesting party, which may change within a session
+        return String.join(" ", session.getId(), as.toString(),
+                credential.flatMap(Credential::getPrincipal).map(URI::toString).orElse(""));
+    }
+
+    /**
+     * The persisted claims token and requesting party token issued to a session by an authorization server.
+     */
+    static final class PersistedTokens {
+        final String pct;
+        final String rpt;
+        final Instant rptExpiration;
+
+        private PersistedTokens(final String pct, final String rpt, final Instant rptExpiration) {
+            this.pct = pct;
+            this.rpt = rpt;
+            this.rptExpiration = rptExpiration;
+        }
+
+        static PersistedTokens of(final PersistedTokens previous, final TokenResponse token) {
+            // An authorization server need not issue a new persisted claims token with each response
+            final String pct = token.pct != null ? token.pct : previous != null ? previous.pct : null;
+            if (insufficientScope(token)) {
+                return new PersistedTokens(pct, previous != null ? previous.rpt : null,
+                        previous != null ? previous.rptExpiration : null);
+            }
+            return new PersistedTokens(pct, token.accessToken, Instant.now().plusSeconds(token.expiresIn));
+        }
+
+        String getRpt() {
+            if (rpt != null && rptExpiration != null && rptExpiration.isAfter(Instant.now())) {
+                return rpt;
+            }
+            return null;
+        }
     }
 
     static boolean supportsProfile(final Metadata metadata, final URI profile) {
@@ -26,6 +26,7 @@ import com.inrupt.client.*;
 import com.inrupt.client.spi.HttpService;
 import com.inrupt.client.spi.JsonService;
 import com.inrupt.client.spi.ServiceProvider;
+import com.inrupt.client.util.DiscoveryCache;
 import com.inrupt.client.util.URIBuilder;
 
 import java.io.IOException;
@@ -34,6 +35,7 @@ import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -75,7 +77,7 @@ public class UmaClient {
     private static final String NEED_INFO = "need_info";
     private static final String REQUEST_DENIED = "request_denied";
 
-    private final ClientCache<URI, Metadata> metadataCache;
+    private final DiscoveryCache<Metadata> metadataCache;
     private final HttpService httpClient;
     private final JsonService jsonService;
     private final int maxIterations;
@@ -98,12 +100,15 @@ public class UmaClient {
      * @param maxIterations the maximum number of claims gathering stages
      */
     public UmaClient(final HttpService httpClient, final int maxIterations) {
-        this(httpClient, ServiceProvider.getCacheBuilder().build(100, Duration.ofMinutes(60)), maxIterations);
+        this(httpClient, ServiceProvider.getCacheBuilder().build(100, Duration.ofHours(24)), maxIterations);
     }
 
     /**
      * Create an UMA client using an externally-configured HTTP client and cache.
      *
+     * <p>Metadata is retained for the duration of its {@code Cache-Control: max-age}, or 60 minutes
+     * if there is no such directive, unless the cache itself expires the metadata earlier.
+     *
      * @param httpClient the externally configured HTTP client
      * @param metadataCache the externally configured metadata cache
      * @param maxIterations the maximum number of claims gathering stages
@@ -111,7 +116,8 @@ public class UmaClient {
     public UmaClient(final HttpService httpClient, final ClientCache<URI, Metadata> metadataCache,
             final int maxIterations) {
         this.httpClient = Objects.requireNonNull(httpClient, "httpClient may not be null!");
-        this.metadataCache = Objects.requireNonNull(metadataCache, "metadataCache may not be null!");
+        this.metadataCache = new DiscoveryCache<>(
+                Objects.requireNonNull(metadataCache, "metadataCache may not be null!"), Duration.ofMinutes(60));
         this.maxIterations = maxIterations;
         this.jsonService = ServiceProvider.getJsonService();
     }
@@ -124,15 +130,23 @@ public class UmaClient {
      * @return the next stage of completion, containing the authorization server discovery metadata
      */
     public CompletionStage<Metadata> metadata(final URI authorizationServer) {
-        final URI uri = getMetadataUrl(authorizationServer);
-        final Metadata m = metadataCache.get(uri);
-        if (m != null) {
-            return CompletableFuture.completedFuture(m);
-        }
+        // Concurrent requests for the same metadata share a single fetch
+        return metadataCache.get(getMetadataUrl(authorizationServer),
+                uri -> httpClient.send(Request.newBuilder(uri).header(ACCEPT, JSON).build(),
+                    Response.BodyHandlers.ofInputStream()),
+                this::processMetadataResponse);
+    }
 
-        final Request req = Request.newBuilder(uri).header(ACCEPT, JSON).build();
-        return httpClient.send(req, Response.BodyHandlers.ofInputStream())
-            .thenApply(res -> processMetadataResponse(uri, res));
+    /**
+     * Fetch the UMA metadata resources of several authorization servers ahead of their use.
+     *
+     * @param authorizationServers the authorization server URIs
+     * @return the next stage of completion, which completes once all of the metadata resources are cached
+     */
+    public CompletionStage<Void> warmUp(final URI... authorizationServers) {
+        return CompletableFuture.allOf(Arrays.stream(authorizationServers)
+                .map(as -> metadata(as).toCompletableFuture())
+                .toArray(CompletableFuture[]::new));
     }
 
     /**
@@ -158,16 +172,16 @@ public class UmaClient {
 
         final Request req = buildTokenRequest(tokenEndpoint, tokenRequest);
         return httpClient.send(req, Response.BodyHandlers.ofInputStream()).thenCompose(res -> {
-            try {
+            try (final InputStream input = res.body()) {
                 // Successful terminal state
                 if (SUCCESS == res.statusCode()) {
                     return CompletableFuture
-                            .completedFuture(jsonService.fromJson(res.body(), TokenResponse.class));
+                            .completedFuture(jsonService.fromJson(input, TokenResponse.class));
                 }
 
                 // Everything else is a 4xx response
                 // Attempt to read the error response as JSON
-                final ErrorResponse err = jsonService.fromJson(res.body(), ErrorResponse.class);
+                final ErrorResponse err = jsonService.fromJson(input, ErrorResponse.class);
 
                 if (err.error != null) {
                     return readErrorMessage(err, tokenEndpoint, tokenRequest.getScopes(), claimMapper, count);
@@ -258,16 +272,13 @@ public class UmaClient {
     }
 
 
-    private Metadata processMetadataResponse(final URI uri, final Response<InputStream> response) {
-        if (response.statusCode() == SUCCESS) {
-            try {
-                final Metadata metadata = jsonService.fromJson(response.body(), Metadata.class);
-                metadataCache.put(uri, metadata);
-                return metadata;
-
-            } catch (final IOException ex) {
-                throw new UmaException("Error while processing UMA metadata response", ex);
+    private Metadata processMetadataResponse(final Response<InputStream> response) {
+        try (final InputStream input = response.body()) {
+            if (response.statusCode() == SUCCESS) {
+                return jsonService.fromJson(input, Metadata.class);
             }
+        } catch (final IOException ex) {
+            throw new UmaException("Error while processing UMA metadata response", ex);
         }
         throw new UmaException("Unexpected response code during UMA discovery: " + response.statusCode());
     }
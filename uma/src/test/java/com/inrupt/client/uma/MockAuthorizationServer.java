@@ -153,6 +153,36 @@ public class MockAuthorizationServer {
                     .withBody("{\"access_token\":\"token-from-id-token\",\"token_type\":\"Bearer\"," +
                         "\"scope\":\"Read Write\"}")));
 
+        // Stubs for persisted claims tokens
+        wireMockServer.stubFor(WireMock.post(WireMock.urlEqualTo(TOKEN_ENDPOINT))
+                .withRequestBody(WireMock.containing("ticket=ticket-pct-"))
+                .withRequestBody(WireMock.containing("claim_token="))
+                .withRequestBody(WireMock.notContaining("pct="))
+                .willReturn(WireMock.aResponse()
+                    .withStatus(200)
+                    .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                    .withBody("{\"access_token\":\"token-pct-claims\",\"token_type\":\"Bearer\"," +
+                        "\"expires_in\":300,\"scope\":\"Read\",\"pct\":\"pct-12345\"}")));
+
+        wireMockServer.stubFor(WireMock.post(WireMock.urlEqualTo(TOKEN_ENDPOINT))
+                .withRequestBody(WireMock.containing("ticket=ticket-pct-accepted"))
+                .withRequestBody(WireMock.containing("pct=pct-12345"))
+                .withRequestBody(WireMock.containing("rpt=token-pct-claims"))
+                .withRequestBody(WireMock.notContaining("claim_token="))
+                .willReturn(WireMock.aResponse()
+                    .withStatus(200)
+                    .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                    .withBody("{\"access_token\":\"token-pct-upgraded\",\"token_type\":\"Bearer\"," +
+                        "\"expires_in\":300,\"scope\":\"Read Write\"}")));
+
+        wireMockServer.stubFor(WireMock.post(WireMock.urlEqualTo(TOKEN_ENDPOINT))
+                .withRequestBody(WireMock.containing("ticket=ticket-pct-rejected"))
+                .withRequestBody(WireMock.containing("pct=pct-12345"))
+                .willReturn(WireMock.aResponse()
+                    .withStatus(400)
+                    .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                    .withBody("{\"error\":\"invalid_grant\"}")));
+
         // Stubs for unexpected error responses (per spec)
         wireMockServer.stubFor(WireMock.post(WireMock.urlEqualTo(TOKEN_ENDPOINT))
                 .withRequestBody(WireMock.containing("ticket=ticket-unknown-error"))
@@ -208,6 +238,15 @@ public class MockAuthorizationServer {
         wireMockServer.stop();
     }
 
+    public int countTokenRequests(final String content) {
+        return wireMockServer.findAll(WireMock.postRequestedFor(WireMock.urlEqualTo(TOKEN_ENDPOINT))
+                .withRequestBody(WireMock.containing(content))).size();
+    }
+
+    public int countRequests(final String path) {
+        return wireMockServer.findAll(WireMock.getRequestedFor(WireMock.urlEqualTo(path))).size();
+    }
+
     public String getDiscoveryDocument(final String baseUrl) {
         return "{" +
             "\"dpop_signing_alg_values_supported\": [\"ES256\",\"RS256\"]," +
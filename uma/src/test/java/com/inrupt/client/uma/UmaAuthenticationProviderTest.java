@@ -0,0 +1,277 @@
+/*
+ * Copyright Inrupt Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+ * SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.inrupt.client.uma;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.inrupt.client.Request;
+import com.inrupt.client.auth.Authenticator;
+import com.inrupt.client.auth.Challenge;
+import com.inrupt.client.auth.Credential;
+import com.inrupt.client.auth.Session;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class UmaAuthenticationProviderTest {
+
+    private static final String ID_TOKEN_FORMAT = "claim_token_format=" +
+        "http%3A%2F%2Fopenid.net%2Fspecs%2Fopenid-connect-core-1_0.html%23IDToken";
+    private static final String VC_FORMAT = "claim_token_format=" +
+        "https%3A%2F%2Fwww.w3.org%2FTR%2Fvc-data-model%2F%23json-ld";
+    private static final WireMockServer server = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+    private static final MockAuthorizationServer as = new MockAuthorizationServer();
+    private static final Map<String, String> config = new HashMap<>();
+
+    @BeforeAll
+    static void setup() throws Exception {
+        server.start();
+        config.putAll(as.start());
+    }
+
+    @AfterAll
+    static void teardown() {
+        server.stop();
+        as.stop();
+    }
+
+    @BeforeEach
+    void reset() {
+        server.resetAll();
+        server.stubFor(get(urlEqualTo("/.well-known/uma2-configuration"))
+                .willReturn(aResponse()
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"issuer\":\"" + server.baseUrl() + "\"," +
+                        "\"token_endpoint\":\"" + server.baseUrl() + "/token\"," +
+                        "\"uma_profiles_supported\":[" +
+                        "\"http://openid.net/specs/openid-connect-core-1_0.html#IDToken\"," +
+                        "\"https://www.w3.org/TR/vc-data-model/#json-ld\"]}")));
+        // ID token claims alone yield a token with insufficient scope
+        server.stubFor(post(urlEqualTo("/token"))
+                .withRequestBody(containing(ID_TOKEN_FORMAT))
+                .willReturn(aResponse()
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"access_token\":\"token-id\",\"token_type\":\"Bearer\",\"expires_in\":300}")));
+        server.stubFor(post(urlEqualTo("/token"))
+                .withRequestBody(containing(VC_FORMAT))
+                .withRequestBody(containing("rpt=token-id"))
+                .willReturn(aResponse()
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"access_token\":\"token-vc\",\"token_type\":\"Bearer\",\"expires_in\":300," +
+                        "\"scope\":\"Read\"}")));
+    }
+
+    @Test
+    void testPredictedAccessGrant() {
+        server.stubFor(post(urlEqualTo("/token"))
+                .withRequestBody(containing(VC_FORMAT))
+                .withRequestBody(notContaining("rpt="))
+                .willReturn(aResponse()
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"access_token\":\"token-direct\",\"token_type\":\"Bearer\",\"expires_in\":300," +
+                        "\"scope\":\"Read\"}")));
+
+        final UmaAuthenticationProvider provider = new UmaAuthenticationProvider(100);
+        final Session session = new GrantSession();
+        assertEquals("token-vc", authenticate(provider, session, "/resource/1").getToken());
+        server.verify(2, postRequestedFor(urlEqualTo("/token")));
+
+        // Once an access grant has been required, it is pushed in a single exchange
+        assertEquals("token-direct", authenticate(provider, session, "/resource/2").getToken());
+        server.verify(3, postRequestedFor(urlEqualTo("/token")));
+    }
+
+    @Test
+    void testFailedPrediction() {
+        server.stubFor(post(urlEqualTo("/token"))
+                .withRequestBody(containing(VC_FORMAT))
+                .withRequestBody(notContaining("rpt="))
+                .willReturn(aResponse()
+                    .withStatus(403)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"error\":\"request_denied\"}")));
+
+        final UmaAuthenticationProvider provider = new UmaAuthenticationProvider(100);
+        final Session session = new GrantSession();
+        assertEquals("token-vc", authenticate(provider, session, "/resource/1").getToken());
+
+        // The access grant alone is rejected, so the regular sequence follows
+        assertEquals("token-vc", authenticate(provider, session, "/resource/2").getToken());
+        server.verify(5, postRequestedFor(urlEqualTo("/token")));
+
+        // The prediction is no longer made
+        assertEquals("token-vc", authenticate(provider, session, "/resource/3").getToken());
+        server.verify(7, postRequestedFor(urlEqualTo("/token")));
+        server.verify(1, postRequestedFor(urlEqualTo("/token")).withRequestBody(notContaining("rpt="))
+                .withRequestBody(containing(VC_FORMAT)));
+
+        // The regular sequence again required an access grant, so the prediction is made once more
+        assertEquals("token-vc", authenticate(provider, session, "/resource/4").getToken());
+        server.verify(2, postRequestedFor(urlEqualTo("/token")).withRequestBody(notContaining("rpt="))
+                .withRequestBody(containing(VC_FORMAT)));
+    }
+
+    @Test
+    void testTransientPredictionFailure() {
+        server.stubFor(post(urlEqualTo("/token"))
+                .withRequestBody(containing(VC_FORMAT))
+                .withRequestBody(notContaining("rpt="))
+                .willReturn(aResponse()
+                    .withStatus(503)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{}")));
+
+        final UmaAuthenticationProvider provider = new UmaAuthenticationProvider(100);
+        final Session session = new GrantSession();
+        assertEquals("token-vc", authenticate(provider, session, "/resource/1").getToken());
+
+        // A transient failure falls back to the regular sequence
+        assertEquals("token-vc", authenticate(provider, session, "/resource/2").getToken());
+        server.verify(5, postRequestedFor(urlEqualTo("/token")));
+
+        // The prediction is still made
+        assertEquals("token-vc", authenticate(provider, session, "/resource/3").getToken());
+        server.verify(2, postRequestedFor(urlEqualTo("/token")).withRequestBody(notContaining("rpt="))
+                .withRequestBody(containing(VC_FORMAT)));
+    }
+
+    @Test
+    void testPersistedClaimsToken() {
+        final UmaAuthenticationProvider provider = new UmaAuthenticationProvider(100);
+        final Session session = new GrantSession();
+        final String asUri = config.get("as_uri");
+        assertEquals("token-pct-claims", authenticate(provider, session, asUri, "ticket-pct-first").getToken());
+
+        // The persisted claims token and RPT replace the pushed claims
+        assertEquals("token-pct-upgraded",
+                authenticate(provider, session, asUri, "ticket-pct-accepted").getToken());
+        assertEquals(1, as.countTokenRequests("ticket=ticket-pct-accepted"));
+
+        // Other sessions push their own claims
+        assertEquals("token-pct-claims",
+                authenticate(provider, new GrantSession(), asUri, "ticket-pct-other").getToken());
+    }
+
+    @Test
+    void testRejectedPersistedClaimsToken() {
+        final UmaAuthenticationProvider provider = new UmaAuthenticationProvider(100);
+        final Session session = new GrantSession();
+        final String asUri = config.get("as_uri");
+        assertEquals("token-pct-claims", authenticate(provider, session, asUri, "ticket-pct-start").getToken());
+
+        // A rejected persisted claims token is followed by pushing the claims
+        assertEquals("token-pct-claims",
+                authenticate(provider, session, asUri, "ticket-pct-rejected").getToken());
+        assertEquals(2, as.countTokenRequests("ticket=ticket-pct-rejected"));
+    }
+
+    static Credential authenticate(final UmaAuthenticationProvider provider, final Session session,
+            final String path) {
+        return authenticate(provider, session, server.baseUrl(), "ticket" + path.hashCode());
+    }
+
+    static Credential authenticate(final UmaAuthenticationProvider provider, final Session session,
+            final String asUri, final String ticket) {
+        final Map<String, String> params = new HashMap<>();
+        params.put("as_uri", asUri);
+        params.put("ticket", ticket);
+        final Authenticator authenticator = provider.getAuthenticator(Challenge.of("UMA", params));
+        final Request request = Request.newBuilder(URI.create("https://storage.example/" + ticket)).build();
+        return authenticator.authenticate(session, request, Collections.emptySet()).toCompletableFuture().join();
+    }
+
+    static class GrantSession implements Session {
+        private final Credential idToken = new Credential("Bearer", URI.create("https://issuer.example"),
+                "id-token", Instant.now().plusSeconds(300), URI.create("https://id.example/user"), null);
+        private final Credential grant = new Credential("Bearer", URI.create("https://vc.example"),
+                "access-grant", Instant.now().plusSeconds(300), URI.create("https://id.example/user"), null);
+
+        private final String id = UUID.randomUUID().toString();
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public Optional<URI> getPrincipal() {
+            return idToken.getPrincipal();
+        }
+
+        @Override
+        public Set<String> supportedSchemes() {
+            return Collections.singleton("UMA");
+        }
+
+        @Override
+        public Optional<Credential> getCredential(final URI name, final URI uri) {
+            if (UmaAuthenticationProvider.ID_TOKEN.equals(name)) {
+                return Optional.of(idToken);
+            } else if (UmaAuthenticationProvider.VERIFIABLE_CREDENTIAL.equals(name)) {
+                return Optional.of(grant);
+            }
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Credential> fromCache(final Request request) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<String> generateProof(final String jkt, final Request request) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<String> selectThumbprint(final Collection<String> algorithms) {
+            return Optional.empty();
+        }
+
+        @Override
+        public void reset() {
+            // no-op
+        }
+
+        @Override
+        public CompletionStage<Optional<Credential>> authenticate(final Authenticator authenticator,
+                final Request request, final Set<String> algorithms) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+    }
+}
@@ -65,6 +65,22 @@ class UmaClientTest {
         checkMetadata(metadata);
     }
 
+    @Test
+    void testMetadataSingleFlight() {
+        final UmaClient umaClient = new UmaClient();
+        final URI asUri = URI.create(config.get("as_uri"));
+        final int before = as.countRequests(MockAuthorizationServer.DISCOVERY_ENDPOINT);
+
+        final CompletableFuture<?>[] futures = Stream.generate(() -> umaClient.metadata(asUri).toCompletableFuture())
+            .limit(20).toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
+        umaClient.warmUp(asUri).toCompletableFuture().join();
+
+        // Concurrent discovery is coalesced into a single request, after which the metadata is cached
+        assertEquals(before + 1, as.countRequests(MockAuthorizationServer.DISCOVERY_ENDPOINT));
+        checkMetadata(umaClient.metadata(asUri).toCompletableFuture().join());
+    }
+
     @Test
     void testMetadataNotFoundAsync() {
         final URI asUri = URI.create(config.get("as_uri") + "/not-found");